@@ -17,9 +17,11 @@
 
 package io.shardingsphere.transaction.base.saga.persistence.jpa;
 
+import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
 import io.shardingsphere.transaction.base.saga.actuator.transport.SagaTransportFactory;
 import io.shardingsphere.transaction.base.saga.persistence.jpa.entity.SagaEventEntity;
 import io.shardingsphere.transaction.base.saga.persistence.jpa.repository.SagaEventRepository;
+import io.shardingsphere.transaction.base.utils.Constant;
 import org.apache.servicecomb.saga.core.EventEnvelope;
 import org.apache.servicecomb.saga.core.JacksonToJsonFormat;
 import org.apache.servicecomb.saga.core.PersistentStore;
@@ -27,6 +29,9 @@ import org.apache.servicecomb.saga.core.SagaEvent;
 import org.apache.servicecomb.saga.core.ToJsonFormat;
 import org.apache.servicecomb.saga.format.JacksonSagaEventFormat;
 import org.apache.servicecomb.saga.format.SagaEventFormat;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+import org.apache.shardingsphere.core.execute.ShardingExecuteDataMap;
 
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -42,7 +47,13 @@ public final class SagaPersistenceImpl implements PersistentStore {
     
     private final SagaEventRepository sagaEventRepository = new SagaEventRepository();
     
-    private final SagaEventFormat sagaEventFormat = new JacksonSagaEventFormat(SagaTransportFactory.getInstance());
+    private final SagaEventFormat sagaEventFormat = new JacksonSagaEventFormat(new TransportFactory<SQLTransport>() {
+        
+        @Override
+        public SQLTransport getTransport() {
+            return new SagaTransportFactory((ShardingSQLTransactionManager) ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_MANAGER_KEY)).getTransport();
+        }
+    });
     
     private final ToJsonFormat toJsonFormat = new JacksonToJsonFormat();
     
@@ -19,6 +19,8 @@ package io.shardingsphere.transaction.base;
 
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
 import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
+import io.shardingsphere.transaction.base.saga.actuator.transport.CompensationConnectionManager;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.spi.database.DatabaseType;
 import org.apache.shardingsphere.transaction.core.ResourceDataSource;
@@ -42,13 +44,25 @@ public final class SagaShardingTransactionManager implements ShardingTransaction
     
     private final Map<String, DataSource> dataSourceMap = new HashMap<>();
     
-    private final ShardingSQLTransactionManager shardingSQLTransactionManager = ShardingSQLTransactionManager.getInstance();
+    private final ShardingSQLTransactionManager shardingSQLTransactionManager;
+    
+    private DatabaseType databaseType;
+    
+    public SagaShardingTransactionManager() {
+        shardingSQLTransactionManager = new ShardingSQLTransactionManager();
+    }
+    
+    public SagaShardingTransactionManager(final SagaConfiguration sagaConfiguration) {
+        shardingSQLTransactionManager = new ShardingSQLTransactionManager(sagaConfiguration);
+    }
     
     @Override
     public void init(final DatabaseType databaseType, final Collection<ResourceDataSource> resourceDataSources) {
+        this.databaseType = databaseType;
         for (ResourceDataSource each : resourceDataSources) {
             registerDataSourceMap(each.getOriginalName(), each.getDataSource());
         }
+        shardingSQLTransactionManager.warmUp(dataSourceMap.values());
     }
     
     private void registerDataSourceMap(final String datasourceName, final DataSource dataSource) {
@@ -92,7 +106,14 @@ public final class SagaShardingTransactionManager implements ShardingTransaction
     
     @Override
     public void begin() {
+        if (isInTransaction()) {
+            return;
+        }
         shardingSQLTransactionManager.begin();
+        getCurrentTransaction().setDatabaseType(databaseType);
+        SagaConfiguration sagaConfiguration = shardingSQLTransactionManager.getSagaConfiguration();
+        getCurrentTransaction().setCompensationConnectionManager(
+            new CompensationConnectionManager(dataSourceMap, sagaConfiguration.getCompensationMaxConnections(), sagaConfiguration.getDataSourceAcquireTimeoutMilliseconds()));
     }
     
     @Override
@@ -108,5 +129,6 @@ public final class SagaShardingTransactionManager implements ShardingTransaction
     @Override
     public void close() {
         dataSourceMap.clear();
+        shardingSQLTransactionManager.close();
     }
 }
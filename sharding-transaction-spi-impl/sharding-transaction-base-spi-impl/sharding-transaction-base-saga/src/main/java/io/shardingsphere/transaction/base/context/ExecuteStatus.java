@@ -24,5 +24,5 @@ package io.shardingsphere.transaction.base.context;
  */
 public enum ExecuteStatus {
     
-    EXECUTING, SUCCESS, FAILURE, COMPENSATING
+    EXECUTING, SUCCESS, FAILURE, COMPENSATING, COMPENSATED
 }
@@ -53,6 +53,18 @@ public final class SQLTransaction {
         this.executeStatus = executeStatus;
     }
     
+    /**
+     * Copy SQL transaction with same SQL transaction id, revert SQL result is copied too.
+     *
+     * @return copy of SQL transaction
+     */
+    public SQLTransaction copy() {
+        SQLTransaction result = new SQLTransaction(dataSourceName, sql, parameters, executeStatus);
+        result.sqlTransactionId = sqlTransactionId;
+        result.revertSQLResult = null == revertSQLResult ? null : revertSQLResult.copy();
+        return result;
+    }
+    
     @Override
     public String toString() {
         return "SagaBranchTransaction{" + "dataSourceName='" + dataSourceName + '\'' + ", sql='" + sql + '\''
@@ -18,21 +18,34 @@
 package io.shardingsphere.transaction.base.context;
 
 import com.google.common.base.Optional;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriority;
+import io.shardingsphere.transaction.base.saga.actuator.transport.CompensationConnectionManager;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.apache.shardingsphere.core.metadata.table.TableMetas;
 import org.apache.shardingsphere.core.route.SQLRouteResult;
+import org.apache.shardingsphere.spi.database.DatabaseType;
 import org.apache.shardingsphere.transaction.core.TransactionOperationType;
 
 import java.sql.Connection;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Sharding SQL transaction.
@@ -55,6 +68,30 @@ public final class ShardingSQLTransaction {
     @Setter
     private TransactionOperationType operationType = TransactionOperationType.BEGIN;
     
+    @Setter
+    private DatabaseType databaseType;
+    
+    @Setter
+    private SagaPriority priority = SagaPriority.NORMAL;
+    
+    private final Map<Connection, PreparedStatementCache> preparedStatementCaches = new IdentityHashMap<>();
+    
+    @Setter
+    private int preparedStatementCacheSize = 64;
+    
+    private final Set<String> compensationGroupFailedDataSources = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    
+    private final ConcurrentMap<String, Object> compensationGroupLocks = new ConcurrentHashMap<>();
+    
+    @Setter
+    private CompensationConnectionManager compensationConnectionManager;
+    
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean doomed = new AtomicBoolean();
+    
+    @Setter
+    private volatile Future<?> earlyCompensationFuture;
+    
     /**
      * Go to next logic SQL transaction.
      *
@@ -77,6 +114,130 @@ public final class ShardingSQLTransaction {
         }
     }
     
+    /**
+     * Get prepared statement cache of connection, create it if absent.
+     *
+     * @param connection connection
+     * @return prepared statement cache
+     */
+    public synchronized PreparedStatementCache getPreparedStatementCache(final Connection connection) {
+        PreparedStatementCache result = preparedStatementCaches.get(connection);
+        if (null == result) {
+            result = new PreparedStatementCache(connection, preparedStatementCacheSize);
+            preparedStatementCaches.put(connection, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Get lock of compensation group of data source.
+     *
+     * @param dataSourceName data source name
+     * @return lock of compensation group
+     */
+    public Object getCompensationGroupLock(final String dataSourceName) {
+        Object result = compensationGroupLocks.get(dataSourceName);
+        if (null == result) {
+            compensationGroupLocks.putIfAbsent(dataSourceName, new Object());
+            result = compensationGroupLocks.get(dataSourceName);
+        }
+        return result;
+    }
+    
+    /**
+     * Mark transaction as doomed, which means it can only be rolled back.
+     *
+     * @return true if transaction is doomed by this call, false if it has been doomed before
+     */
+    public boolean markDoomed() {
+        return doomed.compareAndSet(false, true);
+    }
+    
+    /**
+     * Whether transaction is doomed or not.
+     *
+     * @return true or false
+     */
+    public boolean isDoomed() {
+        return doomed.get();
+    }
+    
+    /**
+     * Create snapshot which only contains succeeded SQL transactions.
+     *
+     * <p>
+     * SQL transactions and their revert SQL results are copied, so compensating snapshot does not change this transaction.
+     * Execute status of compensated SQL transactions should be merged back by {@link #mergeCompensatedStatus(ShardingSQLTransaction)}.
+     * </p>
+     *
+     * @return snapshot of succeeded SQL transactions
+     */
+    public ShardingSQLTransaction createSucceededSnapshot() {
+        ShardingSQLTransaction result = new ShardingSQLTransaction();
+        result.operationType = TransactionOperationType.ROLLBACK;
+        result.databaseType = databaseType;
+        result.priority = priority;
+        result.preparedStatementCacheSize = preparedStatementCacheSize;
+        result.compensationConnectionManager = compensationConnectionManager;
+        for (LogicSQLTransaction each : logicSQLTransactions) {
+            LogicSQLTransaction logicSQLTransaction = new LogicSQLTransaction(each.getLogicSQL());
+            for (SQLTransaction sqlTransaction : each.getSqlTransactions()) {
+                if (ExecuteStatus.SUCCESS.equals(sqlTransaction.getExecuteStatus())) {
+                    logicSQLTransaction.getSqlTransactions().add(sqlTransaction.copy());
+                }
+            }
+            result.logicSQLTransactions.add(logicSQLTransaction);
+        }
+        return result;
+    }
+    
+    /**
+     * Merge execute status of compensated SQL transactions from succeeded snapshot.
+     *
+     * @param succeededSnapshot succeeded snapshot created by this transaction
+     */
+    public void mergeCompensatedStatus(final ShardingSQLTransaction succeededSnapshot) {
+        Set<String> compensatedIds = new HashSet<>();
+        for (LogicSQLTransaction each : succeededSnapshot.logicSQLTransactions) {
+            for (SQLTransaction sqlTransaction : each.getSqlTransactions()) {
+                if (ExecuteStatus.COMPENSATED.equals(sqlTransaction.getExecuteStatus())) {
+                    compensatedIds.add(sqlTransaction.getSqlTransactionId());
+                }
+            }
+        }
+        for (LogicSQLTransaction each : logicSQLTransactions) {
+            for (SQLTransaction sqlTransaction : each.getSqlTransactions()) {
+                if (compensatedIds.contains(sqlTransaction.getSqlTransactionId())) {
+                    sqlTransaction.setExecuteStatus(ExecuteStatus.COMPENSATED);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Whether transaction contains SQL transaction to compensate or not.
+     *
+     * @return true or false
+     */
+    public boolean isContainsSQLTransaction() {
+        for (LogicSQLTransaction each : logicSQLTransactions) {
+            if (!each.getSqlTransactions().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Close all prepared statement caches.
+     */
+    public synchronized void closePreparedStatementCaches() {
+        for (PreparedStatementCache each : preparedStatementCaches.values()) {
+            each.close();
+        }
+        preparedStatementCaches.clear();
+    }
+    
     /**
      * Whether branch transactions contain exception or not.
      *
@@ -110,7 +271,7 @@ public final class ShardingSQLTransaction {
     }
     
     /**
-     * Change all logic transactions status.
+     * Change all logic transactions status, compensated SQL transactions are kept as they are.
      *
      * @param executeStatus execute status
      */
@@ -122,7 +283,9 @@ public final class ShardingSQLTransaction {
     
     private void changeLogicSQLTransactionStatus(final LogicSQLTransaction logicSQLTransaction, final ExecuteStatus executeStatus) {
         for (SQLTransaction each : logicSQLTransaction.getSqlTransactions()) {
-            each.setExecuteStatus(executeStatus);
+            if (!ExecuteStatus.COMPENSATED.equals(each.getExecuteStatus())) {
+                each.setExecuteStatus(executeStatus);
+            }
         }
     }
     
@@ -145,12 +308,31 @@ public final class ShardingSQLTransaction {
         return result;
     }
     
+    /**
+     * Find SQL transactions which are waiting for compensation of data source, in reverse order of execution.
+     *
+     * @param dataSourceName data source name
+     * @return SQL transactions
+     */
+    public List<SQLTransaction> findCompensatingSQLTransactions(final String dataSourceName) {
+        List<SQLTransaction> result = new LinkedList<>();
+        for (LogicSQLTransaction each : logicSQLTransactions) {
+            for (SQLTransaction sqlTransaction : each.getSqlTransactions()) {
+                if (dataSourceName.equals(sqlTransaction.getDataSourceName()) && ExecuteStatus.COMPENSATING.equals(sqlTransaction.getExecuteStatus())
+                    && null != sqlTransaction.getRevertSQLResult() && !sqlTransaction.getRevertSQLResult().getParameters().isEmpty()) {
+                    result.add(0, sqlTransaction);
+                }
+            }
+        }
+        return result;
+    }
+    
     private Optional<SQLTransaction> doFindSQLTransaction(final LogicSQLTransaction logicSQLTransaction, final String dataSourceName,
                                                           final String sql, final List<List<String>> sagaParameters) {
         for (SQLTransaction each : logicSQLTransaction.getSqlTransactions()) {
             if (dataSourceName.equals(each.getDataSourceName())) {
-                if (ExecuteStatus.COMPENSATING.equals(each.getExecuteStatus()) && sql.equals(each.getRevertSQLResult().getSql())
-                    && judgeRevertParameters(sagaParameters, each.getRevertSQLResult().getParameters())) {
+                if (ExecuteStatus.COMPENSATING.equals(each.getExecuteStatus()) && null != each.getRevertSQLResult() && sql.equals(each.getRevertSQLResult().getSql())
+                    && judgeParameters(sagaParameters, each.getRevertSQLResult().getParameters())) {
                     return Optional.of(each);
                 } else if (!ExecuteStatus.COMPENSATING.equals(each.getExecuteStatus()) && sql.equals(each.getSql())
                     && judgeParameters(sagaParameters, each.getParameters())) {
@@ -161,25 +343,17 @@ public final class ShardingSQLTransaction {
         return Optional.absent();
     }
     
-    private boolean judgeParameters(List<List<String>> sagaParameters, List<Collection<Object>> sqlParameters) {
-        Iterator<List<String>> sagaParameterIterator = sagaParameters.iterator();
-        Iterator<Collection<Object>> sqlParameterIterator = sqlParameters.iterator();
-        while (sagaParameterIterator.hasNext()) {
-            if (!sagaParameterIterator.next().toString().equals(sqlParameterIterator.next().toString())) {
-                return false;
-            }
+    private boolean judgeParameters(final List<List<String>> sagaParameters, final List<Collection<Object>> parameters) {
+        if (sagaParameters.size() != parameters.size()) {
+            return false;
         }
-        return true;
-    }
-    
-    private boolean judgeRevertParameters(List<List<String>> sagaParameters, List<Collection<Object>> revertParameters) {
         Iterator<List<String>> sagaParameterIterator = sagaParameters.iterator();
-        Iterator<Collection<Object>> revertParameterIterator = revertParameters.iterator();
-        while (sagaParameterIterator.hasNext()) {
-            if (!sagaParameterIterator.next().toString().equals(revertParameterIterator.next().toString())) {
+        Iterator<Collection<Object>> parameterIterator = parameters.iterator();
+        while (sagaParameterIterator.hasNext() && parameterIterator.hasNext()) {
+            if (!sagaParameterIterator.next().toString().equals(parameterIterator.next().toString())) {
                 return false;
             }
         }
-        return true;
+        return !sagaParameterIterator.hasNext() && !parameterIterator.hasNext();
     }
 }
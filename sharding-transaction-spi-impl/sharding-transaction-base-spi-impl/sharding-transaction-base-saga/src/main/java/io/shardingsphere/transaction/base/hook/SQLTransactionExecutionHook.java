@@ -27,7 +27,9 @@ import io.shardingsphere.transaction.base.hook.revert.DMLSQLRevertEngine;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorFactory;
+import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
 import io.shardingsphere.transaction.base.utils.Constant;
+import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.execute.hook.SQLExecutionHook;
 import org.apache.shardingsphere.core.route.RouteUnit;
 import org.apache.shardingsphere.core.route.SQLUnit;
@@ -46,6 +48,8 @@ import java.util.Map;
  */
 public final class SQLTransactionExecutionHook implements SQLExecutionHook {
     
+    private ShardingSQLTransactionManager shardingSQLTransactionManager;
+    
     private ShardingSQLTransaction shardingSQLTransaction;
     
     private SQLTransaction sqlTransaction;
@@ -55,10 +59,14 @@ public final class SQLTransactionExecutionHook implements SQLExecutionHook {
         if (!shardingExecuteDataMap.containsKey(Constant.SAGA_TRANSACTION_KEY)) {
             return;
         }
+        shardingSQLTransactionManager = (ShardingSQLTransactionManager) shardingExecuteDataMap.get(Constant.SAGA_TRANSACTION_MANAGER_KEY);
         shardingSQLTransaction = (ShardingSQLTransaction) shardingExecuteDataMap.get(Constant.SAGA_TRANSACTION_KEY);
         if (!shardingSQLTransaction.getCurrentLogicSQLTransaction().isWritableTransaction()) {
             return;
         }
+        if (shardingSQLTransaction.isDoomed()) {
+            throw new ShardingException("Saga transaction `%s` is doomed by failed SQL, write SQL is rejected until it is rolled back", shardingSQLTransaction.getId());
+        }
         sqlTransaction = new SQLTransaction(routeUnit.getDataSourceName(), routeUnit.getSqlUnit().getSql(), splitParameters(routeUnit.getSqlUnit()), ExecuteStatus.EXECUTING);
         sqlTransaction.setRevertSQLResult(doSQLRevert(shardingSQLTransaction.getCurrentLogicSQLTransaction(), routeUnit).orNull());
         shardingSQLTransaction.addSQLTransaction(sqlTransaction);
@@ -75,6 +83,9 @@ public final class SQLTransactionExecutionHook implements SQLExecutionHook {
     public void finishFailure(final Exception cause) {
         if (null != sqlTransaction) {
             sqlTransaction.setExecuteStatus(ExecuteStatus.FAILURE);
+            if (null != shardingSQLTransactionManager) {
+                shardingSQLTransactionManager.doom(shardingSQLTransaction);
+            }
         }
     }
     
@@ -85,7 +96,8 @@ public final class SQLTransactionExecutionHook implements SQLExecutionHook {
     
     private SQLRevertExecutorContext getSqlRevertExecutorContext(LogicSQLTransaction logicSQLTransaction, RouteUnit routeUnit) {
         Connection connection = shardingSQLTransaction.getCachedConnections().get(routeUnit.getDataSourceName());
-        return new SQLRevertExecutorContext(logicSQLTransaction.getLogicSQL(), logicSQLTransaction.getSqlRouteResult(), routeUnit, logicSQLTransaction.getTableMetaData(), connection);
+        return new SQLRevertExecutorContext(logicSQLTransaction.getLogicSQL(), logicSQLTransaction.getSqlRouteResult(), routeUnit, logicSQLTransaction.getTableMetaData(), shardingSQLTransaction.getPreparedStatementCache(connection),
+            shardingSQLTransaction.getDatabaseType());
     }
     
     private List<Collection<Object>> splitParameters(final SQLUnit sqlUnit) {
@@ -17,7 +17,10 @@
 
 package io.shardingsphere.transaction.base.hook;
 
-import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
+import com.google.common.base.Optional;
+import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.utils.Constant;
+import org.apache.shardingsphere.core.execute.ShardingExecuteDataMap;
 import org.apache.shardingsphere.core.metadata.table.TableMetas;
 import org.apache.shardingsphere.core.route.SQLRouteResult;
 import org.apache.shardingsphere.core.route.hook.RoutingHook;
@@ -29,22 +32,26 @@ import org.apache.shardingsphere.core.route.hook.RoutingHook;
  */
 public final class TransactionalSQLRoutingHook implements RoutingHook {
     
-    private final ShardingSQLTransactionManager shardingSQLTransactionManager = ShardingSQLTransactionManager.getInstance();
-    
     @Override
     public void start(final String sql) {
-        if (shardingSQLTransactionManager.isInTransaction()) {
-            shardingSQLTransactionManager.getCurrentTransaction().nextLogicSQLTransaction(sql);
+        Optional<ShardingSQLTransaction> shardingSQLTransaction = findCurrentTransaction();
+        if (shardingSQLTransaction.isPresent()) {
+            shardingSQLTransaction.get().nextLogicSQLTransaction(sql);
         }
     }
     
     @Override
     public void finishSuccess(final SQLRouteResult sqlRouteResult, final TableMetas tableMetas) {
-        if (shardingSQLTransactionManager.isInTransaction()) {
-            shardingSQLTransactionManager.getCurrentTransaction().initLogicSQLTransaction(sqlRouteResult, tableMetas);
+        Optional<ShardingSQLTransaction> shardingSQLTransaction = findCurrentTransaction();
+        if (shardingSQLTransaction.isPresent()) {
+            shardingSQLTransaction.get().initLogicSQLTransaction(sqlRouteResult, tableMetas);
         }
     }
     
+    private Optional<ShardingSQLTransaction> findCurrentTransaction() {
+        return Optional.fromNullable((ShardingSQLTransaction) ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_KEY));
+    }
+    
     @Override
     public void finishFailure(final Exception cause) {
     }
@@ -90,21 +90,134 @@ public final class GenericSQLBuilder {
         }
     }
     
+    /**
+     * Append where condition matching any of specified rows.
+     *
+     * <p>
+     * Single column uses {@code IN} predicate, composite columns use disjunction of conjunctions.
+     * </p>
+     *
+     * @param columns columns
+     * @param rowCount row count
+     */
+    public void appendWhereInCondition(final Collection<String> columns, final int rowCount) {
+        if (columns.isEmpty() || rowCount < 1) {
+            return;
+        }
+        sqlBuilder.append(DefaultKeyword.WHERE).append(" ");
+        if (1 == columns.size()) {
+            sqlBuilder.append(columns.iterator().next()).append(" ").append(DefaultKeyword.IN).append(" (");
+            for (int i = 0; i < rowCount; i++) {
+                sqlBuilder.append(0 == i ? "?" : ", ?");
+            }
+            sqlBuilder.append(")");
+            return;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            if (0 != i) {
+                sqlBuilder.append(" ").append(DefaultKeyword.OR).append(" ");
+            }
+            sqlBuilder.append("(");
+            boolean firstItem = true;
+            for (String each : columns) {
+                if (!firstItem) {
+                    sqlBuilder.append(" ").append(DefaultKeyword.AND).append(" ");
+                }
+                firstItem = false;
+                sqlBuilder.append(each).append(" = ?");
+            }
+            sqlBuilder.append(")");
+        }
+    }
+    
     /**
      * Append insert values.
      *
      * @param placeholderCount placeholder count
      */
     public void appendInsertValues(final int placeholderCount) {
+        appendInsertValues(placeholderCount, 1);
+    }
+    
+    /**
+     * Append multi-row insert values.
+     *
+     * @param placeholderCount placeholder count of each row
+     * @param rowCount row count
+     */
+    public void appendInsertValues(final int placeholderCount, final int rowCount) {
         sqlBuilder.append(DefaultKeyword.VALUES).append(" ");
-        sqlBuilder.append("(");
-        for (int i = 0; i < placeholderCount; i++) {
-            sqlBuilder.append("?");
-            if (i < placeholderCount - 1) {
-                sqlBuilder.append(",");
+        for (int row = 0; row < rowCount; row++) {
+            if (0 != row) {
+                sqlBuilder.append(", ");
+            }
+            sqlBuilder.append("(");
+            for (int i = 0; i < placeholderCount; i++) {
+                sqlBuilder.append("?");
+                if (i < placeholderCount - 1) {
+                    sqlBuilder.append(",");
+                }
+            }
+            sqlBuilder.append(")");
+        }
+    }
+    
+    /**
+     * Append insert columns.
+     *
+     * @param columns columns
+     */
+    public void appendInsertColumns(final Collection<String> columns) {
+        sqlBuilder.append("(").append(Joiner.on(", ").join(columns)).append(") ");
+    }
+    
+    /**
+     * Append merge key columns, for H2 {@code MERGE INTO ... KEY (...)}.
+     *
+     * @param keyColumns key columns
+     */
+    public void appendMergeKey(final Collection<String> keyColumns) {
+        sqlBuilder.append(DefaultKeyword.KEY).append(" (").append(Joiner.on(", ").join(keyColumns)).append(") ");
+    }
+    
+    /**
+     * Append MySQL {@code ON DUPLICATE KEY UPDATE} clause.
+     *
+     * @param columns columns to be overwritten by inserted values
+     */
+    public void appendOnDuplicateKeyUpdate(final Collection<String> columns) {
+        sqlBuilder.append(" ON DUPLICATE KEY UPDATE ");
+        boolean firstItem = true;
+        for (String each : columns) {
+            if (!firstItem) {
+                sqlBuilder.append(", ");
+            }
+            firstItem = false;
+            sqlBuilder.append(each).append(" = VALUES(").append(each).append(")");
+        }
+    }
+    
+    /**
+     * Append PostgreSQL {@code ON CONFLICT} clause.
+     *
+     * @param conflictColumns conflict target columns
+     * @param columns columns to be overwritten by inserted values, do nothing if empty
+     */
+    public void appendOnConflictDoUpdate(final Collection<String> conflictColumns, final Collection<String> columns) {
+        sqlBuilder.append(" ON CONFLICT (").append(Joiner.on(", ").join(conflictColumns)).append(") ");
+        if (columns.isEmpty()) {
+            sqlBuilder.append("DO NOTHING");
+            return;
+        }
+        sqlBuilder.append("DO UPDATE ").append(DefaultKeyword.SET).append(" ");
+        boolean firstItem = true;
+        for (String each : columns) {
+            if (!firstItem) {
+                sqlBuilder.append(", ");
             }
+            firstItem = false;
+            sqlBuilder.append(each).append(" = EXCLUDED.").append(each);
         }
-        sqlBuilder.append(")");
     }
     
     /**
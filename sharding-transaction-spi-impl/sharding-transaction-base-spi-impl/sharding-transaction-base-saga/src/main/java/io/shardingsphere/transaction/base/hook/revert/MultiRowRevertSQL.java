@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert;
+
+/**
+ * Multi-row revert SQL, which reverts several rows within one set-based statement.
+ *
+ * @author zhaojun
+ */
+public interface MultiRowRevertSQL {
+    
+    /**
+     * Get parameter count of each reverted row.
+     *
+     * @return parameter count of each row
+     */
+    int getRowParameterCount();
+    
+    /**
+     * Generate revert SQL for specified row count.
+     *
+     * @param rowCount row count
+     * @return revert SQL
+     */
+    String toSQL(int rowCount);
+}
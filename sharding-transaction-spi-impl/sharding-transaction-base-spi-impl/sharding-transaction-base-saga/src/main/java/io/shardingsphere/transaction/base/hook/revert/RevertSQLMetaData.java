@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert;
+
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Revert SQL meta data, which describes how each parameter row of revert SQL maps to a table row.
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+@Getter
+public final class RevertSQLMetaData {
+    
+    private final DMLType dmlType;
+    
+    private final String actualTable;
+    
+    private final List<Integer> primaryKeyParameterIndexes;
+    
+    private final Collection<String> revertColumns;
+    
+    private final boolean primaryKeyChanged;
+    
+    /**
+     * Get primary key values of revert parameter row.
+     *
+     * @param row revert parameter row
+     * @return primary key values as string
+     */
+    public List<String> getPrimaryKeyValues(final Collection<Object> row) {
+        List<Object> values = row instanceof List ? (List<Object>) row : new ArrayList<>(row);
+        List<String> result = new ArrayList<>(primaryKeyParameterIndexes.size());
+        for (int each : primaryKeyParameterIndexes) {
+            result.add(String.valueOf(values.get(each)));
+        }
+        return result;
+    }
+}
@@ -17,9 +17,12 @@
 
 package io.shardingsphere.transaction.base.hook.revert;
 
+import com.google.common.base.Optional;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,4 +40,43 @@ public final class RevertSQLResult {
     private final String sql;
     
     private final List<Collection<Object>> parameters = new LinkedList<>();
+    
+    @Setter
+    private MultiRowRevertSQL multiRowRevertSQL;
+    
+    @Setter
+    private RevertSQLMetaData metaData;
+    
+    /**
+     * Copy revert SQL result, parameter rows are copied so that changing copy does not affect this.
+     *
+     * @return copy of revert SQL result
+     */
+    public RevertSQLResult copy() {
+        RevertSQLResult result = new RevertSQLResult(sql);
+        for (Collection<Object> each : parameters) {
+            result.parameters.add(new ArrayList<>(each));
+        }
+        result.multiRowRevertSQL = multiRowRevertSQL;
+        result.metaData = metaData;
+        return result;
+    }
+    
+    /**
+     * Get multi-row revert SQL.
+     *
+     * @return multi-row revert SQL, absent if rows can only be reverted one by one
+     */
+    public Optional<MultiRowRevertSQL> getMultiRowRevertSQL() {
+        return Optional.fromNullable(multiRowRevertSQL);
+    }
+    
+    /**
+     * Get revert SQL meta data.
+     *
+     * @return revert SQL meta data, absent if parameter rows can not be mapped to table rows
+     */
+    public Optional<RevertSQLMetaData> getMetaData() {
+        return Optional.fromNullable(metaData);
+    }
 }
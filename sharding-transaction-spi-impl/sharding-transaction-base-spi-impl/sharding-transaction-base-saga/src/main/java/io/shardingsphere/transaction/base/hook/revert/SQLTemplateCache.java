@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.shardingsphere.core.exception.ShardingException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of rendered snapshot and revert SQL templates.
+ *
+ * @author zhaojun
+ */
+public final class SQLTemplateCache {
+    
+    private static final int MAXIMUM_SIZE = 2048;
+    
+    private static final SQLTemplateCache INSTANCE = new SQLTemplateCache();
+    
+    private final Cache<SQLTemplateKey, String> templates = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+    
+    /**
+     * Get instance of SQL template cache.
+     *
+     * @return SQL template cache
+     */
+    public static SQLTemplateCache getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Get cached SQL template, render and cache it if absent.
+     *
+     * @param key SQL template key
+     * @param renderer renderer of SQL template
+     * @return rendered SQL template
+     */
+    public String get(final SQLTemplateKey key, final Callable<String> renderer) {
+        try {
+            return templates.get(key, renderer);
+        } catch (final ExecutionException | UncheckedExecutionException ex) {
+            Throwables.propagateIfPossible(ex.getCause());
+            throw new ShardingException("Failed to render SQL template", ex);
+        }
+    }
+    
+    /**
+     * Get size of cached SQL templates.
+     *
+     * @return size of cached SQL templates
+     */
+    public long size() {
+        return templates.size();
+    }
+    
+    /**
+     * Invalidate all cached SQL templates.
+     */
+    public void clear() {
+        templates.invalidateAll();
+    }
+}
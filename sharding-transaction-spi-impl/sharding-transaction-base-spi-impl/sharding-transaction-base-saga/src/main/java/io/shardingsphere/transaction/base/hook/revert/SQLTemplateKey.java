@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert;
+
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
+
+import java.util.Arrays;
+
+/**
+ * SQL template key.
+ *
+ * <p>
+ * Components must be all the inputs which affect rendered SQL, such as actual table, ordered column list and where clause text.
+ * Multi-row templates build the key once and derive per row count keys by {@code withRowCount}, which share the components and their hash.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class SQLTemplateKey {
+    
+    private final SQLTemplateType type;
+    
+    private final Object[] components;
+    
+    private final int componentsHashCode;
+    
+    private final int rowCount;
+    
+    public SQLTemplateKey(final SQLTemplateType type, final Object... components) {
+        this(type, components, Arrays.hashCode(components), 0);
+    }
+    
+    private SQLTemplateKey(final SQLTemplateType type, final Object[] components, final int componentsHashCode, final int rowCount) {
+        this.type = type;
+        this.components = components;
+        this.componentsHashCode = componentsHashCode;
+        this.rowCount = rowCount;
+    }
+    
+    /**
+     * Derive key of multi-row template.
+     *
+     * @param rowCount row count of template
+     * @return SQL template key
+     */
+    public SQLTemplateKey withRowCount(final int rowCount) {
+        return new SQLTemplateKey(type, components, componentsHashCode, rowCount);
+    }
+    
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SQLTemplateKey)) {
+            return false;
+        }
+        SQLTemplateKey other = (SQLTemplateKey) obj;
+        return type == other.type && rowCount == other.rowCount && componentsHashCode == other.componentsHashCode
+            && (components == other.components || Arrays.equals(components, other.components));
+    }
+    
+    @Override
+    public int hashCode() {
+        return (31 * type.hashCode() + componentsHashCode) * 31 + rowCount;
+    }
+}
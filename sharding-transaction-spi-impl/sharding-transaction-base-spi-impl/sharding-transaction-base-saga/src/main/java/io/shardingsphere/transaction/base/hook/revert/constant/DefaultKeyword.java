@@ -43,5 +43,13 @@ public class DefaultKeyword {
     public final static String WHERE = "WHERE";
     
     public final static String AND = "AND";
+    
+    public final static String OR = "OR";
+    
+    public final static String IN = "IN";
+    
+    public final static String MERGE = "MERGE";
+    
+    public final static String KEY = "KEY";
 }
 
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert.constant;
+
+import org.apache.shardingsphere.spi.database.DatabaseType;
+
+/**
+ * SQL dialect of revert SQL.
+ *
+ * @author zhaojun
+ */
+public enum SQLDialect {
+    
+    MYSQL, POSTGRESQL, H2, GENERIC;
+    
+    /**
+     * Get SQL dialect of database type.
+     *
+     * @param databaseType database type
+     * @return SQL dialect, generic if database type is unknown
+     */
+    public static SQLDialect valueFrom(final DatabaseType databaseType) {
+        if (null == databaseType) {
+            return GENERIC;
+        }
+        String databaseTypeName = databaseType.getName();
+        if ("MySQL".equalsIgnoreCase(databaseTypeName) || "MariaDB".equalsIgnoreCase(databaseTypeName)) {
+            return MYSQL;
+        }
+        if ("PostgreSQL".equalsIgnoreCase(databaseTypeName)) {
+            return POSTGRESQL;
+        }
+        if ("H2".equalsIgnoreCase(databaseTypeName)) {
+            return H2;
+        }
+        return GENERIC;
+    }
+}
@@ -17,6 +17,7 @@
 
 package io.shardingsphere.transaction.base.hook.revert.executor;
 
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import lombok.Getter;
 import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.metadata.column.ColumnMetaData;
@@ -30,6 +31,7 @@ import org.apache.shardingsphere.core.route.RouteUnit;
 import org.apache.shardingsphere.core.route.SQLRouteResult;
 import org.apache.shardingsphere.core.route.type.RoutingUnit;
 import org.apache.shardingsphere.core.route.type.TableUnit;
+import org.apache.shardingsphere.spi.database.DatabaseType;
 
 import java.sql.Connection;
 import java.util.ArrayList;
@@ -52,6 +54,8 @@ public class SQLRevertExecutorContext implements SQLRevertContext {
     
     private Connection connection;
     
+    private PreparedStatementCache preparedStatementCache;
+    
     private String dataSourceName;
     
     private String logicTableName;
@@ -62,7 +66,10 @@ public class SQLRevertExecutorContext implements SQLRevertContext {
     
     private List<String> primaryKeyColumns;
     
-    public SQLRevertExecutorContext(final String logicSQL, final SQLRouteResult sqlRouteResult, final RouteUnit routeUnit, final TableMetaData tableMetaData, final Connection connection) {
+    private DatabaseType databaseType;
+    
+    public SQLRevertExecutorContext(final String logicSQL, final SQLRouteResult sqlRouteResult, final RouteUnit routeUnit,
+                                    final TableMetaData tableMetaData, final PreparedStatementCache preparedStatementCache, final DatabaseType databaseType) {
         this.logicSQL = logicSQL;
         this.shardingStatement = sqlRouteResult.getShardingStatement();
         this.routeUnit = routeUnit;
@@ -71,7 +78,9 @@ public class SQLRevertExecutorContext implements SQLRevertContext {
         this.actualTableName = getActualTableName(sqlRouteResult.getRoutingResult().getRoutingUnits(), routeUnit);
         this.parameters = routeUnit.getSqlUnit().getParameters();
         this.primaryKeyColumns = getPrimaryKeyColumns(tableMetaData);
-        this.connection = connection;
+        this.connection = preparedStatementCache.getConnection();
+        this.preparedStatementCache = preparedStatementCache;
+        this.databaseType = databaseType;
     }
     
     private String getActualTableName(final Collection<RoutingUnit> routingUnits, final RouteUnit routeUnit) {
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert.executor.delete;
+
+import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.MultiRowRevertSQL;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateCache;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateKey;
+import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLDialect;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Multi-row revert SQL of delete, which inserts all deleted rows back within one statement.
+ *
+ * <p>
+ * For MySQL, PostgreSQL and H2 the generated SQL is an upsert, so that retrying a partly applied compensation will not fail with duplicate key.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class DeleteMultiRowRevertSQL implements MultiRowRevertSQL {
+    
+    private final String actualTable;
+    
+    private final List<String> columns;
+    
+    private final List<String> primaryKeyColumns;
+    
+    private final SQLDialect dialect;
+    
+    private final SQLTemplateKey templateKey;
+    
+    public DeleteMultiRowRevertSQL(final String actualTable, final Collection<String> columns, final Collection<String> primaryKeyColumns, final SQLDialect dialect) {
+        this.actualTable = actualTable;
+        this.columns = new ArrayList<>(columns);
+        this.primaryKeyColumns = new ArrayList<>(primaryKeyColumns);
+        this.dialect = dialect;
+        templateKey = new SQLTemplateKey(SQLTemplateType.DELETE_REVERT, actualTable, this.columns, this.primaryKeyColumns, dialect);
+    }
+    
+    @Override
+    public int getRowParameterCount() {
+        return columns.size();
+    }
+    
+    @Override
+    public String toSQL(final int rowCount) {
+        return SQLTemplateCache.getInstance().get(templateKey.withRowCount(rowCount), new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return buildSQL(rowCount);
+            }
+        });
+    }
+    
+    private String buildSQL(final int rowCount) {
+        GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
+        if (SQLDialect.GENERIC == dialect || primaryKeyColumns.isEmpty()) {
+            appendInsertInto(sqlBuilder);
+            sqlBuilder.appendInsertValues(columns.size(), rowCount);
+            return sqlBuilder.toSQL();
+        }
+        switch (dialect) {
+            case H2:
+                sqlBuilder.appendLiterals(DefaultKeyword.MERGE);
+                sqlBuilder.appendLiterals(DefaultKeyword.INTO);
+                sqlBuilder.appendLiterals(actualTable);
+                sqlBuilder.appendInsertColumns(columns);
+                sqlBuilder.appendMergeKey(primaryKeyColumns);
+                sqlBuilder.appendInsertValues(columns.size(), rowCount);
+                break;
+            case MYSQL:
+                appendInsertInto(sqlBuilder);
+                sqlBuilder.appendInsertColumns(columns);
+                sqlBuilder.appendInsertValues(columns.size(), rowCount);
+                List<String> updateColumns = getNonPrimaryKeyColumns();
+                sqlBuilder.appendOnDuplicateKeyUpdate(updateColumns.isEmpty() ? primaryKeyColumns : updateColumns);
+                break;
+            default:
+                appendInsertInto(sqlBuilder);
+                sqlBuilder.appendInsertColumns(columns);
+                sqlBuilder.appendInsertValues(columns.size(), rowCount);
+                sqlBuilder.appendOnConflictDoUpdate(primaryKeyColumns, getNonPrimaryKeyColumns());
+        }
+        return sqlBuilder.toSQL();
+    }
+    
+    private void appendInsertInto(final GenericSQLBuilder sqlBuilder) {
+        sqlBuilder.appendLiterals(DefaultKeyword.INSERT);
+        sqlBuilder.appendLiterals(DefaultKeyword.INTO);
+        sqlBuilder.appendLiterals(actualTable);
+    }
+    
+    private List<String> getNonPrimaryKeyColumns() {
+        List<String> result = new LinkedList<>();
+        for (String each : columns) {
+            if (!isPrimaryKeyColumn(each)) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+    
+    private boolean isPrimaryKeyColumn(final String column) {
+        for (String each : primaryKeyColumns) {
+            if (each.equalsIgnoreCase(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -18,12 +18,9 @@
 package io.shardingsphere.transaction.base.hook.revert.executor.delete;
 
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertContext;
+import io.shardingsphere.transaction.base.utils.QueryResult;
 import lombok.Getter;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-
 /**
  * Delete SQL revert context.
  *
@@ -35,10 +32,10 @@ public class DeleteSQLRevertContext implements SQLRevertContext {
     
     private final String actualTable;
     
-    private final List<Map<String, Object>> undoData = new LinkedList<>();
+    private final QueryResult undoData;
     
-    public DeleteSQLRevertContext(final String tableName, final List<Map<String, Object>> undoData) {
+    public DeleteSQLRevertContext(final String tableName, final QueryResult undoData) {
         this.actualTable = tableName;
-        this.undoData.addAll(undoData);
+        this.undoData = undoData;
     }
 }
@@ -18,15 +18,18 @@
 package io.shardingsphere.transaction.base.hook.revert.executor.delete;
 
 import com.google.common.base.Optional;
-import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
-import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLDialect;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
 import io.shardingsphere.transaction.base.hook.revert.snapshot.DeleteSnapshotAccessor;
 
 import java.sql.SQLException;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Delete SQL revert executor.
@@ -38,10 +41,14 @@ public final class DeleteSQLRevertExecutor implements SQLRevertExecutor {
     
     private DeleteSQLRevertContext sqlRevertContext;
     
-    private final GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
+    private final List<String> primaryKeyColumns;
+    
+    private final SQLDialect dialect;
     
     public DeleteSQLRevertExecutor(final SQLRevertExecutorContext context, final DeleteSnapshotAccessor snapshotAccessor) throws SQLException {
         sqlRevertContext = new DeleteSQLRevertContext(context.getActualTableName(), snapshotAccessor.queryUndoData());
+        primaryKeyColumns = context.getPrimaryKeyColumns();
+        dialect = SQLDialect.valueFrom(context.getDatabaseType());
     }
     
     @Override
@@ -49,17 +56,37 @@ public final class DeleteSQLRevertExecutor implements SQLRevertExecutor {
         if (sqlRevertContext.getUndoData().isEmpty()) {
             return Optional.absent();
         }
-        sqlBuilder.appendLiterals(DefaultKeyword.INSERT);
-        sqlBuilder.appendLiterals(DefaultKeyword.INTO);
-        sqlBuilder.appendLiterals(sqlRevertContext.getActualTable());
-        sqlBuilder.appendInsertValues(sqlRevertContext.getUndoData().iterator().next().size());
-        return Optional.of(sqlBuilder.toSQL());
+        return Optional.of(createMultiRowRevertSQL().toSQL(1));
     }
     
     @Override
     public void fillParameters(final RevertSQLResult revertSQLResult) {
-        for (Map<String, Object> each : sqlRevertContext.getUndoData()) {
-            revertSQLResult.getParameters().add(each.values());
+        for (Object[] each : sqlRevertContext.getUndoData().getRows()) {
+            revertSQLResult.getParameters().add(Arrays.asList(each));
+        }
+        if (!sqlRevertContext.getUndoData().isEmpty()) {
+            revertSQLResult.setMultiRowRevertSQL(createMultiRowRevertSQL());
+            setMetaData(revertSQLResult);
+        }
+    }
+    
+    private void setMetaData(final RevertSQLResult revertSQLResult) {
+        if (primaryKeyColumns.isEmpty()) {
+            return;
+        }
+        List<Integer> primaryKeyParameterIndexes = new ArrayList<>(primaryKeyColumns.size());
+        for (String each : primaryKeyColumns) {
+            int columnIndex = sqlRevertContext.getUndoData().findColumnIndex(each);
+            if (-1 == columnIndex) {
+                return;
+            }
+            primaryKeyParameterIndexes.add(columnIndex);
         }
+        revertSQLResult.setMetaData(new RevertSQLMetaData(DMLType.DELETE, sqlRevertContext.getActualTable(), primaryKeyParameterIndexes,
+            sqlRevertContext.getUndoData().getColumnNames(), false));
+    }
+    
+    private DeleteMultiRowRevertSQL createMultiRowRevertSQL() {
+        return new DeleteMultiRowRevertSQL(sqlRevertContext.getActualTable(), sqlRevertContext.getUndoData().getColumnNames(), primaryKeyColumns, dialect);
     }
 }
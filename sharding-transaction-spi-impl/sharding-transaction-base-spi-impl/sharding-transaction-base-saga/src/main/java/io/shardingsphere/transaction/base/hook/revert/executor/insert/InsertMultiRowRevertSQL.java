@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert.executor.insert;
+
+import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.MultiRowRevertSQL;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateCache;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateKey;
+import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Multi-row revert SQL of insert, which deletes all inserted rows by primary keys.
+ *
+ * @author zhaojun
+ */
+public final class InsertMultiRowRevertSQL implements MultiRowRevertSQL {
+    
+    private final String actualTable;
+    
+    private final List<String> primaryKeyColumns;
+    
+    private final SQLTemplateKey templateKey;
+    
+    public InsertMultiRowRevertSQL(final String actualTable, final Collection<String> primaryKeyColumns) {
+        this.actualTable = actualTable;
+        this.primaryKeyColumns = new ArrayList<>(primaryKeyColumns);
+        templateKey = new SQLTemplateKey(SQLTemplateType.INSERT_REVERT, actualTable, this.primaryKeyColumns);
+    }
+    
+    @Override
+    public int getRowParameterCount() {
+        return primaryKeyColumns.size();
+    }
+    
+    @Override
+    public String toSQL(final int rowCount) {
+        return SQLTemplateCache.getInstance().get(templateKey.withRowCount(rowCount), new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return buildSQL(rowCount);
+            }
+        });
+    }
+    
+    private String buildSQL(final int rowCount) {
+        GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
+        sqlBuilder.appendLiterals(DefaultKeyword.DELETE);
+        sqlBuilder.appendLiterals(DefaultKeyword.FROM);
+        sqlBuilder.appendLiterals(actualTable);
+        sqlBuilder.appendWhereInCondition(primaryKeyColumns, rowCount);
+        return sqlBuilder.toSQL();
+    }
+}
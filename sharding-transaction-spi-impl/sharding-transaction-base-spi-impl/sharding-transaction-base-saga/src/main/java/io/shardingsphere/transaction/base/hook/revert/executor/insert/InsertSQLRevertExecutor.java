@@ -20,14 +20,24 @@ package io.shardingsphere.transaction.base.hook.revert.executor.insert;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateCache;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateKey;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
 import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
 import lombok.RequiredArgsConstructor;
 import org.apache.shardingsphere.core.optimize.sharding.statement.dml.ShardingInsertOptimizedStatement;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Insert SQL revert executor.
@@ -40,8 +50,6 @@ public final class InsertSQLRevertExecutor implements SQLRevertExecutor {
     
     private InsertSQLRevertContext sqlRevertContext;
     
-    private GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
-    
     public InsertSQLRevertExecutor(final InsertSQLRevertContext revertContext) {
         sqlRevertContext = revertContext;
     }
@@ -55,11 +63,24 @@ public final class InsertSQLRevertExecutor implements SQLRevertExecutor {
     public Optional<String> revertSQL() {
         Preconditions.checkState(!sqlRevertContext.getPrimaryKeyInsertValues().isEmpty(),
             "Could not found primary key values. datasource:[%s], table:[%s]", sqlRevertContext.getDataSourceName(), sqlRevertContext.getActualTable());
+        final Collection<String> primaryKeyColumns = sqlRevertContext.getPrimaryKeyInsertValues().iterator().next().keySet();
+        SQLTemplateKey key = new SQLTemplateKey(SQLTemplateType.INSERT_REVERT, sqlRevertContext.getActualTable(), new ArrayList<>(primaryKeyColumns));
+        return Optional.of(SQLTemplateCache.getInstance().get(key, new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return buildRevertSQL(primaryKeyColumns);
+            }
+        }));
+    }
+    
+    private String buildRevertSQL(final Collection<String> primaryKeyColumns) {
+        GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
         sqlBuilder.appendLiterals(DefaultKeyword.DELETE);
         sqlBuilder.appendLiterals(DefaultKeyword.FROM);
         sqlBuilder.appendLiterals(sqlRevertContext.getActualTable());
-        sqlBuilder.appendWhereCondition(sqlRevertContext.getPrimaryKeyInsertValues().iterator().next().keySet());
-        return Optional.of(sqlBuilder.toSQL());
+        sqlBuilder.appendWhereCondition(primaryKeyColumns);
+        return sqlBuilder.toSQL();
     }
     
     @Override
@@ -67,5 +88,19 @@ public final class InsertSQLRevertExecutor implements SQLRevertExecutor {
         for (Map<String, Object> each : sqlRevertContext.getPrimaryKeyInsertValues()) {
             revertSQLResult.getParameters().add(each.values());
         }
+        if (!sqlRevertContext.getPrimaryKeyInsertValues().isEmpty()) {
+            Collection<String> primaryKeyColumns = sqlRevertContext.getPrimaryKeyInsertValues().iterator().next().keySet();
+            revertSQLResult.setMultiRowRevertSQL(new InsertMultiRowRevertSQL(sqlRevertContext.getActualTable(), primaryKeyColumns));
+            revertSQLResult.setMetaData(new RevertSQLMetaData(DMLType.INSERT, sqlRevertContext.getActualTable(), getPrimaryKeyParameterIndexes(primaryKeyColumns.size()),
+                Collections.<String>emptyList(), false));
+        }
+    }
+    
+    private List<Integer> getPrimaryKeyParameterIndexes(final int primaryKeyCount) {
+        List<Integer> result = new ArrayList<>(primaryKeyCount);
+        for (int i = 0; i < primaryKeyCount; i++) {
+            result.add(i);
+        }
+        return result;
     }
 }
@@ -18,6 +18,7 @@
 package io.shardingsphere.transaction.base.hook.revert.executor.update;
 
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertContext;
+import io.shardingsphere.transaction.base.utils.QueryResult;
 import lombok.Getter;
 
 import java.util.LinkedHashMap;
@@ -36,7 +37,7 @@ public final class UpdateSQLRevertContext implements SQLRevertContext {
     
     private final String actualTable;
     
-    private final List<Map<String, Object>> undoData = new LinkedList<>();
+    private final QueryResult undoData;
     
     private final Map<String, Object> updateSetAssignments = new LinkedHashMap<>();
     
@@ -44,10 +45,10 @@ public final class UpdateSQLRevertContext implements SQLRevertContext {
     
     private final List<Object> parameters = new LinkedList<>();
     
-    public UpdateSQLRevertContext(final String tableName, final List<Map<String, Object>> undoData, final Map<String, Object> updateSetAssignments, final List<String> primaryKeyColumns,
+    public UpdateSQLRevertContext(final String tableName, final QueryResult undoData, final Map<String, Object> updateSetAssignments, final List<String> primaryKeyColumns,
                                   final List<Object> parameters) {
         this.actualTable = tableName;
-        this.undoData.addAll(undoData);
+        this.undoData = undoData;
         this.updateSetAssignments.putAll(updateSetAssignments);
         this.primaryKeyColumns.addAll(primaryKeyColumns);
         this.parameters.addAll(parameters);
@@ -19,22 +19,35 @@ package io.shardingsphere.transaction.base.hook.revert.executor.update;
 
 import com.google.common.base.Optional;
 import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateCache;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateKey;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
 import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
 import io.shardingsphere.transaction.base.hook.revert.snapshot.UpdateSnapshotAccessor;
+import io.shardingsphere.transaction.base.utils.QueryResult;
+import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.assignment.AssignmentSegment;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.expr.complex.CommonExpressionSegment;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.expr.simple.LiteralExpressionSegment;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.expr.simple.ParameterMarkerExpressionSegment;
 import org.apache.shardingsphere.core.parse.sql.statement.dml.UpdateStatement;
 
+import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  * Update SQL revert executor.
@@ -46,10 +59,13 @@ public final class UpdateSQLRevertExecutor implements SQLRevertExecutor {
     
     private UpdateSQLRevertContext sqlRevertContext;
     
-    private final GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
+    private final List<String> revertColumns = new LinkedList<>();
+    
+    private final List<Object[]> revertRows = new LinkedList<>();
     
     public UpdateSQLRevertExecutor(final SQLRevertExecutorContext context, final UpdateSnapshotAccessor snapshotAccessor) throws SQLException {
         sqlRevertContext = createRevertSQLContext(context, snapshotAccessor);
+        filterUnchangedData(getExpressionColumns((UpdateStatement) context.getShardingStatement().getSQLStatement()));
     }
     
     private UpdateSQLRevertContext createRevertSQLContext(final SQLRevertExecutorContext context, final UpdateSnapshotAccessor snapshotAccessor) throws SQLException {
@@ -71,38 +87,144 @@ public final class UpdateSQLRevertExecutor implements SQLRevertExecutor {
         return result;
     }
     
+    private Set<String> getExpressionColumns(final UpdateStatement updateStatement) {
+        Set<String> result = new HashSet<>();
+        for (AssignmentSegment each : updateStatement.getSetAssignment().getAssignments()) {
+            if (each.getValue() instanceof CommonExpressionSegment) {
+                result.add(each.getColumn().getName());
+            }
+        }
+        return result;
+    }
+    
+    private void filterUnchangedData(final Set<String> expressionColumns) {
+        QueryResult undoData = sqlRevertContext.getUndoData();
+        List<String> updateColumns = new ArrayList<>(sqlRevertContext.getUpdateSetAssignments().keySet());
+        int[] updateColumnIndexes = getColumnIndexes(undoData, updateColumns);
+        for (int i = 0; i < updateColumns.size(); i++) {
+            if (-1 == updateColumnIndexes[i]) {
+                throw new ShardingException("Could not find column `%s` in snapshot of table `%s`, it can not be reverted", updateColumns.get(i), sqlRevertContext.getActualTable());
+            }
+        }
+        boolean[] changedColumns = new boolean[updateColumns.size()];
+        for (Object[] each : undoData.getRows()) {
+            boolean changedRow = false;
+            for (int i = 0; i < updateColumns.size(); i++) {
+                String column = updateColumns.get(i);
+                if (expressionColumns.contains(column) || !isSameValue(each[updateColumnIndexes[i]], sqlRevertContext.getUpdateSetAssignments().get(column))) {
+                    changedColumns[i] = true;
+                    changedRow = true;
+                }
+            }
+            if (changedRow) {
+                revertRows.add(each);
+            }
+        }
+        for (int i = 0; i < updateColumns.size(); i++) {
+            if (changedColumns[i]) {
+                revertColumns.add(updateColumns.get(i));
+            }
+        }
+    }
+    
+    private boolean isSameValue(final Object snapshotValue, final Object updateValue) {
+        if (null == snapshotValue || null == updateValue) {
+            return null == snapshotValue && null == updateValue;
+        }
+        if (snapshotValue instanceof Number && updateValue instanceof Number) {
+            return isSameNumber((Number) snapshotValue, (Number) updateValue);
+        }
+        return snapshotValue.equals(updateValue);
+    }
+    
+    private boolean isSameNumber(final Number snapshotValue, final Number updateValue) {
+        try {
+            return 0 == new BigDecimal(snapshotValue.toString()).compareTo(new BigDecimal(updateValue.toString()));
+        } catch (final NumberFormatException ex) {
+            return snapshotValue.equals(updateValue);
+        }
+    }
+    
     @Override
     public Optional<String> revertSQL() {
-        if (sqlRevertContext.getUndoData().isEmpty()) {
+        if (revertRows.isEmpty()) {
             return Optional.absent();
         }
+        SQLTemplateKey key = new SQLTemplateKey(SQLTemplateType.UPDATE_REVERT, sqlRevertContext.getActualTable(), new ArrayList<>(revertColumns), sqlRevertContext.getPrimaryKeyColumns());
+        return Optional.of(SQLTemplateCache.getInstance().get(key, new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return buildRevertSQL();
+            }
+        }));
+    }
+    
+    private String buildRevertSQL() {
+        GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
         sqlBuilder.appendLiterals(DefaultKeyword.UPDATE);
         sqlBuilder.appendLiterals(sqlRevertContext.getActualTable());
-        sqlBuilder.appendUpdateSetAssignments(sqlRevertContext.getUpdateSetAssignments().keySet());
+        sqlBuilder.appendUpdateSetAssignments(revertColumns);
         sqlBuilder.appendWhereCondition(sqlRevertContext.getPrimaryKeyColumns());
-        return Optional.of(sqlBuilder.toSQL());
+        return sqlBuilder.toSQL();
     }
     
     @Override
     public void fillParameters(final RevertSQLResult revertSQLResult) {
-        for (Map<String, Object> each : sqlRevertContext.getUndoData()) {
-            revertSQLResult.getParameters().add(getParameters(each));
+        QueryResult undoData = sqlRevertContext.getUndoData();
+        int[] updateColumnIndexes = getColumnIndexes(undoData, revertColumns);
+        int[] primaryKeyIndexes = getColumnIndexes(undoData, sqlRevertContext.getPrimaryKeyColumns());
+        for (Object[] each : revertRows) {
+            revertSQLResult.getParameters().add(getParameters(each, updateColumnIndexes, primaryKeyIndexes));
+        }
+        if (!revertRows.isEmpty()) {
+            revertSQLResult.setMetaData(createMetaData());
         }
     }
     
-    private List<Object> getParameters(final Map<String, Object> undoRecord) {
-        List<Object> result = new LinkedList<>();
-        for (String each : sqlRevertContext.getUpdateSetAssignments().keySet()) {
-            result.add(undoRecord.get(each.toLowerCase()));
+    private RevertSQLMetaData createMetaData() {
+        List<Integer> primaryKeyParameterIndexes = new ArrayList<>(sqlRevertContext.getPrimaryKeyColumns().size());
+        boolean primaryKeyChanged = false;
+        for (String each : sqlRevertContext.getPrimaryKeyColumns()) {
+            primaryKeyParameterIndexes.add(revertColumns.size() + primaryKeyParameterIndexes.size());
+            primaryKeyChanged = primaryKeyChanged || containsIgnoreCase(revertColumns, each);
+        }
+        return new RevertSQLMetaData(DMLType.UPDATE, sqlRevertContext.getActualTable(), primaryKeyParameterIndexes, new ArrayList<>(revertColumns), primaryKeyChanged);
+    }
+    
+    private boolean containsIgnoreCase(final Collection<String> columns, final String column) {
+        for (String each : columns) {
+            if (each.equalsIgnoreCase(column)) {
+                return true;
+            }
         }
+        return false;
+    }
+    
+    private int[] getColumnIndexes(final QueryResult undoData, final Collection<String> columns) {
+        int[] result = new int[columns.size()];
+        int index = 0;
+        for (String each : columns) {
+            result[index++] = undoData.findColumnIndex(each);
+        }
+        return result;
+    }
+    
+    private List<Object> getParameters(final Object[] undoRow, final int[] updateColumnIndexes, final int[] primaryKeyIndexes) {
+        List<Object> result = new ArrayList<>(updateColumnIndexes.length + primaryKeyIndexes.length);
+        for (int each : updateColumnIndexes) {
+            result.add(getValue(undoRow, each));
+        }
+        int index = 0;
         for (String each : sqlRevertContext.getPrimaryKeyColumns()) {
             Object value = sqlRevertContext.getUpdateSetAssignments().get(each);
-            if (null != value) {
-                result.add(value);
-            } else {
-                result.add(undoRecord.get(each));
-            }
+            result.add(null != value ? value : getValue(undoRow, primaryKeyIndexes[index]));
+            index++;
         }
         return result;
     }
+    
+    private Object getValue(final Object[] undoRow, final int columnIndex) {
+        return -1 == columnIndex ? null : undoRow[columnIndex];
+    }
 }
@@ -18,15 +18,18 @@
 package io.shardingsphere.transaction.base.hook.revert.snapshot;
 
 import io.shardingsphere.transaction.base.hook.revert.GenericSQLBuilder;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateCache;
+import io.shardingsphere.transaction.base.hook.revert.SQLTemplateKey;
 import io.shardingsphere.transaction.base.hook.revert.constant.DefaultKeyword;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
 import io.shardingsphere.transaction.base.utils.JDBCUtil;
+import io.shardingsphere.transaction.base.utils.QueryResult;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.sql.SQLException;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * DML snapshot data accessor.
@@ -36,18 +39,28 @@ import java.util.Map;
 @RequiredArgsConstructor
 public abstract class DMLSnapshotAccessor implements SnapshotAccessor {
     
-    private GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
-    
     @Getter
     private final SQLRevertExecutorContext executorContext;
     
     @Override
-    public final List<Map<String, Object>> queryUndoData() throws SQLException {
+    public final QueryResult queryUndoData() throws SQLException {
         SnapshotSQLContext context = getSnapshotSQLContext(executorContext);
-        return JDBCUtil.executeQuery(context.getConnection(), buildSnapshotQuerySQL(context), context.getParameters());
+        return JDBCUtil.executeQuery(executorContext.getPreparedStatementCache(), buildSnapshotQuerySQL(context), context.getParameters());
     }
     
     private String buildSnapshotQuerySQL(final SnapshotSQLContext context) {
+        SQLTemplateKey key = new SQLTemplateKey(SQLTemplateType.SNAPSHOT_QUERY, context.getTableName(), context.getTableAlias(), context.getQueryColumnNames(), context.getWhereClause());
+        return SQLTemplateCache.getInstance().get(key, new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return renderSnapshotQuerySQL(context);
+            }
+        });
+    }
+    
+    private String renderSnapshotQuerySQL(final SnapshotSQLContext context) {
+        GenericSQLBuilder sqlBuilder = new GenericSQLBuilder();
         sqlBuilder.appendLiterals(DefaultKeyword.SELECT);
         sqlBuilder.appendColumns(context.getQueryColumnNames());
         sqlBuilder.appendLiterals(DefaultKeyword.FROM);
@@ -17,9 +17,9 @@
 
 package io.shardingsphere.transaction.base.hook.revert.snapshot;
 
+import io.shardingsphere.transaction.base.utils.QueryResult;
+
 import java.sql.SQLException;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Snapshot data accessor.
@@ -31,8 +31,8 @@ public interface SnapshotAccessor {
     /**
      * Query undo snapshot data from database.
      *
-     * @return Collection
+     * @return undo data
      *  @throws SQLException SQL exception
      */
-    List<Map<String, Object>> queryUndoData() throws SQLException;
+    QueryResult queryUndoData() throws SQLException;
 }
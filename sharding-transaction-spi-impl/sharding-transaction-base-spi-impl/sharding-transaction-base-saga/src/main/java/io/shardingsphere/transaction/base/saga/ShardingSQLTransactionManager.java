@@ -17,48 +17,239 @@
 
 package io.shardingsphere.transaction.base.saga;
 
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.saga.actuator.SagaActuator;
 import io.shardingsphere.transaction.base.saga.actuator.SagaActuatorFactory;
+import io.shardingsphere.transaction.base.saga.actuator.SagaAutoTuner;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinition;
 import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriority;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriorityHolder;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceBulkhead;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceCircuitBreaker;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaRetryPolicy;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaTransportFactory;
 import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import io.shardingsphere.transaction.base.saga.config.SagaConfigurationChangedListener;
 import io.shardingsphere.transaction.base.saga.config.SagaConfigurationLoader;
+import io.shardingsphere.transaction.base.saga.config.SagaConfigurationWatcher;
 import io.shardingsphere.transaction.base.saga.persistence.SagaPersistenceLoader;
 import io.shardingsphere.transaction.base.utils.Constant;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.servicecomb.saga.core.PersistentStore;
 import org.apache.servicecomb.saga.core.RecoveryPolicy;
-import org.apache.servicecomb.saga.core.application.SagaExecutionComponent;
+import org.apache.servicecomb.saga.core.SagaException;
+import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.execute.ShardingExecuteDataMap;
+import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
 import org.apache.shardingsphere.transaction.core.TransactionOperationType;
 
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Sharding SQL transaction manager.
  *
+ * <p>
+ * Each saga sharding transaction manager owns its sharding SQL transaction manager, with its own saga configuration, saga executor and saga persistence,
+ * so sagas of different sharding data sources are isolated from each other. Hooks find it from sharding execute data map.
+ * </p>
+ *
+ * <p>
+ * When early compensation is enabled, transaction is doomed once its write SQL fails,
+ * and its succeeded SQL transactions are compensated in background instead of waiting for rollback.
+ * </p>
+ *
+ * <p>
+ * Saga persistence and saga actuator are initialized once it is created, and saga actuator is warmed up if warm up is enabled.
+ * Data sources of sharding transaction manager should be warmed up while it is initialized, so that the first saga transaction does not pay for them.
+ * </p>
+ *
+ * <p>
+ * Saga configuration can be reloaded at runtime, saga actuator, retry policy and auto tuner are rebuilt, while in-flight sagas keep running on the previous ones.
+ * Bulkhead and circuit breaker only take the new thresholds, so open circuits and held permits survive reloading. Saga persistence is not reloaded.
+ * </p>
+ *
  * @author zhaojun
  */
+@Slf4j
 public final class ShardingSQLTransactionManager {
     
-    private static final ShardingSQLTransactionManager INSTANCE = new ShardingSQLTransactionManager();
+    private final ThreadLocal<ShardingSQLTransaction> currentTransaction = new ThreadLocal<>();
+    
+    private final SagaTransportFactory sagaTransportFactory = new SagaTransportFactory(this);
+    
+    private final PersistentStore sagaPersistence;
+    
+    private final ExecutorService earlyCompensationExecutor;
+    
+    private volatile SagaConfiguration sagaConfiguration;
+    
+    private volatile SagaActuator sagaActuator;
+    
+    private final DataSourceBulkhead dataSourceBulkhead;
+    
+    private final DataSourceCircuitBreaker dataSourceCircuitBreaker;
+    
+    private volatile SagaRetryPolicy sagaRetryPolicy;
+    
+    private volatile SagaAutoTuner sagaAutoTuner;
+    
+    private SagaConfigurationWatcher sagaConfigurationWatcher;
+    
+    private boolean closed;
+    
+    public ShardingSQLTransactionManager() {
+        this(SagaConfigurationLoader.load());
+        watchConfigurationFile(sagaConfiguration);
+    }
+    
+    public ShardingSQLTransactionManager(final SagaConfiguration sagaConfiguration) {
+        sagaPersistence = SagaPersistenceLoader.load(sagaConfiguration.getSagaPersistenceConfiguration());
+        earlyCompensationExecutor = createEarlyCompensationExecutor(sagaConfiguration);
+        dataSourceBulkhead = new DataSourceBulkhead(sagaConfiguration);
+        dataSourceCircuitBreaker = new DataSourceCircuitBreaker(sagaConfiguration);
+        apply(sagaConfiguration);
+    }
+    
+    private ExecutorService createEarlyCompensationExecutor(final SagaConfiguration sagaConfiguration) {
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor result = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(Math.max(sagaConfiguration.getExecutorQueueSize(), 1)),
+            ShardingThreadFactoryBuilder.build("Saga-EarlyCompensation-%d"));
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+    
+    private void apply(final SagaConfiguration sagaConfiguration) {
+        SagaRetryPolicy sagaRetryPolicy = new SagaRetryPolicy(sagaConfiguration);
+        SagaActuator sagaActuator = SagaActuatorFactory.newInstance(sagaConfiguration, sagaPersistence, sagaTransportFactory);
+        if (sagaConfiguration.isWarmUpEnabled()) {
+            sagaActuator.warmUp();
+        }
+        this.sagaRetryPolicy = sagaRetryPolicy;
+        this.sagaActuator = sagaActuator;
+        this.sagaConfiguration = sagaConfiguration;
+        if (sagaConfiguration.isAutoTuningEnabled()) {
+            sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, sagaActuator, sagaRetryPolicy, dataSourceCircuitBreaker);
+            sagaAutoTuner.start();
+        } else {
+            sagaAutoTuner = null;
+        }
+    }
+    
+    private void watchConfigurationFile(final SagaConfiguration sagaConfiguration) {
+        Optional<File> configurationFile = SagaConfigurationLoader.findConfigurationFile();
+        if (sagaConfiguration.getConfigurationReloadIntervalMilliseconds() <= 0 || !configurationFile.isPresent()) {
+            return;
+        }
+        sagaConfigurationWatcher = new SagaConfigurationWatcher(configurationFile.get(), new SagaConfigurationChangedListener() {
+            
+            @Override
+            public void onChanged(final SagaConfiguration sagaConfiguration) {
+                reload(sagaConfiguration);
+            }
+        });
+        sagaConfigurationWatcher.start(sagaConfiguration.getConfigurationReloadIntervalMilliseconds());
+    }
     
-    private static final ThreadLocal<ShardingSQLTransaction> CURRENT_TRANSACTION = new ThreadLocal<>();
+    /**
+     * Reload saga configuration.
+     *
+     * @param sagaConfiguration saga configuration
+     */
+    public synchronized void reload(final SagaConfiguration sagaConfiguration) {
+        if (closed) {
+            return;
+        }
+        SagaActuator previousSagaActuator = sagaActuator;
+        SagaAutoTuner previousSagaAutoTuner = sagaAutoTuner;
+        dataSourceBulkhead.reload(sagaConfiguration);
+        dataSourceCircuitBreaker.reload(sagaConfiguration);
+        apply(sagaConfiguration);
+        if (null != previousSagaAutoTuner) {
+            previousSagaAutoTuner.close();
+        }
+        previousSagaActuator.close();
+        log.info("Saga configuration is reloaded");
+    }
+    
+    /**
+     * Warm up data sources, a connection of each data source is created and released to fill its pool.
+     *
+     * @param dataSources data sources to warm up
+     */
+    public void warmUp(final Collection<DataSource> dataSources) {
+        if (!sagaConfiguration.isWarmUpEnabled()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        int warmedDataSources = 0;
+        for (DataSource each : dataSources) {
+            try (Connection ignored = each.getConnection()) {
+                warmedDataSources++;
+            } catch (final SQLException ex) {
+                log.warn("Warm up data source failed: {}", ex.getMessage());
+            }
+        }
+        log.info("Saga warmed up {} of {} data sources in {} ms", warmedDataSources, dataSources.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
     
-    private SagaConfiguration sagaConfiguration;
+    /**
+     * Get saga configuration.
+     *
+     * @return saga configuration
+     */
+    public SagaConfiguration getSagaConfiguration() {
+        return sagaConfiguration;
+    }
     
-    private SagaExecutionComponent sagaActuator;
+    /**
+     * Get data source bulkhead.
+     *
+     * @return data source bulkhead
+     */
+    public DataSourceBulkhead getDataSourceBulkhead() {
+        return dataSourceBulkhead;
+    }
     
-    private ShardingSQLTransactionManager() {
-        sagaConfiguration = SagaConfigurationLoader.load();
-        PersistentStore sagaPersistence = SagaPersistenceLoader.load(sagaConfiguration.getSagaPersistenceConfiguration());
-        sagaActuator = SagaActuatorFactory.newInstance(sagaConfiguration, sagaPersistence);
+    /**
+     * Get data source circuit breaker.
+     *
+     * @return data source circuit breaker
+     */
+    public DataSourceCircuitBreaker getDataSourceCircuitBreaker() {
+        return dataSourceCircuitBreaker;
     }
     
+    /**
+     * Get saga retry policy.
+     *
+     * @return saga retry policy
+     */
+    public SagaRetryPolicy getSagaRetryPolicy() {
+        return sagaRetryPolicy;
+    }
     
     /**
-     * Get instance of Sharding SQL transaction manager.
+     * Get saga auto tuner.
      *
-     * @return Sharding SQL transaction manager
+     * @return saga auto tuner, absent if auto tuning is disabled
      */
-    public static ShardingSQLTransactionManager getInstance() {
-        return INSTANCE;
+    public Optional<SagaAutoTuner> getSagaAutoTuner() {
+        return Optional.fromNullable(sagaAutoTuner);
     }
     
     /**
@@ -67,7 +258,7 @@ public final class ShardingSQLTransactionManager {
      * @return transaction context
      */
     public ShardingSQLTransaction getCurrentTransaction() {
-        return CURRENT_TRANSACTION.get();
+        return currentTransaction.get();
     }
     
     /**
@@ -75,19 +266,29 @@ public final class ShardingSQLTransactionManager {
      */
     public void begin() {
         if (!isInTransaction()) {
-            CURRENT_TRANSACTION.set(new ShardingSQLTransaction());
+            ShardingSQLTransaction transaction = new ShardingSQLTransaction();
+            transaction.setPriority(SagaPriorityHolder.get());
+            transaction.setPreparedStatementCacheSize(sagaConfiguration.getPreparedStatementCacheSize());
+            currentTransaction.set(transaction);
             ShardingExecuteDataMap.getDataMap().put(Constant.SAGA_TRANSACTION_KEY, getCurrentTransaction());
+            ShardingExecuteDataMap.getDataMap().put(Constant.SAGA_TRANSACTION_MANAGER_KEY, this);
         }
     }
     
     /**
      * commit.
+     *
+     * @throws ShardingException doomed transaction is rolled back instead of committed
      */
     public void commit() {
         try {
-            if (isInTransaction() && getCurrentTransaction().isContainsException()) {
+            if (isInTransaction() && getCurrentTransaction().isDoomed()) {
+                String transactionId = getCurrentTransaction().getId();
+                runBackwardRecovery();
+                throw new ShardingException("Saga transaction `%s` is doomed by failed SQL, it is rolled back instead of committed", transactionId);
+            } else if (isInTransaction() && getCurrentTransaction().isContainsException()) {
                 getCurrentTransaction().setOperationType(TransactionOperationType.COMMIT);
-                sagaActuator.run(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY, sagaConfiguration, getCurrentTransaction()).toJson());
+                runSaga(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY, sagaConfiguration, getCurrentTransaction()), getCurrentTransaction().getPriority());
             }
         } finally {
             clear();
@@ -101,14 +302,103 @@ public final class ShardingSQLTransactionManager {
     public void rollback() {
         try {
             if (isInTransaction()) {
-                getCurrentTransaction().setOperationType(TransactionOperationType.ROLLBACK);
-                sagaActuator.run(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, sagaConfiguration, getCurrentTransaction()).toJson());
+                runBackwardRecovery();
             }
         } finally {
             clear();
         }
     }
     
+    private void runBackwardRecovery() {
+        awaitEarlyCompensation();
+        getCurrentTransaction().setOperationType(TransactionOperationType.ROLLBACK);
+        try {
+            runSaga(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, sagaConfiguration, getCurrentTransaction()), getCurrentTransaction().getPriority());
+        } catch (final SagaException ex) {
+            throw new ShardingException(String.format("Saga transaction `%s` is not fully compensated", getCurrentTransaction().getId()), ex);
+        }
+    }
+    
+    private void runSaga(final SagaDefinition sagaDefinition, final SagaPriority priority) {
+        SagaActuator currentSagaActuator = enterSagaActuator();
+        try {
+            currentSagaActuator.run(sagaDefinition, priority);
+        } finally {
+            currentSagaActuator.exit();
+        }
+    }
+    
+    private SagaActuator enterSagaActuator() {
+        SagaActuator result = sagaActuator;
+        if (result.tryEnter()) {
+            return result;
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new ShardingException("Sharding SQL transaction manager is closed");
+            }
+            result = sagaActuator;
+            if (!result.tryEnter()) {
+                throw new ShardingException("Saga actuator is closed");
+            }
+            return result;
+        }
+    }
+    
+    private void awaitEarlyCompensation() {
+        Future<?> earlyCompensationFuture = getCurrentTransaction().getEarlyCompensationFuture();
+        if (null == earlyCompensationFuture) {
+            return;
+        }
+        try {
+            Uninterruptibles.getUninterruptibly(earlyCompensationFuture);
+        } catch (final ExecutionException ex) {
+            log.warn("Early compensation of saga transaction `{}` failed, compensate it again: {}", getCurrentTransaction().getId(), ex.getCause().getMessage());
+        }
+    }
+    
+    /**
+     * Doom sharding SQL transaction and compensate its succeeded SQL transactions in background if early compensation is enabled.
+     * If early compensation executor is saturated, succeeded SQL transactions are left to rollback.
+     *
+     * @param shardingSQLTransaction sharding SQL transaction
+     */
+    public void doom(final ShardingSQLTransaction shardingSQLTransaction) {
+        if (!sagaConfiguration.isEarlyCompensationEnabled() || !shardingSQLTransaction.markDoomed()) {
+            return;
+        }
+        final ShardingSQLTransaction succeededSnapshot = shardingSQLTransaction.createSucceededSnapshot();
+        if (!succeededSnapshot.isContainsSQLTransaction()) {
+            return;
+        }
+        try {
+            shardingSQLTransaction.setEarlyCompensationFuture(earlyCompensationExecutor.submit(new Runnable() {
+                
+                @Override
+                public void run() {
+                    try {
+                        compensate(succeededSnapshot);
+                    } finally {
+                        shardingSQLTransaction.mergeCompensatedStatus(succeededSnapshot);
+                    }
+                }
+            }));
+        } catch (final RejectedExecutionException ex) {
+            succeededSnapshot.closePreparedStatementCaches();
+            log.warn("Early compensation of saga transaction `{}` is rejected, compensate it when rollback", shardingSQLTransaction.getId());
+        }
+    }
+    
+    private void compensate(final ShardingSQLTransaction succeededSnapshot) {
+        currentTransaction.set(succeededSnapshot);
+        try {
+            runSaga(SagaDefinitionFactory.newCompensationInstance(succeededSnapshot), succeededSnapshot.getPriority());
+        } finally {
+            succeededSnapshot.closePreparedStatementCaches();
+            currentTransaction.remove();
+        }
+    }
+    
     /**
      * Whether current thread is in transaction or not.
      *
@@ -122,7 +412,37 @@ public final class ShardingSQLTransactionManager {
      * clear.
      */
     public void clear() {
-        CURRENT_TRANSACTION.remove();
+        if (isInTransaction()) {
+            awaitEarlyCompensation();
+            getCurrentTransaction().closePreparedStatementCaches();
+            if (null != getCurrentTransaction().getCompensationConnectionManager()) {
+                getCurrentTransaction().getCompensationConnectionManager().close();
+            }
+        }
+        currentTransaction.remove();
         ShardingExecuteDataMap.getDataMap().remove(Constant.SAGA_TRANSACTION_KEY);
+        ShardingExecuteDataMap.getDataMap().remove(Constant.SAGA_TRANSACTION_MANAGER_KEY);
+    }
+    
+    /**
+     * Close sharding SQL transaction manager, its background threads, saga executor and saga persistence are released.
+     */
+    @SneakyThrows
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (null != sagaConfigurationWatcher) {
+            sagaConfigurationWatcher.close();
+        }
+        if (null != sagaAutoTuner) {
+            sagaAutoTuner.close();
+        }
+        sagaActuator.close();
+        earlyCompensationExecutor.shutdown();
+        if (sagaPersistence instanceof AutoCloseable) {
+            ((AutoCloseable) sagaPersistence).close();
+        }
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator;
+
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaRequest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaSQLUnit;
+import io.shardingsphere.transaction.base.saga.actuator.definition.ServiceCombSagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriority;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriorityHolder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.application.SagaFactory;
+import org.apache.servicecomb.saga.infrastructure.EmbeddedEventStore;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saga actuator.
+ *
+ * <p>
+ * Feeds saga definition to saga factory directly, saga definition is written as JSON only when saga persistence is enabled.
+ * Saga with few branches is run by inline saga factory on caller thread, which saves the handoff to saga executor.
+ * Priority of saga is held by caller thread while running, so tasks submitted to saga executor are ordered by it.
+ * Compensations of saga run by saga executor are run in parallel on it as well.
+ * Latency of each saga is recorded, whichever thread runs its transactions and compensations, to feed saga auto tuner.
+ * </p>
+ *
+ * <p>
+ * Backward recovery saga is admitted by permits reserved for rollback sagas when max in-flight sagas is reached,
+ * so rollback is not starved by forward recovery sagas, and it is still bounded.
+ * </p>
+ *
+ * <p>
+ * Closed saga actuator shuts down saga executor after its in-flight sagas finish, callers should enter it before running saga.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+public final class SagaActuator {
+    
+    private static final String EMPTY_JSON = "{}";
+    
+    private final SagaFactory sagaFactory;
+    
+    private final SagaFactory inlineSagaFactory;
+    
+    private final int inlineMaxBranches;
+    
+    private final TransportFactory<SQLTransport> transportFactory;
+    
+    private final boolean persistenceEnabled;
+    
+    private final SagaAdmissionController admissionController;
+    
+    @Getter
+    private final InstrumentedExecutorService executorService;
+    
+    private final AtomicLong completedSagaCount = new AtomicLong();
+    
+    private final AtomicLong totalSagaLatencyNanos = new AtomicLong();
+    
+    private int runningSagas;
+    
+    private boolean closed;
+    
+    private boolean terminated;
+    
+    /**
+     * Enter saga actuator to run saga.
+     *
+     * @return true if entered, false if saga actuator has been terminated
+     */
+    public synchronized boolean tryEnter() {
+        if (terminated) {
+            return false;
+        }
+        runningSagas++;
+        return true;
+    }
+    
+    /**
+     * Exit saga actuator after saga finished.
+     */
+    public synchronized void exit() {
+        runningSagas--;
+        terminateIfIdle();
+    }
+    
+    /**
+     * Close saga actuator, saga executor is shut down once there is no in-flight saga.
+     */
+    public synchronized void close() {
+        closed = true;
+        terminateIfIdle();
+    }
+    
+    private void terminateIfIdle() {
+        if (closed && 0 == runningSagas && !terminated) {
+            terminated = true;
+            executorService.shutdown();
+        }
+    }
+    
+    /**
+     * Run saga.
+     *
+     * @param sagaDefinition saga definition
+     * @return saga response
+     */
+    public SagaResponse run(final SagaDefinition sagaDefinition) {
+        return run(sagaDefinition, SagaPriority.NORMAL);
+    }
+    
+    /**
+     * Run saga with priority.
+     *
+     * @param sagaDefinition saga definition
+     * @param priority saga priority
+     * @return saga response
+     */
+    public SagaResponse run(final SagaDefinition sagaDefinition, final SagaPriority priority) {
+        SagaPriority originalPriority = SagaPriorityHolder.get();
+        SagaPriorityHolder.set(priority);
+        try {
+            return doRun(sagaDefinition);
+        } finally {
+            SagaPriorityHolder.set(originalPriority);
+        }
+    }
+    
+    private SagaResponse doRun(final SagaDefinition sagaDefinition) {
+        String requestJson = persistenceEnabled ? sagaDefinition.toJson() : EMPTY_JSON;
+        boolean admittedByRollbackPermit = admit(sagaDefinition);
+        long startNanos = System.nanoTime();
+        try {
+            return runSaga(getBranchCount(sagaDefinition) <= inlineMaxBranches ? inlineSagaFactory : sagaFactory, requestJson, sagaDefinition);
+        } finally {
+            totalSagaLatencyNanos.addAndGet(System.nanoTime() - startNanos);
+            completedSagaCount.incrementAndGet();
+            if (admittedByRollbackPermit) {
+                admissionController.releaseRollback();
+            } else {
+                admissionController.release();
+            }
+        }
+    }
+    
+    private boolean admit(final SagaDefinition sagaDefinition) {
+        if (RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY.equals(sagaDefinition.getPolicy())) {
+            return admissionController.acquireRollback();
+        }
+        admissionController.acquire();
+        return false;
+    }
+    
+    private SagaResponse runSaga(final SagaFactory selectedSagaFactory, final String requestJson, final SagaDefinition sagaDefinition) {
+        ServiceCombSagaDefinition serviceCombSagaDefinition = selectedSagaFactory == sagaFactory && null != executorService
+            ? new ServiceCombSagaDefinition(sagaDefinition, transportFactory, executorService) : new ServiceCombSagaDefinition(sagaDefinition, transportFactory);
+        return selectedSagaFactory.createSaga(requestJson, UUID.randomUUID().toString(), new EmbeddedEventStore(), serviceCombSagaDefinition).run();
+    }
+    
+    /**
+     * Warm up saga actuator, core threads of saga executor are started and JSON codec of saga definition is touched.
+     *
+     * @return count of started threads
+     */
+    public int warmUp() {
+        if (persistenceEnabled) {
+            SagaSQLUnit sqlUnit = new SagaSQLUnit(SagaDefinitionFactory.ROLLBACK_TAG, Collections.<Collection<Object>>singletonList(Collections.<Object>singletonList(0)), 0);
+            new SagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, Collections.singletonList(
+                new SagaRequest(SagaDefinitionFactory.ROLLBACK_TAG, SagaDefinitionFactory.ROLLBACK_TAG, "sql", sqlUnit, sqlUnit, Collections.<String>emptyList(), 0))).toJson();
+        }
+        return executorService.prestartAllCoreThreads();
+    }
+    
+    /**
+     * Get count of completed sagas.
+     *
+     * @return completed saga count
+     */
+    public long getCompletedSagaCount() {
+        return completedSagaCount.get();
+    }
+    
+    /**
+     * Get total latency of completed sagas.
+     *
+     * @return total saga latency in milliseconds
+     */
+    public long getTotalSagaLatencyMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(totalSagaLatencyNanos.get());
+    }
+    
+    private int getBranchCount(final SagaDefinition sagaDefinition) {
+        int result = 0;
+        for (SagaRequest each : sagaDefinition.getRequests()) {
+            if (!SagaDefinitionFactory.ROLLBACK_TAG.equals(each.getId())) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
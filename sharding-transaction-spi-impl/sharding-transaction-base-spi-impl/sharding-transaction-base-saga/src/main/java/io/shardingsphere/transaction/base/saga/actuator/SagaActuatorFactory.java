@@ -18,23 +18,22 @@
 package io.shardingsphere.transaction.base.saga.actuator;
 
 import com.google.common.util.concurrent.MoreExecutors;
-import io.shardingsphere.transaction.base.saga.actuator.transport.SagaTransportFactory;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.executor.PriorityExecutorServiceProvider;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaExecutorServiceProvider;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaExecutorServiceProviderLoader;
 import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.servicecomb.saga.core.PersistentStore;
-import org.apache.servicecomb.saga.core.SagaDefinition;
-import org.apache.servicecomb.saga.core.application.SagaExecutionComponent;
-import org.apache.servicecomb.saga.core.application.interpreter.FromJsonFormat;
 import org.apache.servicecomb.saga.core.dag.GraphBasedSagaFactory;
 import org.apache.servicecomb.saga.format.ChildrenExtractor;
-import org.apache.servicecomb.saga.format.JacksonFromJsonFormat;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
 import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Properties;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Saga actuator factory.
@@ -45,23 +44,34 @@ import java.util.concurrent.TimeUnit;
 public final class SagaActuatorFactory {
     
     /**
-     * Create new saga execution component.
+     * Create new saga actuator.
      *
      * @param sagaConfiguration saga configuration
      * @param sagaPersistence saga persistence
-     * @return saga execution component
+     * @param transportFactory transport factory
+     * @return saga actuator
      */
-    public static SagaExecutionComponent newInstance(final SagaConfiguration sagaConfiguration, final PersistentStore sagaPersistence) {
-        FromJsonFormat<SagaDefinition> fromJsonFormat = new JacksonFromJsonFormat(SagaTransportFactory.getInstance());
+    public static SagaActuator newInstance(final SagaConfiguration sagaConfiguration, final PersistentStore sagaPersistence, final TransportFactory<SQLTransport> transportFactory) {
+        InstrumentedExecutorService executorService = createExecutorService(sagaConfiguration);
         GraphBasedSagaFactory sagaFactory = new GraphBasedSagaFactory(sagaConfiguration.getCompensationRetryDelayMilliseconds(),
-            sagaPersistence, new ChildrenExtractor(), createExecutorService(sagaConfiguration.getExecutorSize()));
-        return new SagaExecutionComponent(sagaPersistence, fromJsonFormat, null, sagaFactory);
+            sagaPersistence, new ChildrenExtractor(), executorService);
+        GraphBasedSagaFactory inlineSagaFactory = new GraphBasedSagaFactory(sagaConfiguration.getCompensationRetryDelayMilliseconds(),
+            sagaPersistence, new ChildrenExtractor(), MoreExecutors.newDirectExecutorService());
+        return new SagaActuator(sagaFactory, inlineSagaFactory, sagaConfiguration.getInlineMaxBranches(), transportFactory,
+            sagaConfiguration.getSagaPersistenceConfiguration().isEnablePersistence(),
+            new SagaAdmissionController(sagaConfiguration.getMaxInFlightSagas(), sagaConfiguration.getAdmissionTimeoutMilliseconds()), executorService);
     }
     
-    private static ExecutorService createExecutorService(final int executorSize) {
+    private static InstrumentedExecutorService createExecutorService(final SagaConfiguration sagaConfiguration) {
+        Properties properties = new Properties();
+        properties.setProperty(PriorityExecutorServiceProvider.AGING_MILLISECONDS, String.valueOf(sagaConfiguration.getPriorityAgingMilliseconds()));
+        SagaExecutorServiceProvider provider = new SagaExecutorServiceProviderLoader().newService(sagaConfiguration.getExecutorType(), properties);
         ThreadFactory threadFactory = ShardingThreadFactoryBuilder.build("Saga-%d");
-        ExecutorService result = executorSize > 0 ? Executors.newFixedThreadPool(executorSize, threadFactory) : Executors.newCachedThreadPool(threadFactory);
-        MoreExecutors.addDelayedShutdownHook(result, 60, TimeUnit.SECONDS);
-        return result;
+        return new InstrumentedExecutorService(
+            provider.newExecutorService(getExecutorSize(sagaConfiguration), Math.max(sagaConfiguration.getExecutorQueueSize(), 1), threadFactory));
+    }
+    
+    private static int getExecutorSize(final SagaConfiguration sagaConfiguration) {
+        return sagaConfiguration.getExecutorSize() > 0 ? sagaConfiguration.getExecutorSize() : Runtime.getRuntime().availableProcessors() * 2;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator;
+
+import org.apache.shardingsphere.core.exception.ShardingException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga admission controller, which limits count of in-flight sagas.
+ *
+ * <p>
+ * Forward recovery saga waits for admission, zero admission timeout rejects saga at once when limit is reached, positive timeout queues it until timeout.
+ * Rollback saga takes free permit at once if there is one, otherwise it waits for permits reserved for rollback sagas,
+ * which are a quarter of max in-flight sagas and at least one, so rollback is not starved by forward recovery sagas and stays bounded.
+ * Non-positive max in-flight sagas means no limit.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class SagaAdmissionController {
+    
+    private final int maxInFlightSagas;
+    
+    private final long admissionTimeoutMilliseconds;
+    
+    private final int reservedRollbackSagas;
+    
+    private final Semaphore permits;
+    
+    private final Semaphore rollbackPermits;
+    
+    public SagaAdmissionController(final int maxInFlightSagas, final long admissionTimeoutMilliseconds) {
+        this.maxInFlightSagas = maxInFlightSagas;
+        this.admissionTimeoutMilliseconds = admissionTimeoutMilliseconds;
+        reservedRollbackSagas = Math.max(maxInFlightSagas / 4, 1);
+        permits = maxInFlightSagas > 0 ? new Semaphore(maxInFlightSagas) : null;
+        rollbackPermits = maxInFlightSagas > 0 ? new Semaphore(reservedRollbackSagas) : null;
+    }
+    
+    /**
+     * Acquire admission for saga.
+     *
+     * @throws ShardingException sharding exception when saga is rejected
+     */
+    public void acquire() {
+        if (null == permits) {
+            return;
+        }
+        if (!tryAcquire(permits)) {
+            throw new ShardingException("Saga is rejected, in-flight sagas reach the limit of %d", maxInFlightSagas);
+        }
+    }
+    
+    /**
+     * Acquire admission for rollback saga.
+     *
+     * @return true if admitted by permit reserved for rollback sagas, which should be released by {@link #releaseRollback()}
+     * @throws ShardingException sharding exception when rollback saga is rejected
+     */
+    public boolean acquireRollback() {
+        if (null == permits || permits.tryAcquire()) {
+            return false;
+        }
+        if (!tryAcquire(rollbackPermits)) {
+            throw new ShardingException("Rollback saga is rejected, in-flight sagas reach the limit of %d and reserved rollback sagas reach the limit of %d", maxInFlightSagas, reservedRollbackSagas);
+        }
+        return true;
+    }
+    
+    private boolean tryAcquire(final Semaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(admissionTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ShardingException("Interrupted while waiting for saga admission", ex);
+        }
+    }
+    
+    /**
+     * Release admission of saga.
+     */
+    public void release() {
+        if (null != permits) {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Release admission of rollback saga which is admitted by reserved permit.
+     */
+    public void releaseRollback() {
+        if (null != rollbackPermits) {
+            rollbackPermits.release();
+        }
+    }
+    
+    /**
+     * Get count of in-flight sagas.
+     *
+     * @return in-flight sagas, always 0 when there is no limit
+     */
+    public int getInFlightSagas() {
+        return null == permits ? 0 : maxInFlightSagas - permits.availablePermits() + reservedRollbackSagas - rollbackPermits.availablePermits();
+    }
+}
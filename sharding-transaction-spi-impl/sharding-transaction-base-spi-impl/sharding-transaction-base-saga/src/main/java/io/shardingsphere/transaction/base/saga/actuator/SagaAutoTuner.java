@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator;
+
+import com.google.common.base.Optional;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceCircuitBreaker;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaRetryPolicy;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saga auto tuner, which adjusts saga executor size and retry delay factor by feedback at fixed interval.
+ *
+ * <p>
+ * Error rate of any data source reaching threshold halves executor size and doubles retry delay factor, to back off from failing data source.
+ * Error rate is taken only from data source with enough executions, and executor size is kept for a few intervals after back off, so one noisy sample does not make it oscillate.
+ * Otherwise executor grows when tasks are queued and saga latency exceeds target, and shrinks by one when it is idle and saga latency is below half of target.
+ * Saga latency is measured by saga actuator, so it covers sagas run inline and compensations run on caller thread as well.
+ * Retry delay factor is halved when there is no error. Both are kept within configured bounds.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Slf4j
+public final class SagaAutoTuner implements Runnable {
+    
+    private static final double HIGH_ERROR_RATE = 0.1D;
+    
+    private static final double MIN_RETRY_DELAY_FACTOR = 1D;
+    
+    private static final long MIN_ERROR_RATE_EXECUTIONS = 20L;
+    
+    private static final int BACK_OFF_COOLDOWN_INTERVALS = 3;
+    
+    private final SagaActuator sagaActuator;
+    
+    private final InstrumentedExecutorService executorService;
+    
+    private final SagaRetryPolicy sagaRetryPolicy;
+    
+    private final DataSourceCircuitBreaker dataSourceCircuitBreaker;
+    
+    private final long intervalMilliseconds;
+    
+    private final int minExecutorSize;
+    
+    private final int maxExecutorSize;
+    
+    private final long targetLatencyMilliseconds;
+    
+    private final double maxRetryDelayFactor;
+    
+    private long lastCompletedSagaCount;
+    
+    private long lastTotalSagaLatencyMilliseconds;
+    
+    private int cooldownIntervals;
+    
+    @Getter
+    private volatile long windowLatencyMilliseconds;
+    
+    @Getter
+    private volatile double maxErrorRate;
+    
+    private final AtomicLong adjustmentCount = new AtomicLong();
+    
+    private ScheduledExecutorService scheduledExecutorService;
+    
+    public SagaAutoTuner(final SagaConfiguration sagaConfiguration, final SagaActuator sagaActuator,
+                         final SagaRetryPolicy sagaRetryPolicy, final DataSourceCircuitBreaker dataSourceCircuitBreaker) {
+        this.sagaActuator = sagaActuator;
+        executorService = sagaActuator.getExecutorService();
+        this.sagaRetryPolicy = sagaRetryPolicy;
+        this.dataSourceCircuitBreaker = dataSourceCircuitBreaker;
+        intervalMilliseconds = Math.max(sagaConfiguration.getAutoTuningIntervalMilliseconds(), 1);
+        minExecutorSize = Math.max(sagaConfiguration.getAutoTuningMinExecutorSize(), 1);
+        maxExecutorSize = Math.max(sagaConfiguration.getAutoTuningMaxExecutorSize(), minExecutorSize);
+        targetLatencyMilliseconds = sagaConfiguration.getAutoTuningTargetLatencyMilliseconds();
+        maxRetryDelayFactor = Math.max(sagaConfiguration.getAutoTuningMaxRetryDelayFactor(), MIN_RETRY_DELAY_FACTOR);
+    }
+    
+    /**
+     * Start tuning at fixed interval.
+     */
+    public synchronized void start() {
+        if (null != scheduledExecutorService) {
+            return;
+        }
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(ShardingThreadFactoryBuilder.build("Saga-AutoTuner-%d"));
+        scheduledExecutorService.scheduleWithFixedDelay(this, intervalMilliseconds, intervalMilliseconds, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop tuning.
+     */
+    public synchronized void close() {
+        if (null != scheduledExecutorService) {
+            scheduledExecutorService.shutdownNow();
+            scheduledExecutorService = null;
+        }
+    }
+    
+    @Override
+    public synchronized void run() {
+        try {
+            windowLatencyMilliseconds = drainWindowLatencyMilliseconds();
+            maxErrorRate = getMaxErrorRate(dataSourceCircuitBreaker.drainErrorRates(MIN_ERROR_RATE_EXECUTIONS));
+            tuneExecutorSize();
+            tuneRetryDelayFactor();
+        } catch (final RuntimeException ex) {
+            log.warn("Saga auto tuning failed: {}", ex.getMessage());
+        }
+    }
+    
+    private long drainWindowLatencyMilliseconds() {
+        long completedSagaCount = sagaActuator.getCompletedSagaCount();
+        long totalSagaLatencyMilliseconds = sagaActuator.getTotalSagaLatencyMilliseconds();
+        long completed = completedSagaCount - lastCompletedSagaCount;
+        long result = completed > 0 ? (totalSagaLatencyMilliseconds - lastTotalSagaLatencyMilliseconds) / completed : 0L;
+        lastCompletedSagaCount = completedSagaCount;
+        lastTotalSagaLatencyMilliseconds = totalSagaLatencyMilliseconds;
+        return result;
+    }
+    
+    private double getMaxErrorRate(final Map<String, Double> errorRates) {
+        double result = 0D;
+        for (double each : errorRates.values()) {
+            result = Math.max(result, each);
+        }
+        return result;
+    }
+    
+    private void tuneExecutorSize() {
+        Optional<Integer> poolSize = executorService.getPoolSize();
+        if (!poolSize.isPresent()) {
+            return;
+        }
+        if (cooldownIntervals > 0) {
+            cooldownIntervals--;
+            return;
+        }
+        int current = poolSize.get();
+        int target = current;
+        if (maxErrorRate >= HIGH_ERROR_RATE) {
+            target = current / 2;
+            cooldownIntervals = BACK_OFF_COOLDOWN_INTERVALS;
+        } else if (executorService.getQueueDepth() > 0 && windowLatencyMilliseconds > targetLatencyMilliseconds) {
+            target = current + Math.max(current / 4, 1);
+        } else if (0 == executorService.getQueueDepth() && windowLatencyMilliseconds < targetLatencyMilliseconds / 2 && executorService.getActiveCount() < current / 2) {
+            target = current - 1;
+        }
+        target = Math.min(Math.max(target, minExecutorSize), maxExecutorSize);
+        if (target != current && executorService.setPoolSize(target)) {
+            adjustmentCount.incrementAndGet();
+            log.info("Saga executor size is tuned from {} to {}, latency: {} ms, queue depth: {}, max error rate: {}",
+                current, target, windowLatencyMilliseconds, executorService.getQueueDepth(), maxErrorRate);
+        }
+    }
+    
+    private void tuneRetryDelayFactor() {
+        double current = sagaRetryPolicy.getDelayFactor();
+        double target = current;
+        if (maxErrorRate >= HIGH_ERROR_RATE) {
+            target = Math.min(current * 2, maxRetryDelayFactor);
+        } else if (0D == maxErrorRate) {
+            target = Math.max(current / 2, MIN_RETRY_DELAY_FACTOR);
+        }
+        if (target != current) {
+            sagaRetryPolicy.setDelayFactor(target);
+            adjustmentCount.incrementAndGet();
+            log.info("Saga retry delay factor is tuned from {} to {}, max error rate: {}", current, target, maxErrorRate);
+        }
+    }
+    
+    /**
+     * Get current saga executor size.
+     *
+     * @return executor size, -1 if saga executor can not be tuned
+     */
+    public int getExecutorSize() {
+        return executorService.getPoolSize().or(-1);
+    }
+    
+    /**
+     * Get current retry delay factor.
+     *
+     * @return retry delay factor
+     */
+    public double getRetryDelayFactor() {
+        return sagaRetryPolicy.getDelayFactor();
+    }
+    
+    /**
+     * Get count of adjustments made by tuner.
+     *
+     * @return adjustment count
+     */
+    public long getAdjustmentCount() {
+        return adjustmentCount.get();
+    }
+}
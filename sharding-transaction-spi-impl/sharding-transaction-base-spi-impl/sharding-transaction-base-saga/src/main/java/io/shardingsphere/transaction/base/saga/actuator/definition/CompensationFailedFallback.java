@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.servicecomb.saga.core.Fallback;
+import org.apache.servicecomb.saga.core.Operation;
+import org.apache.servicecomb.saga.core.SagaException;
+import org.apache.servicecomb.saga.core.SagaResponse;
+
+/**
+ * Fallback which fails saga when compensation of saga request failed, so the failure is not swallowed by NOP fallback.
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+public final class CompensationFailedFallback implements Fallback {
+    
+    private final String sagaRequestId;
+    
+    @Override
+    public String type() {
+        return Operation.TYPE_SQL;
+    }
+    
+    @Override
+    public SagaResponse send(final String address) {
+        throw new SagaException(String.format("Compensation of saga request `%s` on data source `%s` failed", sagaRequestId, address));
+    }
+    
+    @Override
+    public SagaResponse send(final String address, final SagaResponse response) {
+        return send(address);
+    }
+    
+    @Override
+    public int retries() {
+        return 0;
+    }
+}
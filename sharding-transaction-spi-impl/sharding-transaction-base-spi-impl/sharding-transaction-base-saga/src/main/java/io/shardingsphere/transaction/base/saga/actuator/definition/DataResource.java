@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import com.google.common.base.Optional;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * Data resource touched by SQL transaction, which is used to find out dependency between saga requests.
+ *
+ * <p>
+ * Data source name is always known, actual table and primary keys are absent when revert SQL meta data is unavailable,
+ * and absent value is treated as conflicting with everything in the same scope.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public final class DataResource {
+    
+    private final String sqlTransactionId;
+    
+    private final int logicSQLIndex;
+    
+    private final String dataSourceName;
+    
+    private final String actualTable;
+    
+    private final Collection<String> primaryKeys;
+    
+    /**
+     * New instance of data resource.
+     *
+     * @param logicSQLIndex index of logic SQL transaction which SQL transaction belongs to
+     * @param sqlTransaction SQL transaction
+     * @return data resource
+     */
+    public static DataResource newInstance(final int logicSQLIndex, final SQLTransaction sqlTransaction) {
+        RevertSQLResult revertSQLResult = sqlTransaction.getRevertSQLResult();
+        Optional<RevertSQLMetaData> metaData = null == revertSQLResult ? Optional.<RevertSQLMetaData>absent() : revertSQLResult.getMetaData();
+        if (!metaData.isPresent()) {
+            return new DataResource(sqlTransaction.getSqlTransactionId(), logicSQLIndex, sqlTransaction.getDataSourceName(), null, null);
+        }
+        Collection<String> primaryKeys = metaData.get().isPrimaryKeyChanged() ? null : getPrimaryKeys(metaData.get(), revertSQLResult);
+        return new DataResource(sqlTransaction.getSqlTransactionId(), logicSQLIndex, sqlTransaction.getDataSourceName(), metaData.get().getActualTable(), primaryKeys);
+    }
+    
+    private static Collection<String> getPrimaryKeys(final RevertSQLMetaData metaData, final RevertSQLResult revertSQLResult) {
+        Collection<String> result = new HashSet<>(revertSQLResult.getParameters().size(), 1);
+        for (Collection<Object> each : revertSQLResult.getParameters()) {
+            result.add(metaData.getPrimaryKeyValues(each).toString());
+        }
+        return result;
+    }
+    
+    /**
+     * Judge whether data resource conflicts with another one, which means they may touch the same row.
+     *
+     * @param other other data resource
+     * @return conflicted or not
+     */
+    public boolean isConflicted(final DataResource other) {
+        if (!dataSourceName.equals(other.dataSourceName)) {
+            return false;
+        }
+        if (null == actualTable || null == other.actualTable) {
+            return true;
+        }
+        if (!actualTable.equalsIgnoreCase(other.actualTable)) {
+            return false;
+        }
+        return null == primaryKeys || null == other.primaryKeys || !Collections.disjoint(primaryKeys, other.primaryKeys);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Parallel compensator of one saga.
+ *
+ * <p>
+ * ServiceComb saga compensates requests one by one on caller thread, from leaf requests to root requests.
+ * Once the first compensation is requested, parallel compensator submits compensation of every request whose children have been compensated to saga executor,
+ * so compensations of independent branches overlap, and compensation requested by ServiceComb saga waits for the submitted one.
+ * Request whose compensation or children compensation failed is not submitted, it is compensated on caller thread when ServiceComb saga requests it.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+final class ParallelCompensator {
+    
+    private final Executor executor;
+    
+    private final Map<String, ParallelSQLCompensation> compensations = new HashMap<>();
+    
+    private final Map<String, String> addresses = new HashMap<>();
+    
+    private final Map<String, Collection<String>> parents = new HashMap<>();
+    
+    private final Map<String, Integer> pendingChildren = new LinkedHashMap<>();
+    
+    private final Map<String, Future<SagaResponse>> futures = new HashMap<>();
+    
+    private final Set<String> claimedRequestIds = new HashSet<>();
+    
+    private boolean started;
+    
+    /**
+     * Register compensation of saga request, parents must be registered before children.
+     *
+     * @param requestId saga request id
+     * @param address address of compensation
+     * @param parentsIds parents ids of saga request
+     * @param compensation compensation
+     */
+    void register(final String requestId, final String address, final Collection<String> parentsIds, final ParallelSQLCompensation compensation) {
+        compensations.put(requestId, compensation);
+        addresses.put(requestId, address);
+        parents.put(requestId, parentsIds);
+        pendingChildren.put(requestId, 0);
+        for (String each : parentsIds) {
+            pendingChildren.put(each, pendingChildren.get(each) + 1);
+        }
+    }
+    
+    /**
+     * Compensate saga request.
+     *
+     * @param requestId saga request id
+     * @param address address of compensation
+     * @return saga response
+     */
+    SagaResponse compensate(final String requestId, final String address) {
+        Future<SagaResponse> future = claim(requestId);
+        if (null == future) {
+            return sendAndSubmitParents(requestId, address);
+        }
+        try {
+            return future.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TransportFailedException(String.format("Interrupted while waiting for compensation of saga request `%s`", requestId), ex);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new TransportFailedException(String.format("Compensation of saga request `%s` failed", requestId), ex.getCause());
+        }
+    }
+    
+    private Future<SagaResponse> claim(final String requestId) {
+        Collection<FutureTask<SagaResponse>> tasks = new LinkedList<>();
+        Future<SagaResponse> result;
+        synchronized (this) {
+            claimedRequestIds.add(requestId);
+            if (!started) {
+                started = true;
+                for (Entry<String, Integer> entry : pendingChildren.entrySet()) {
+                    if (0 == entry.getValue()) {
+                        addTask(entry.getKey(), tasks);
+                    }
+                }
+            }
+            result = futures.remove(requestId);
+        }
+        execute(tasks);
+        return result;
+    }
+    
+    private SagaResponse sendAndSubmitParents(final String requestId, final String address) {
+        SagaResponse result = compensations.get(requestId).sendOnCurrentThread(address);
+        Collection<FutureTask<SagaResponse>> tasks = new LinkedList<>();
+        synchronized (this) {
+            for (String each : parents.get(requestId)) {
+                int count = pendingChildren.get(each) - 1;
+                pendingChildren.put(each, count);
+                if (0 == count) {
+                    addTask(each, tasks);
+                }
+            }
+        }
+        execute(tasks);
+        return result;
+    }
+    
+    private void addTask(final String requestId, final Collection<FutureTask<SagaResponse>> tasks) {
+        if (claimedRequestIds.contains(requestId)) {
+            return;
+        }
+        FutureTask<SagaResponse> result = new FutureTask<>(new Callable<SagaResponse>() {
+            
+            @Override
+            public SagaResponse call() {
+                return sendAndSubmitParents(requestId, addresses.get(requestId));
+            }
+        });
+        futures.put(requestId, result);
+        tasks.add(result);
+    }
+    
+    private void execute(final Collection<FutureTask<SagaResponse>> tasks) {
+        for (FutureTask<SagaResponse> each : tasks) {
+            try {
+                executor.execute(each);
+            } catch (final RejectedExecutionException ignored) {
+                each.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.format.JacksonSQLCompensation;
+
+import java.util.List;
+
+/**
+ * SQL compensation which is scheduled by parallel compensator.
+ *
+ * @author zhaojun
+ */
+final class ParallelSQLCompensation extends JacksonSQLCompensation {
+    
+    private final transient String requestId;
+    
+    private final transient ParallelCompensator compensator;
+    
+    ParallelSQLCompensation(final String requestId, final String sql, final List<List<String>> params, final int retries, final ParallelCompensator compensator) {
+        super(sql, params, retries);
+        this.requestId = requestId;
+        this.compensator = compensator;
+    }
+    
+    @Override
+    public SagaResponse send(final String address) {
+        return compensator.compensate(requestId, address);
+    }
+    
+    SagaResponse sendOnCurrentThread(final String address) {
+        return super.send(address);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import com.google.common.collect.Lists;
+import io.shardingsphere.transaction.base.context.ExecuteStatus;
+import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * SQL transaction splitter.
+ *
+ * <p>
+ * Splits SQL transaction whose rows exceed max rows into sibling SQL transactions of the same logic SQL,
+ * so each of them becomes an independent saga request which is executed in parallel and retried alone.
+ * For backward recovery revert parameter rows are split and the first sibling keeps original parameters,
+ * the other siblings have no parameters, they are told apart by their revert parameter rows and compensated in parallel by saga executor.
+ * For forward recovery parameter rows of failed SQL transaction are split and siblings share revert SQL result.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SQLTransactionSplitter {
+    
+    /**
+     * Split oversized SQL transactions of sharding SQL transaction.
+     *
+     * @param shardingSQLTransaction sharding SQL transaction
+     * @param maxRows max rows of one SQL transaction, non-positive means no limit
+     * @param backwardRecovery whether saga recovers backward or not
+     */
+    public static void split(final ShardingSQLTransaction shardingSQLTransaction, final int maxRows, final boolean backwardRecovery) {
+        if (maxRows <= 0) {
+            return;
+        }
+        for (LogicSQLTransaction each : shardingSQLTransaction.getLogicSQLTransactions()) {
+            split(each, maxRows, backwardRecovery);
+        }
+    }
+    
+    private static void split(final LogicSQLTransaction logicSQLTransaction, final int maxRows, final boolean backwardRecovery) {
+        List<SQLTransaction> result = new LinkedList<>();
+        boolean split = false;
+        for (SQLTransaction each : logicSQLTransaction.getSqlTransactions()) {
+            Collection<SQLTransaction> siblings = backwardRecovery ? splitRevertRows(each, maxRows) : splitRows(each, maxRows);
+            split = split || siblings.size() > 1;
+            result.addAll(siblings);
+        }
+        if (split) {
+            logicSQLTransaction.getSqlTransactions().clear();
+            logicSQLTransaction.getSqlTransactions().addAll(result);
+        }
+    }
+    
+    private static Collection<SQLTransaction> splitRevertRows(final SQLTransaction sqlTransaction, final int maxRows) {
+        RevertSQLResult revertSQLResult = sqlTransaction.getRevertSQLResult();
+        if (null == revertSQLResult || revertSQLResult.getParameters().size() <= maxRows) {
+            return Lists.newArrayList(sqlTransaction);
+        }
+        Collection<SQLTransaction> result = new LinkedList<>();
+        for (List<Collection<Object>> each : Lists.partition(new ArrayList<>(revertSQLResult.getParameters()), maxRows)) {
+            List<Collection<Object>> parameters = result.isEmpty() ? sqlTransaction.getParameters() : new LinkedList<Collection<Object>>();
+            SQLTransaction sibling = new SQLTransaction(sqlTransaction.getDataSourceName(), sqlTransaction.getSql(), parameters, sqlTransaction.getExecuteStatus());
+            sibling.setRevertSQLResult(newRevertSQLResult(revertSQLResult, each));
+            result.add(sibling);
+        }
+        return result;
+    }
+    
+    private static RevertSQLResult newRevertSQLResult(final RevertSQLResult revertSQLResult, final List<Collection<Object>> parameters) {
+        RevertSQLResult result = new RevertSQLResult(revertSQLResult.getSql());
+        result.getParameters().addAll(parameters);
+        result.setMultiRowRevertSQL(revertSQLResult.getMultiRowRevertSQL().orNull());
+        result.setMetaData(revertSQLResult.getMetaData().orNull());
+        return result;
+    }
+    
+    private static Collection<SQLTransaction> splitRows(final SQLTransaction sqlTransaction, final int maxRows) {
+        if (!ExecuteStatus.FAILURE.equals(sqlTransaction.getExecuteStatus()) || sqlTransaction.getParameters().size() <= maxRows) {
+            return Lists.newArrayList(sqlTransaction);
+        }
+        Collection<SQLTransaction> result = new LinkedList<>();
+        for (List<Collection<Object>> each : Lists.partition(new ArrayList<>(sqlTransaction.getParameters()), maxRows)) {
+            SQLTransaction sibling = new SQLTransaction(sqlTransaction.getDataSourceName(), sqlTransaction.getSql(), new LinkedList<>(each), sqlTransaction.getExecuteStatus());
+            sibling.setRevertSQLResult(sqlTransaction.getRevertSQLResult());
+            result.add(sibling);
+        }
+        return result;
+    }
+}
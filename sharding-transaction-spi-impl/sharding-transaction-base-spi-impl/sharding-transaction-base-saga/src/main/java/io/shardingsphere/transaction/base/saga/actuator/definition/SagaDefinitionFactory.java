@@ -21,13 +21,18 @@ import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.context.SQLTransaction;
 import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
 import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import org.apache.servicecomb.saga.core.RecoveryPolicy;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Saga definition factory.
@@ -41,6 +46,8 @@ public final class SagaDefinitionFactory {
     
     private static final String TYPE = "sql";
     
+    private static final int NO_RETRY = 0;
+    
     /**
      * New instance of saga definition.
      *
@@ -50,36 +57,96 @@ public final class SagaDefinitionFactory {
      * @return saga definition
      */
     public static SagaDefinition newInstance(final String recoveryPolicy, final SagaConfiguration configuration, final ShardingSQLTransaction shardingSQLTransaction) {
+        boolean backwardRecovery = RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY.equals(recoveryPolicy);
+        if (backwardRecovery) {
+            UndoLogCompactor.compact(shardingSQLTransaction);
+        }
+        SQLTransactionSplitter.split(shardingSQLTransaction, configuration.getRequestMaxRows(), backwardRecovery);
+        return createSagaDefinition(recoveryPolicy, shardingSQLTransaction);
+    }
+    
+    /**
+     * New instance of saga definition which compensates sharding SQL transaction.
+     *
+     * <p>
+     * SQL transactions are not split, so execute status of each of them tells whether it has been compensated or not.
+     * </p>
+     *
+     * @param shardingSQLTransaction sharding SQL transaction
+     * @return saga definition
+     */
+    public static SagaDefinition newCompensationInstance(final ShardingSQLTransaction shardingSQLTransaction) {
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        return createSagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, shardingSQLTransaction);
+    }
+    
+    private static SagaDefinition createSagaDefinition(final String recoveryPolicy, final ShardingSQLTransaction shardingSQLTransaction) {
         Collection<SagaRequest> sagaRequests = new LinkedList<>();
-        Collection<String> requestIds = new LinkedList<>();
+        List<DataResource> previousResources = new ArrayList<>();
+        Set<String> leafRequestIds = new LinkedHashSet<>();
+        int logicSQLIndex = 0;
         for (LogicSQLTransaction each : shardingSQLTransaction.getLogicSQLTransactions()) {
-            requestIds = addLogicSQLTransactionRequest(new LinkedList<>(requestIds), sagaRequests, each, configuration);
+            addLogicSQLTransactionRequest(logicSQLIndex++, previousResources, leafRequestIds, sagaRequests, each);
         }
         if (RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY.equals(recoveryPolicy)) {
-            sagaRequests.add(newRollbackRequest(new LinkedList<>(requestIds), configuration));
+            sagaRequests.add(newRollbackRequest(new LinkedList<>(leafRequestIds)));
         }
         return new SagaDefinition(recoveryPolicy, sagaRequests);
     }
     
-    private static Collection<String> addLogicSQLTransactionRequest(final Collection<String> parentsIds, final Collection<SagaRequest> sagaRequests,
-                                                                    final LogicSQLTransaction logicSQLTransaction, final SagaConfiguration configuration) {
-        Collection<String> result = new LinkedList<>();
+    private static void addLogicSQLTransactionRequest(final int logicSQLIndex, final List<DataResource> previousResources, final Set<String> leafRequestIds,
+                                                      final Collection<SagaRequest> sagaRequests, final LogicSQLTransaction logicSQLTransaction) {
+        Collection<DataResource> currentResources = new LinkedList<>();
         for (SQLTransaction each : logicSQLTransaction.getSqlTransactions()) {
-            sagaRequests.add(newSagaRequest(parentsIds, each, configuration));
+            DataResource resource = DataResource.newInstance(logicSQLIndex, each);
+            Collection<String> parentsIds = findParentsIds(resource, previousResources);
+            sagaRequests.add(newSagaRequest(parentsIds, each));
+            leafRequestIds.removeAll(parentsIds);
+            leafRequestIds.add(each.getSqlTransactionId());
+            currentResources.add(resource);
+        }
+        previousResources.addAll(currentResources);
+    }
+    
+    private static Collection<String> findParentsIds(final DataResource resource, final List<DataResource> previousResources) {
+        List<DataResource> parents = new LinkedList<>();
+        for (DataResource each : Lists.reverse(previousResources)) {
+            if (resource.isConflicted(each) && !isAncestor(each, parents)) {
+                parents.add(each);
+            }
+        }
+        Collection<String> result = new LinkedList<>();
+        for (DataResource each : Lists.reverse(parents)) {
             result.add(each.getSqlTransactionId());
         }
         return result;
     }
     
-    private static SagaRequest newSagaRequest(final Collection<String> parentsIds, final SQLTransaction sqlTransaction, final SagaConfiguration configuration) {
-        SagaSQLUnit transaction = new SagaSQLUnit(sqlTransaction.getSql(), sqlTransaction.getParameters(), configuration.getTransactionMaxRetries());
-        SagaSQLUnit compensation = new SagaSQLUnit(sqlTransaction.getRevertSQLResult().getSql(), sqlTransaction.getRevertSQLResult().getParameters(), configuration.getCompensationMaxRetries());
-        return new SagaRequest(sqlTransaction.getSqlTransactionId(), sqlTransaction.getDataSourceName(), TYPE, transaction, compensation, parentsIds, configuration.getTransactionRetryDelayMilliseconds());
+    private static boolean isAncestor(final DataResource resource, final Collection<DataResource> parents) {
+        for (DataResource each : parents) {
+            if (each.getLogicSQLIndex() > resource.getLogicSQLIndex() && each.isConflicted(resource)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static SagaRequest newSagaRequest(final Collection<String> parentsIds, final SQLTransaction sqlTransaction) {
+        SagaSQLUnit transaction = new SagaSQLUnit(sqlTransaction.getSql(), sqlTransaction.getParameters(), NO_RETRY);
+        SagaSQLUnit compensation = newCompensation(sqlTransaction.getRevertSQLResult());
+        return new SagaRequest(sqlTransaction.getSqlTransactionId(), sqlTransaction.getDataSourceName(), TYPE, transaction, compensation, parentsIds, NO_RETRY);
+    }
+    
+    private static SagaSQLUnit newCompensation(final RevertSQLResult revertSQLResult) {
+        if (null == revertSQLResult || revertSQLResult.getParameters().isEmpty()) {
+            return new SagaSQLUnit("", Lists.<Collection<Object>>newLinkedList(), NO_RETRY);
+        }
+        return new SagaSQLUnit(revertSQLResult.getSql(), revertSQLResult.getParameters(), NO_RETRY);
     }
     
-    private static SagaRequest newRollbackRequest(final Collection<String> parentsIds, final SagaConfiguration configuration) {
-        SagaSQLUnit transaction = new SagaSQLUnit(ROLLBACK_TAG, Lists.<Collection<Object>>newLinkedList(), configuration.getTransactionMaxRetries());
-        SagaSQLUnit compensation = new SagaSQLUnit(ROLLBACK_TAG, Lists.<Collection<Object>>newLinkedList(), configuration.getCompensationMaxRetries());
-        return new SagaRequest(ROLLBACK_TAG, ROLLBACK_TAG, TYPE, transaction, compensation, parentsIds, configuration.getTransactionRetryDelayMilliseconds());
+    private static SagaRequest newRollbackRequest(final Collection<String> parentsIds) {
+        SagaSQLUnit transaction = new SagaSQLUnit(ROLLBACK_TAG, Lists.<Collection<Object>>newLinkedList(), NO_RETRY);
+        SagaSQLUnit compensation = new SagaSQLUnit(ROLLBACK_TAG, Lists.<Collection<Object>>newLinkedList(), NO_RETRY);
+        return new SagaRequest(ROLLBACK_TAG, ROLLBACK_TAG, TYPE, transaction, compensation, parentsIds, NO_RETRY);
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import com.google.common.base.Optional;
+import org.apache.servicecomb.saga.core.BackwardRecovery;
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.format.JacksonSQLCompensation;
+import org.apache.servicecomb.saga.format.JacksonSQLTransaction;
+import org.apache.servicecomb.saga.format.JsonSQLSagaRequest;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * ServiceComb saga definition, which is built from saga definition in memory without JSON round trip.
+ *
+ * <p>
+ * Failed compensation falls back to {@link CompensationFailedFallback}, so saga fails instead of leaving the SQL transaction unreverted silently.
+ * </p>
+ *
+ * <p>
+ * Compensations of backward recovery saga are scheduled by {@link ParallelCompensator} when compensation executor is given,
+ * otherwise they are run one by one on caller thread by ServiceComb saga.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class ServiceCombSagaDefinition implements org.apache.servicecomb.saga.core.SagaDefinition {
+    
+    private static final RecoveryPolicy FORWARD_RECOVERY = new SingleAttemptForwardRecovery();
+    
+    private static final RecoveryPolicy BACKWARD_RECOVERY = new BackwardRecovery();
+    
+    private final RecoveryPolicy policy;
+    
+    private final org.apache.servicecomb.saga.core.SagaRequest[] requests;
+    
+    public ServiceCombSagaDefinition(final SagaDefinition sagaDefinition, final TransportFactory<SQLTransport> transportFactory) {
+        this(sagaDefinition, transportFactory, Optional.<Executor>absent());
+    }
+    
+    public ServiceCombSagaDefinition(final SagaDefinition sagaDefinition, final TransportFactory<SQLTransport> transportFactory, final Executor compensationExecutor) {
+        this(sagaDefinition, transportFactory, Optional.of(compensationExecutor));
+    }
+    
+    private ServiceCombSagaDefinition(final SagaDefinition sagaDefinition, final TransportFactory<SQLTransport> transportFactory, final Optional<Executor> compensationExecutor) {
+        policy = RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY.equals(sagaDefinition.getPolicy()) ? FORWARD_RECOVERY : BACKWARD_RECOVERY;
+        Optional<ParallelCompensator> compensator = BACKWARD_RECOVERY == policy && compensationExecutor.isPresent()
+            ? Optional.of(new ParallelCompensator(compensationExecutor.get())) : Optional.<ParallelCompensator>absent();
+        requests = new org.apache.servicecomb.saga.core.SagaRequest[sagaDefinition.getRequests().size()];
+        int index = 0;
+        for (SagaRequest each : sagaDefinition.getRequests()) {
+            requests[index++] = newSagaRequest(each, transportFactory, compensator);
+        }
+    }
+    
+    private org.apache.servicecomb.saga.core.SagaRequest newSagaRequest(final SagaRequest sagaRequest, final TransportFactory<SQLTransport> transportFactory,
+                                                                        final Optional<ParallelCompensator> compensator) {
+        JacksonSQLTransaction transaction = new JacksonSQLTransaction(
+            sagaRequest.getTransaction().getRetries(), sagaRequest.getTransaction().getSql(), toStringParameters(sagaRequest.getTransaction().getParams()));
+        JacksonSQLCompensation compensation = newCompensation(sagaRequest, compensator);
+        return new JsonSQLSagaRequest(sagaRequest.getId(), sagaRequest.getDatasource(), sagaRequest.getType(), transaction, compensation, new CompensationFailedFallback(sagaRequest.getId()),
+            sagaRequest.getParents().toArray(new String[0]), sagaRequest.getFailRetryDelayMilliseconds()).with(transportFactory);
+    }
+    
+    private JacksonSQLCompensation newCompensation(final SagaRequest sagaRequest, final Optional<ParallelCompensator> compensator) {
+        String sql = sagaRequest.getCompensation().getSql();
+        List<List<String>> params = toStringParameters(sagaRequest.getCompensation().getParams());
+        int retries = sagaRequest.getCompensation().getRetries();
+        if (!compensator.isPresent() || SagaDefinitionFactory.ROLLBACK_TAG.equals(sagaRequest.getId())) {
+            return new JacksonSQLCompensation(sql, params, retries);
+        }
+        ParallelSQLCompensation result = new ParallelSQLCompensation(sagaRequest.getId(), sql, params, retries, compensator.get());
+        compensator.get().register(sagaRequest.getId(), sagaRequest.getDatasource(), sagaRequest.getParents(), result);
+        return result;
+    }
+    
+    private List<List<String>> toStringParameters(final List<Collection<Object>> parameters) {
+        List<List<String>> result = new ArrayList<>(parameters.size());
+        for (Collection<Object> each : parameters) {
+            List<String> row = new ArrayList<>(each.size());
+            for (Object value : each) {
+                row.add(null == value ? null : value.toString());
+            }
+            result.add(row);
+        }
+        return result;
+    }
+    
+    @Override
+    public RecoveryPolicy policy() {
+        return policy;
+    }
+    
+    @Override
+    public org.apache.servicecomb.saga.core.SagaRequest[] requests() {
+        return requests;
+    }
+}
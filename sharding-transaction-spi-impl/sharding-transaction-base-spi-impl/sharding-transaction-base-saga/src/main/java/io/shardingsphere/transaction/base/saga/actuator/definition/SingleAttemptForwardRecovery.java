@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.core.SagaRequest;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.SagaTask;
+import org.apache.servicecomb.saga.core.TransactionAbortedException;
+
+/**
+ * Forward recovery which sends transaction only once, because retry with backoff is done by saga SQL transport.
+ *
+ * @author zhaojun
+ */
+public final class SingleAttemptForwardRecovery implements RecoveryPolicy {
+    
+    @Override
+    public SagaResponse apply(final SagaTask task, final SagaRequest request, final SagaResponse parentResponse) {
+        try {
+            return request.transaction().send(request.serviceName(), parentResponse);
+        } catch (final Exception ex) {
+            throw new TransactionAbortedException(ex);
+        }
+    }
+    
+    @Override
+    public String description() {
+        return getClass().getSimpleName();
+    }
+}
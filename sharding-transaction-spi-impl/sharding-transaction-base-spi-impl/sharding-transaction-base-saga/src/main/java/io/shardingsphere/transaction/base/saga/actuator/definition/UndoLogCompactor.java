@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import io.shardingsphere.transaction.base.context.ExecuteStatus;
+import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Undo log compactor.
+ *
+ * <p>
+ * Removes revert parameter rows which are redundant for the net effect of rollback:
+ * all reverts of a row inserted in this transaction except the delete of that insert,
+ * every revert of a row inserted and then deleted in this transaction,
+ * and update reverts whose columns are already restored by an earlier update revert of the same row.
+ * Tables whose undo log can not be mapped to rows by primary key are left untouched.
+ * Redundant rows are collected by identity first and removed in one pass over each revert SQL result.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UndoLogCompactor {
+    
+    /**
+     * Compact undo log of sharding SQL transaction.
+     *
+     * @param shardingSQLTransaction sharding SQL transaction
+     */
+    public static void compact(final ShardingSQLTransaction shardingSQLTransaction) {
+        List<SQLTransaction> sqlTransactions = getSQLTransactions(shardingSQLTransaction);
+        Set<String> unsupportedTables = getUnsupportedTables(sqlTransactions);
+        Set<Collection<Object>> redundantRows = Collections.newSetFromMap(new IdentityHashMap<Collection<Object>, Boolean>());
+        for (List<UndoRow> each : groupUndoRows(sqlTransactions, unsupportedTables).values()) {
+            collectRedundantRows(each, redundantRows);
+        }
+        if (redundantRows.isEmpty()) {
+            return;
+        }
+        for (SQLTransaction each : sqlTransactions) {
+            if (null != each.getRevertSQLResult()) {
+                removeRows(each.getRevertSQLResult().getParameters(), redundantRows);
+            }
+        }
+    }
+    
+    private static List<SQLTransaction> getSQLTransactions(final ShardingSQLTransaction shardingSQLTransaction) {
+        List<SQLTransaction> result = new LinkedList<>();
+        for (LogicSQLTransaction each : shardingSQLTransaction.getLogicSQLTransactions()) {
+            result.addAll(each.getSqlTransactions());
+        }
+        return result;
+    }
+    
+    private static Set<String> getUnsupportedTables(final List<SQLTransaction> sqlTransactions) {
+        Set<String> result = new HashSet<>();
+        for (SQLTransaction each : sqlTransactions) {
+            RevertSQLResult revertSQLResult = each.getRevertSQLResult();
+            if (null == revertSQLResult || revertSQLResult.getParameters().isEmpty()) {
+                continue;
+            }
+            if (!revertSQLResult.getMetaData().isPresent()) {
+                result.add(each.getDataSourceName());
+                continue;
+            }
+            RevertSQLMetaData metaData = revertSQLResult.getMetaData().get();
+            if (!ExecuteStatus.SUCCESS.equals(each.getExecuteStatus()) || metaData.isPrimaryKeyChanged()) {
+                result.add(getTableKey(each.getDataSourceName(), metaData.getActualTable()));
+            }
+        }
+        return result;
+    }
+    
+    private static Map<String, List<UndoRow>> groupUndoRows(final List<SQLTransaction> sqlTransactions, final Set<String> unsupportedTables) {
+        Map<String, List<UndoRow>> result = new LinkedHashMap<>();
+        for (SQLTransaction each : sqlTransactions) {
+            if (!isSupported(each, unsupportedTables)) {
+                continue;
+            }
+            RevertSQLMetaData metaData = each.getRevertSQLResult().getMetaData().get();
+            String tableKey = getTableKey(each.getDataSourceName(), metaData.getActualTable());
+            for (Collection<Object> row : each.getRevertSQLResult().getParameters()) {
+                String rowKey = tableKey + metaData.getPrimaryKeyValues(row);
+                if (!result.containsKey(rowKey)) {
+                    result.put(rowKey, new LinkedList<UndoRow>());
+                }
+                result.get(rowKey).add(new UndoRow(row, metaData));
+            }
+        }
+        return result;
+    }
+    
+    private static boolean isSupported(final SQLTransaction sqlTransaction, final Set<String> unsupportedTables) {
+        RevertSQLResult revertSQLResult = sqlTransaction.getRevertSQLResult();
+        if (null == revertSQLResult || !revertSQLResult.getMetaData().isPresent() || unsupportedTables.contains(sqlTransaction.getDataSourceName())) {
+            return false;
+        }
+        return !unsupportedTables.contains(getTableKey(sqlTransaction.getDataSourceName(), revertSQLResult.getMetaData().get().getActualTable()));
+    }
+    
+    private static String getTableKey(final String dataSourceName, final String actualTable) {
+        return dataSourceName + "." + actualTable;
+    }
+    
+    private static void collectRedundantRows(final List<UndoRow> undoRows, final Set<Collection<Object>> redundantRows) {
+        if (DMLType.INSERT == undoRows.get(0).getMetaData().getDmlType()) {
+            boolean deleted = DMLType.DELETE == undoRows.get(undoRows.size() - 1).getMetaData().getDmlType();
+            addRows(deleted ? undoRows : undoRows.subList(1, undoRows.size()), redundantRows);
+        } else if (isAllUpdate(undoRows)) {
+            collectOverwrittenUpdateRows(undoRows, redundantRows);
+        }
+    }
+    
+    private static boolean isAllUpdate(final List<UndoRow> undoRows) {
+        for (UndoRow each : undoRows) {
+            if (DMLType.UPDATE != each.getMetaData().getDmlType()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void collectOverwrittenUpdateRows(final List<UndoRow> undoRows, final Set<Collection<Object>> redundantRows) {
+        Set<String> revertedColumns = new HashSet<>();
+        for (UndoRow each : undoRows) {
+            Set<String> columns = new HashSet<>();
+            for (String column : each.getMetaData().getRevertColumns()) {
+                columns.add(column.toLowerCase());
+            }
+            if (revertedColumns.containsAll(columns)) {
+                redundantRows.add(each.getRow());
+            } else {
+                revertedColumns.addAll(columns);
+            }
+        }
+    }
+    
+    private static void addRows(final Collection<UndoRow> undoRows, final Set<Collection<Object>> redundantRows) {
+        for (UndoRow each : undoRows) {
+            redundantRows.add(each.getRow());
+        }
+    }
+    
+    private static void removeRows(final List<Collection<Object>> parameters, final Set<Collection<Object>> redundantRows) {
+        Iterator<Collection<Object>> iterator = parameters.iterator();
+        while (iterator.hasNext()) {
+            if (redundantRows.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    @RequiredArgsConstructor
+    @Getter
+    private static final class UndoRow {
+        
+        private final Collection<Object> row;
+        
+        private final RevertSQLMetaData metaData;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue executor service provider.
+ *
+ * <p>
+ * Tasks exceed the queue are run by caller thread, which slows down the caller instead of piling up tasks.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Getter
+@Setter
+public final class BoundedQueueExecutorServiceProvider implements SagaExecutorServiceProvider {
+    
+    private Properties properties = new Properties();
+    
+    @Override
+    public String getType() {
+        return "BOUNDED_QUEUE";
+    }
+    
+    @Override
+    public ExecutorService newExecutorService(final int executorSize, final int queueSize, final ThreadFactory threadFactory) {
+        ThreadPoolExecutor result = new ThreadPoolExecutor(executorSize, executorSize, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(queueSize), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+}
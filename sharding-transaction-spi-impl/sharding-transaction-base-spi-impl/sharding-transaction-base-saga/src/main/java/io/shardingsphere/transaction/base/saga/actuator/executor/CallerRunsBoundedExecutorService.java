@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import io.shardingsphere.transaction.base.utils.ResizableSemaphore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service which limits pending tasks of delegate, and runs task in caller thread when limit is reached.
+ *
+ * <p>
+ * The limit can be changed at runtime, shrinking it lets tasks already submitted finish and takes back their permits on release.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class CallerRunsBoundedExecutorService extends AbstractExecutorService {
+    
+    @Getter(AccessLevel.PACKAGE)
+    private final ExecutorService delegate;
+    
+    private final ResizableSemaphore permits;
+    
+    @Getter
+    private int maxPendingTasks;
+    
+    public CallerRunsBoundedExecutorService(final ExecutorService delegate, final int maxPendingTasks) {
+        this.delegate = delegate;
+        this.maxPendingTasks = maxPendingTasks;
+        permits = new ResizableSemaphore(maxPendingTasks);
+    }
+    
+    /**
+     * Set max pending tasks of delegate.
+     *
+     * @param maxPendingTasks max pending tasks
+     */
+    public synchronized void setMaxPendingTasks(final int maxPendingTasks) {
+        permits.resize(maxPendingTasks - this.maxPendingTasks);
+        this.maxPendingTasks = maxPendingTasks;
+    }
+    
+    @Override
+    public void execute(final Runnable command) {
+        if (!permits.tryAcquire()) {
+            command.run();
+            return;
+        }
+        try {
+            delegate.execute(new PermitReleasingRunnable(command));
+        } catch (final RejectedExecutionException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+    
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+    
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+    
+    @RequiredArgsConstructor
+    private final class PermitReleasingRunnable implements Runnable {
+        
+        private final Runnable command;
+        
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import com.google.common.base.Optional;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instrumented executor service, which exposes queue depth, active count and task latency of saga executor.
+ *
+ * <p>
+ * Task latency is measured from submission to completion, so it contains the waiting time in queue.
+ * Pool size can be changed at runtime only when saga executor is backed by thread pool executor, and the pending task limit of caller runs executor follows the change.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+public final class InstrumentedExecutorService extends AbstractExecutorService {
+    
+    private final ExecutorService delegate;
+    
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    
+    private final AtomicInteger activeCount = new AtomicInteger();
+    
+    private final AtomicLong completedTaskCount = new AtomicLong();
+    
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    
+    @Override
+    public void execute(final Runnable command) {
+        queueDepth.incrementAndGet();
+        try {
+            delegate.execute(new InstrumentedRunnable(command, System.nanoTime()));
+        } catch (final RejectedExecutionException ex) {
+            queueDepth.decrementAndGet();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Get count of tasks waiting for execution.
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+    
+    /**
+     * Get count of tasks in execution.
+     *
+     * @return active count
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+    
+    /**
+     * Get count of completed tasks.
+     *
+     * @return completed task count
+     */
+    public long getCompletedTaskCount() {
+        return completedTaskCount.get();
+    }
+    
+    /**
+     * Get average latency of completed tasks.
+     *
+     * @return average task latency in milliseconds
+     */
+    public long getAverageTaskLatencyMilliseconds() {
+        long completed = completedTaskCount.get();
+        return 0 == completed ? 0L : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / completed);
+    }
+    
+    /**
+     * Get total latency of completed tasks.
+     *
+     * @return total task latency in milliseconds
+     */
+    public long getTotalTaskLatencyMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get());
+    }
+    
+    /**
+     * Get pool size of saga executor.
+     *
+     * @return pool size, absent if saga executor is not backed by thread pool executor
+     */
+    public Optional<Integer> getPoolSize() {
+        Optional<ThreadPoolExecutor> threadPoolExecutor = findThreadPoolExecutor();
+        return threadPoolExecutor.isPresent() ? Optional.of(threadPoolExecutor.get().getMaximumPoolSize()) : Optional.<Integer>absent();
+    }
+    
+    /**
+     * Set pool size of saga executor.
+     *
+     * @param poolSize pool size
+     * @return true if pool size is set, false if saga executor is not backed by thread pool executor
+     */
+    public boolean setPoolSize(final int poolSize) {
+        Optional<ThreadPoolExecutor> threadPoolExecutor = findThreadPoolExecutor();
+        if (!threadPoolExecutor.isPresent()) {
+            return false;
+        }
+        synchronized (threadPoolExecutor.get()) {
+            if (delegate instanceof CallerRunsBoundedExecutorService) {
+                CallerRunsBoundedExecutorService callerRunsExecutorService = (CallerRunsBoundedExecutorService) delegate;
+                callerRunsExecutorService.setMaxPendingTasks(callerRunsExecutorService.getMaxPendingTasks() + poolSize - threadPoolExecutor.get().getMaximumPoolSize());
+            }
+            if (poolSize > threadPoolExecutor.get().getMaximumPoolSize()) {
+                threadPoolExecutor.get().setMaximumPoolSize(poolSize);
+                threadPoolExecutor.get().setCorePoolSize(poolSize);
+            } else {
+                threadPoolExecutor.get().setCorePoolSize(poolSize);
+                threadPoolExecutor.get().setMaximumPoolSize(poolSize);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Start all core threads of saga executor.
+     *
+     * @return count of started threads, 0 if saga executor is not backed by thread pool executor
+     */
+    public int prestartAllCoreThreads() {
+        Optional<ThreadPoolExecutor> threadPoolExecutor = findThreadPoolExecutor();
+        return threadPoolExecutor.isPresent() ? threadPoolExecutor.get().prestartAllCoreThreads() : 0;
+    }
+    
+    private Optional<ThreadPoolExecutor> findThreadPoolExecutor() {
+        ExecutorService executorService = delegate instanceof CallerRunsBoundedExecutorService ? ((CallerRunsBoundedExecutorService) delegate).getDelegate() : delegate;
+        return executorService instanceof ThreadPoolExecutor ? Optional.of((ThreadPoolExecutor) executorService) : Optional.<ThreadPoolExecutor>absent();
+    }
+    
+    /**
+     * Get max latency of completed tasks.
+     *
+     * @return max task latency in milliseconds
+     */
+    public long getMaxTaskLatencyMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+    
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+    
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+    
+    private void recordLatency(final long latencyNanos) {
+        totalLatencyNanos.addAndGet(latencyNanos);
+        long currentMax = maxLatencyNanos.get();
+        while (latencyNanos > currentMax && !maxLatencyNanos.compareAndSet(currentMax, latencyNanos)) {
+            currentMax = maxLatencyNanos.get();
+        }
+        completedTaskCount.incrementAndGet();
+    }
+    
+    @RequiredArgsConstructor
+    private final class InstrumentedRunnable implements Runnable {
+        
+        private final Runnable command;
+        
+        private final long submitNanos;
+        
+        @Override
+        public void run() {
+            queueDepth.decrementAndGet();
+            activeCount.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                activeCount.decrementAndGet();
+                recordLatency(System.nanoTime() - submitNanos);
+            }
+        }
+    }
+}
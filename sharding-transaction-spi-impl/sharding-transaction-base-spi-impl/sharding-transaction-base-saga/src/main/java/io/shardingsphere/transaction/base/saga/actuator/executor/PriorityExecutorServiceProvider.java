@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Priority executor service provider.
+ *
+ * <p>
+ * Waiting tasks are ordered by priority of saga which submits them, and each lower priority adds aging time to the order,
+ * so a waiting task of low priority is run before any task submitted after it waits long enough.
+ * Priority queue has no bound itself, so tasks exceed executor size plus queue size are run by caller thread.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Getter
+@Setter
+public final class PriorityExecutorServiceProvider implements SagaExecutorServiceProvider {
+    
+    public static final String AGING_MILLISECONDS = "aging.milliseconds";
+    
+    private static final String DEFAULT_AGING_MILLISECONDS = "1000";
+    
+    private Properties properties = new Properties();
+    
+    @Override
+    public String getType() {
+        return "PRIORITY";
+    }
+    
+    @Override
+    public ExecutorService newExecutorService(final int executorSize, final int queueSize, final ThreadFactory threadFactory) {
+        long agingMilliseconds = Long.parseLong(properties.getProperty(AGING_MILLISECONDS, DEFAULT_AGING_MILLISECONDS));
+        return new CallerRunsBoundedExecutorService(new PriorityThreadPoolExecutor(executorSize, agingMilliseconds, threadFactory), executorSize + queueSize);
+    }
+}
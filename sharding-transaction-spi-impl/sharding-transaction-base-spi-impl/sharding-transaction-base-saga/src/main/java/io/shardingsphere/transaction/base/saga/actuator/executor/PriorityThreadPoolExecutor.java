@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread pool executor which runs waiting tasks in order of saga priority with aging.
+ *
+ * <p>
+ * Order of task is fixed when it is submitted: submit time plus aging time for each level below highest priority,
+ * tasks with the same order are run in submission order.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+    
+    private final long agingNanos;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public PriorityThreadPoolExecutor(final int executorSize, final long agingMilliseconds, final ThreadFactory threadFactory) {
+        super(executorSize, executorSize, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), threadFactory);
+        agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMilliseconds);
+        allowCoreThreadTimeOut(true);
+    }
+    
+    @Override
+    public void execute(final Runnable command) {
+        super.execute(command instanceof PrioritizedRunnable ? command : new PrioritizedRunnable(command, SagaPriorityHolder.get()));
+    }
+    
+    private final class PrioritizedRunnable implements Runnable, Comparable<PrioritizedRunnable> {
+        
+        private final Runnable command;
+        
+        private final long order;
+        
+        private final long sequenceNumber;
+        
+        PrioritizedRunnable(final Runnable command, final SagaPriority priority) {
+            this.command = command;
+            order = System.nanoTime() + priority.ordinal() * agingNanos;
+            sequenceNumber = sequence.getAndIncrement();
+        }
+        
+        @Override
+        public void run() {
+            command.run();
+        }
+        
+        @Override
+        public int compareTo(final PrioritizedRunnable other) {
+            if (order != other.order) {
+                return order - other.order < 0 ? -1 : 1;
+            }
+            return sequenceNumber < other.sequenceNumber ? -1 : (sequenceNumber == other.sequenceNumber ? 0 : 1);
+        }
+    }
+}
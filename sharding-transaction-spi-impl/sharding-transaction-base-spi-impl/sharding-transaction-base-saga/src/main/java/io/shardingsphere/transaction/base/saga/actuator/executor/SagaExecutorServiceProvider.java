@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import org.apache.shardingsphere.spi.TypeBasedSPI;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Saga executor service provider, which creates executor service for saga actuator.
+ *
+ * @author zhaojun
+ */
+public interface SagaExecutorServiceProvider extends TypeBasedSPI {
+    
+    /**
+     * New executor service.
+     *
+     * @param executorSize max thread count of executor
+     * @param queueSize max count of tasks waiting for execution
+     * @param threadFactory thread factory
+     * @return executor service
+     */
+    ExecutorService newExecutorService(int executorSize, int queueSize, ThreadFactory threadFactory);
+}
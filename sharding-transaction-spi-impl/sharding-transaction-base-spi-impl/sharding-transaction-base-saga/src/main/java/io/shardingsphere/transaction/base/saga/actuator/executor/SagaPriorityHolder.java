@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saga priority holder, which holds priority of sagas begun or run by current thread.
+ *
+ * @author zhaojun
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SagaPriorityHolder {
+    
+    private static final ThreadLocal<SagaPriority> CONTEXT = new ThreadLocal<SagaPriority>() {
+        
+        @Override
+        protected SagaPriority initialValue() {
+            return SagaPriority.NORMAL;
+        }
+    };
+    
+    /**
+     * Get saga priority of current thread.
+     *
+     * @return saga priority
+     */
+    public static SagaPriority get() {
+        return CONTEXT.get();
+    }
+    
+    /**
+     * Set saga priority of current thread.
+     *
+     * @param priority saga priority
+     */
+    public static void set(final SagaPriority priority) {
+        CONTEXT.set(priority);
+    }
+    
+    /**
+     * Clear saga priority of current thread.
+     */
+    public static void clear() {
+        CONTEXT.remove();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work stealing executor service provider.
+ *
+ * <p>
+ * Work stealing pool has no queue bound itself, so tasks exceed executor size plus queue size are run by caller thread.
+ * Fork join pool only accepts worker thread factory, so given thread factory is not used, and worker threads are daemon threads named by sequence of the pool.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Getter
+@Setter
+public final class WorkStealingExecutorServiceProvider implements SagaExecutorServiceProvider {
+    
+    private Properties properties = new Properties();
+    
+    @Override
+    public String getType() {
+        return "WORK_STEALING";
+    }
+    
+    @Override
+    public ExecutorService newExecutorService(final int executorSize, final int queueSize, final ThreadFactory threadFactory) {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(executorSize, new NamedForkJoinWorkerThreadFactory(), null, true);
+        return new CallerRunsBoundedExecutorService(forkJoinPool, executorSize + queueSize);
+    }
+    
+    private static final class NamedForkJoinWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        
+        private static final String NAME_FORMAT = "ShardingSphere-Saga-WorkStealing-%d";
+        
+        private final AtomicInteger sequence = new AtomicInteger();
+        
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+            ForkJoinWorkerThread result = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            result.setName(String.format(NAME_FORMAT, sequence.getAndIncrement()));
+            result.setDaemon(true);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compensation connection manager of one saga, which borrows connections from pool of data source on demand.
+ *
+ * <p>
+ * Connection cached by the transaction is lent first when it is still open, so rollback does not need another connection of pool.
+ * Other connections are borrowed from pool only when the cached connection is absent, closed or lent to another branch.
+ * </p>
+ *
+ * <p>
+ * Connections borrowed by the saga are kept idle after released and reused by later requests of the same saga,
+ * they are returned to pool when the manager is closed.
+ * Each data source allows at most max connections borrowed at the same time, others wait until timeout.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Slf4j
+public final class CompensationConnectionManager {
+    
+    private final Map<String, DataSource> dataSourceMap;
+    
+    private final int maxConnections;
+    
+    private final long borrowTimeoutMilliseconds;
+    
+    private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<String, Queue<Connection>> idleConnections = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<String, Connection> lentCachedConnections = new ConcurrentHashMap<>();
+    
+    private final AtomicLong borrowCount = new AtomicLong();
+    
+    private final AtomicLong totalBorrowWaitNanos = new AtomicLong();
+    
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    
+    private volatile boolean closed;
+    
+    public CompensationConnectionManager(final Map<String, DataSource> dataSourceMap, final int maxConnections, final long borrowTimeoutMilliseconds) {
+        this.dataSourceMap = dataSourceMap;
+        this.maxConnections = Math.max(maxConnections, 1);
+        this.borrowTimeoutMilliseconds = borrowTimeoutMilliseconds;
+    }
+    
+    /**
+     * Borrow connection of data source, lend the connection cached by transaction first if it is open and not lent.
+     *
+     * @param dataSourceName data source name
+     * @param cachedConnection connection cached by transaction, may be null
+     * @return connection
+     * @throws TransportFailedException transport failed exception when data source is absent, no connection is available before timeout or get connection failed
+     */
+    public Connection borrow(final String dataSourceName, final Connection cachedConnection) {
+        if (null != cachedConnection && !closed && isValid(cachedConnection) && null == lentCachedConnections.putIfAbsent(dataSourceName, cachedConnection)) {
+            return cachedConnection;
+        }
+        return borrow(dataSourceName);
+    }
+    
+    /**
+     * Borrow connection of data source.
+     *
+     * @param dataSourceName data source name
+     * @return connection
+     * @throws TransportFailedException transport failed exception when data source is absent, no connection is available before timeout or get connection failed
+     */
+    public Connection borrow(final String dataSourceName) {
+        DataSource dataSource = dataSourceMap.get(dataSourceName);
+        if (null == dataSource || closed) {
+            throw new TransportFailedException(String.format("Can not borrow compensation connection of data source `%s`", dataSourceName));
+        }
+        acquirePermit(dataSourceName);
+        Connection result = getIdleConnections(dataSourceName).poll();
+        if (null != result) {
+            return result;
+        }
+        try {
+            return dataSource.getConnection();
+        } catch (final SQLException ex) {
+            getPermits(dataSourceName).release();
+            throw new TransportFailedException(String.format("Get connection of data source name `%s` occur exception: ", dataSourceName), ex);
+        }
+    }
+    
+    private void acquirePermit(final String dataSourceName) {
+        long startNanos = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = getPermits(dataSourceName).tryAcquire(borrowTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TransportFailedException(String.format("Interrupted while borrowing compensation connection of data source `%s`", dataSourceName), ex);
+        }
+        recordBorrowWait(System.nanoTime() - startNanos);
+        if (!acquired) {
+            throw new TransportFailedException(String.format("Borrow compensation connection of data source `%s` timeout, max connections is %d", dataSourceName, maxConnections));
+        }
+    }
+    
+    private void recordBorrowWait(final long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalBorrowWaitNanos.addAndGet(waitNanos);
+        long max = maxBorrowWaitNanos.get();
+        while (waitNanos > max && !maxBorrowWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxBorrowWaitNanos.get();
+        }
+    }
+    
+    /**
+     * Release connection borrowed before.
+     *
+     * @param dataSourceName data source name
+     * @param connection connection
+     */
+    public void release(final String dataSourceName, final Connection connection) {
+        if (connection == lentCachedConnections.get(dataSourceName)) {
+            lentCachedConnections.remove(dataSourceName);
+            return;
+        }
+        if (closed || !isValid(connection)) {
+            closeQuietly(connection);
+        } else {
+            getIdleConnections(dataSourceName).offer(connection);
+        }
+        getPermits(dataSourceName).release();
+    }
+    
+    private boolean isValid(final Connection connection) {
+        try {
+            return !connection.isClosed();
+        } catch (final SQLException ignored) {
+            return false;
+        }
+    }
+    
+    private Semaphore getPermits(final String dataSourceName) {
+        Semaphore result = permits.get(dataSourceName);
+        if (null == result) {
+            permits.putIfAbsent(dataSourceName, new Semaphore(maxConnections));
+            result = permits.get(dataSourceName);
+        }
+        return result;
+    }
+    
+    private Queue<Connection> getIdleConnections(final String dataSourceName) {
+        Queue<Connection> result = idleConnections.get(dataSourceName);
+        if (null == result) {
+            idleConnections.putIfAbsent(dataSourceName, new ConcurrentLinkedQueue<Connection>());
+            result = idleConnections.get(dataSourceName);
+        }
+        return result;
+    }
+    
+    /**
+     * Get count of borrow.
+     *
+     * @return count of borrow
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+    
+    /**
+     * Get average borrow wait time.
+     *
+     * @return average borrow wait milliseconds
+     */
+    public double getAverageBorrowWaitMilliseconds() {
+        long count = borrowCount.get();
+        return 0 == count ? 0D : totalBorrowWaitNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    /**
+     * Get max borrow wait time.
+     *
+     * @return max borrow wait milliseconds
+     */
+    public long getMaxBorrowWaitMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(maxBorrowWaitNanos.get());
+    }
+    
+    /**
+     * Close manager and return idle connections to pool.
+     */
+    public void close() {
+        closed = true;
+        for (Queue<Connection> each : idleConnections.values()) {
+            Connection connection = each.poll();
+            while (null != connection) {
+                closeQuietly(connection);
+                connection = each.poll();
+            }
+        }
+        if (borrowCount.get() > 0) {
+            log.debug("Compensation connections borrowed {} times, average wait {} ms, max wait {} ms", borrowCount.get(), getAverageBorrowWaitMilliseconds(), getMaxBorrowWaitMilliseconds());
+        }
+    }
+    
+    private void closeQuietly(final Connection connection) {
+        try {
+            connection.close();
+        } catch (final SQLException ex) {
+            log.warn("Close compensation connection failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import io.shardingsphere.transaction.base.utils.ResizableSemaphore;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data source bulkhead, which limits concurrent SQL execution of saga for each data source.
+ *
+ * <p>
+ * Execution waits for permit until timeout and then fails, so the request is retried by saga later,
+ * and a slow data source can not hold all saga threads.
+ * </p>
+ *
+ * <p>
+ * Reloading resizes permits of each data source in place, so permits held by in-flight executions stay valid.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class DataSourceBulkhead {
+    
+    private final ConcurrentMap<String, ResizableSemaphore> permits = new ConcurrentHashMap<>();
+    
+    private volatile int maxConcurrency;
+    
+    private volatile long acquireTimeoutMilliseconds;
+    
+    public DataSourceBulkhead(final SagaConfiguration sagaConfiguration) {
+        this(getMaxConcurrency(sagaConfiguration), sagaConfiguration.getDataSourceAcquireTimeoutMilliseconds());
+    }
+    
+    public DataSourceBulkhead(final int maxConcurrency, final long acquireTimeoutMilliseconds) {
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMilliseconds = acquireTimeoutMilliseconds;
+    }
+    
+    /**
+     * Reload max concurrency and acquire timeout from saga configuration.
+     *
+     * @param sagaConfiguration saga configuration
+     */
+    public synchronized void reload(final SagaConfiguration sagaConfiguration) {
+        int maxConcurrency = getMaxConcurrency(sagaConfiguration);
+        for (ResizableSemaphore each : permits.values()) {
+            each.resize(maxConcurrency - this.maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        acquireTimeoutMilliseconds = sagaConfiguration.getDataSourceAcquireTimeoutMilliseconds();
+    }
+    
+    private static int getMaxConcurrency(final SagaConfiguration sagaConfiguration) {
+        if (sagaConfiguration.getDataSourceMaxConcurrency() > 0) {
+            return sagaConfiguration.getDataSourceMaxConcurrency();
+        }
+        int executorSize = sagaConfiguration.getExecutorSize() > 0 ? sagaConfiguration.getExecutorSize() : Runtime.getRuntime().availableProcessors() * 2;
+        return Math.max(executorSize / 2, 1);
+    }
+    
+    /**
+     * Acquire permit of data source.
+     *
+     * @param dataSourceName data source name
+     * @throws TransportFailedException transport failed exception when no permit is available before timeout
+     */
+    public void acquire(final String dataSourceName) {
+        boolean acquired;
+        try {
+            acquired = getPermits(dataSourceName).tryAcquire(acquireTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TransportFailedException(String.format("Interrupted while waiting for bulkhead of data source `%s`", dataSourceName), ex);
+        }
+        if (!acquired) {
+            throw new TransportFailedException(String.format("Bulkhead of data source `%s` is full, max concurrency is %d", dataSourceName, maxConcurrency));
+        }
+    }
+    
+    /**
+     * Release permit of data source.
+     *
+     * @param dataSourceName data source name
+     */
+    public void release(final String dataSourceName) {
+        getPermits(dataSourceName).release();
+    }
+    
+    /**
+     * Get available permits of data source.
+     *
+     * @param dataSourceName data source name
+     * @return available permits
+     */
+    public int getAvailablePermits(final String dataSourceName) {
+        return getPermits(dataSourceName).availablePermits();
+    }
+    
+    private ResizableSemaphore getPermits(final String dataSourceName) {
+        ResizableSemaphore result = permits.get(dataSourceName);
+        return null == result ? createPermits(dataSourceName) : result;
+    }
+    
+    private synchronized ResizableSemaphore createPermits(final String dataSourceName) {
+        permits.putIfAbsent(dataSourceName, new ResizableSemaphore(maxConcurrency));
+        return permits.get(dataSourceName);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data source circuit breaker.
+ *
+ * <p>
+ * Circuit of data source opens after continuous unavailable failures reach threshold, and SQL fails fast while it is open.
+ * After open duration one probe is allowed, the circuit closes when probe succeeds and opens again when it fails.
+ * Other errors are neutral, they neither reset continuous failures nor close the circuit, but release the probe so another one is allowed.
+ * Non-positive failure threshold disables circuit breaker.
+ * </p>
+ *
+ * <p>
+ * Executions and failures of each data source are counted even if circuit breaker is disabled, and drained as error rates by saga auto tuner.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class DataSourceCircuitBreaker {
+    
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+    
+    private volatile int failureThreshold;
+    
+    private volatile long openMilliseconds;
+    
+    public DataSourceCircuitBreaker(final SagaConfiguration sagaConfiguration) {
+        this(sagaConfiguration.getCircuitBreakerFailureThreshold(), sagaConfiguration.getCircuitBreakerOpenMilliseconds());
+    }
+    
+    public DataSourceCircuitBreaker(final int failureThreshold, final long openMilliseconds) {
+        this.failureThreshold = failureThreshold;
+        this.openMilliseconds = openMilliseconds;
+    }
+    
+    /**
+     * Reload failure threshold and open duration from saga configuration, state of circuits is kept.
+     *
+     * @param sagaConfiguration saga configuration
+     */
+    public void reload(final SagaConfiguration sagaConfiguration) {
+        failureThreshold = sagaConfiguration.getCircuitBreakerFailureThreshold();
+        openMilliseconds = sagaConfiguration.getCircuitBreakerOpenMilliseconds();
+    }
+    
+    /**
+     * Acquire execution of data source.
+     *
+     * @param dataSourceName data source name
+     * @throws DataSourceUnavailableException data source unavailable exception when circuit is open
+     */
+    public void acquire(final String dataSourceName) {
+        if (failureThreshold > 0 && !getCircuit(dataSourceName).tryAcquire()) {
+            throw new DataSourceUnavailableException(dataSourceName);
+        }
+    }
+    
+    /**
+     * Record success of data source.
+     *
+     * @param dataSourceName data source name
+     */
+    public void onSuccess(final String dataSourceName) {
+        getCircuit(dataSourceName).executions.incrementAndGet();
+        if (failureThreshold > 0) {
+            getCircuit(dataSourceName).close();
+        }
+    }
+    
+    /**
+     * Record failure of data source.
+     *
+     * @param dataSourceName data source name
+     * @param errorType error type
+     */
+    public void onFailure(final String dataSourceName, final SQLErrorType errorType) {
+        getCircuit(dataSourceName).executions.incrementAndGet();
+        getCircuit(dataSourceName).failures.incrementAndGet();
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (SQLErrorType.UNAVAILABLE == errorType) {
+            getCircuit(dataSourceName).recordFailure();
+        } else {
+            getCircuit(dataSourceName).releaseProbe();
+        }
+    }
+    
+    /**
+     * Whether circuit of data source is open or not.
+     *
+     * @param dataSourceName data source name
+     * @return open or not
+     */
+    public boolean isOpen(final String dataSourceName) {
+        return failureThreshold > 0 && getCircuit(dataSourceName).isOpen();
+    }
+    
+    /**
+     * Get remaining time before probe of data source is allowed.
+     *
+     * @param dataSourceName data source name
+     * @return remaining milliseconds, 0 if circuit is closed or probe is allowed
+     */
+    public long getRemainingOpenMilliseconds(final String dataSourceName) {
+        return failureThreshold > 0 ? getCircuit(dataSourceName).getRemainingOpenMilliseconds() : 0L;
+    }
+    
+    /**
+     * Drain error rates of data sources since last drain.
+     *
+     * @param minExecutions min executions of data source to drain its error rate, executions below it are kept for next drain
+     * @return error rates of data sources which have enough executions since last drain
+     */
+    public Map<String, Double> drainErrorRates(final long minExecutions) {
+        Map<String, Double> result = new HashMap<>(circuits.size(), 1);
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            long executions = entry.getValue().executions.get();
+            if (executions <= 0 || executions < minExecutions) {
+                continue;
+            }
+            long failures = entry.getValue().failures.get();
+            entry.getValue().executions.addAndGet(-executions);
+            entry.getValue().failures.addAndGet(-failures);
+            result.put(entry.getKey(), (double) Math.min(failures, executions) / executions);
+        }
+        return result;
+    }
+    
+    private Circuit getCircuit(final String dataSourceName) {
+        Circuit result = circuits.get(dataSourceName);
+        if (null == result) {
+            circuits.putIfAbsent(dataSourceName, new Circuit());
+            result = circuits.get(dataSourceName);
+        }
+        return result;
+    }
+    
+    private final class Circuit {
+        
+        private final AtomicLong executions = new AtomicLong();
+        
+        private final AtomicLong failures = new AtomicLong();
+        
+        private int continuousFailures;
+        
+        private long openedAt = -1L;
+        
+        private boolean probing;
+        
+        synchronized boolean tryAcquire() {
+            if (openedAt < 0) {
+                return true;
+            }
+            if (probing || System.currentTimeMillis() - openedAt < openMilliseconds) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+        
+        synchronized void close() {
+            continuousFailures = 0;
+            openedAt = -1L;
+            probing = false;
+        }
+        
+        synchronized void releaseProbe() {
+            probing = false;
+        }
+        
+        synchronized void recordFailure() {
+            continuousFailures++;
+            if (probing || continuousFailures >= failureThreshold) {
+                openedAt = System.currentTimeMillis();
+                probing = false;
+            }
+        }
+        
+        synchronized long getRemainingOpenMilliseconds() {
+            return openedAt < 0 ? 0L : Math.max(openedAt + openMilliseconds - System.currentTimeMillis(), 0L);
+        }
+        
+        synchronized boolean isOpen() {
+            return openedAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLInvalidAuthorizationSpecException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+
+/**
+ * SQL error type, which decides how failed saga SQL is retried.
+ *
+ * @author zhaojun
+ */
+public enum SQLErrorType {
+    
+    /**
+     * Lock conflict such as deadlock or lock wait timeout, retry soon.
+     */
+    TRANSIENT(true),
+    
+    /**
+     * Data source is unreachable or does not respond, retry with backoff and count for circuit breaker.
+     */
+    UNAVAILABLE(true),
+    
+    /**
+     * Error of SQL or data itself, retry can not help.
+     */
+    NON_RETRYABLE(false),
+    
+    /**
+     * Other errors, retry with backoff.
+     */
+    UNKNOWN(true);
+    
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    
+    private static final int MYSQL_DEADLOCK = 1213;
+    
+    private final boolean retryable;
+    
+    SQLErrorType(final boolean retryable) {
+        this.retryable = retryable;
+    }
+    
+    /**
+     * Whether error is retryable or not.
+     *
+     * @return retryable or not
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+    
+    /**
+     * Get error type of exception.
+     *
+     * @param throwable exception thrown by saga transport
+     * @return SQL error type
+     */
+    public static SQLErrorType of(final Throwable throwable) {
+        if (throwable instanceof DataSourceUnavailableException) {
+            return UNAVAILABLE;
+        }
+        Throwable cause = throwable;
+        while (null != cause && !(cause instanceof SQLException)) {
+            cause = cause.getCause();
+        }
+        return null == cause ? UNKNOWN : of((SQLException) cause);
+    }
+    
+    private static SQLErrorType of(final SQLException ex) {
+        if (ex instanceof SQLNonTransientConnectionException || ex instanceof SQLTransientConnectionException
+            || ex instanceof SQLRecoverableException || ex instanceof SQLTimeoutException || isSQLStateClass(ex, "08")) {
+            return UNAVAILABLE;
+        }
+        if (ex instanceof SQLTransientException || isSQLStateClass(ex, "40") || MYSQL_LOCK_WAIT_TIMEOUT == ex.getErrorCode() || MYSQL_DEADLOCK == ex.getErrorCode()) {
+            return TRANSIENT;
+        }
+        if (ex instanceof SQLSyntaxErrorException || ex instanceof SQLIntegrityConstraintViolationException || ex instanceof SQLDataException
+            || ex instanceof SQLFeatureNotSupportedException || ex instanceof SQLInvalidAuthorizationSpecException
+            || isSQLStateClass(ex, "42") || isSQLStateClass(ex, "22") || isSQLStateClass(ex, "23")) {
+            return NON_RETRYABLE;
+        }
+        return UNKNOWN;
+    }
+    
+    private static boolean isSQLStateClass(final SQLException ex, final String sqlStateClass) {
+        return null != ex.getSQLState() && ex.getSQLState().startsWith(sqlStateClass);
+    }
+}
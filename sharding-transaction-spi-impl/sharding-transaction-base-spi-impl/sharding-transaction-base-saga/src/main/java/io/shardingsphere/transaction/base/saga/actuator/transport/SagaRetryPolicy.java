@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.Random;
+
+/**
+ * Saga retry policy, exponential backoff with jitter depends on SQL error type.
+ *
+ * <p>
+ * Delay of attempt n is half of base delay * 2^n plus a random part of the other half, and is limited by max delay.
+ * Transient error uses its own short base delay.
+ * Delay factor scales base delay at runtime, and is adjusted by saga auto tuner.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@RequiredArgsConstructor
+public final class SagaRetryPolicy {
+    
+    private static final int MAX_SHIFT = 30;
+    
+    private final long transientRetryDelayMilliseconds;
+    
+    private final long maxRetryDelayMilliseconds;
+    
+    private final Random random;
+    
+    @Getter
+    @Setter
+    private volatile double delayFactor = 1D;
+    
+    public SagaRetryPolicy(final SagaConfiguration sagaConfiguration) {
+        this(sagaConfiguration.getTransientRetryDelayMilliseconds(), sagaConfiguration.getMaxRetryDelayMilliseconds(), new Random());
+    }
+    
+    /**
+     * Get delay before next attempt.
+     *
+     * @param attempt count of failed attempts before, start from 0
+     * @param errorType error type of last attempt
+     * @param baseDelayMilliseconds base delay
+     * @return delay milliseconds
+     */
+    public long getDelayMilliseconds(final int attempt, final SQLErrorType errorType, final long baseDelayMilliseconds) {
+        long base = (long) ((SQLErrorType.TRANSIENT == errorType ? transientRetryDelayMilliseconds : baseDelayMilliseconds) * delayFactor);
+        if (base <= 0) {
+            return 0L;
+        }
+        int shift = Math.min(attempt, MAX_SHIFT);
+        long delay = base > maxRetryDelayMilliseconds >> shift ? maxRetryDelayMilliseconds : Math.min(base << shift, maxRetryDelayMilliseconds);
+        long half = delay / 2;
+        return half + (long) (random.nextDouble() * (delay - half));
+    }
+}
@@ -20,11 +20,17 @@ package io.shardingsphere.transaction.base.saga.actuator.transport;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
-import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
 import io.shardingsphere.transaction.base.context.ExecuteStatus;
 import io.shardingsphere.transaction.base.context.SQLTransaction;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.MultiRowRevertSQL;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.servicecomb.saga.core.SagaResponse;
 import org.apache.servicecomb.saga.core.SuccessfulSagaResponse;
 import org.apache.servicecomb.saga.core.TransportFailedException;
@@ -35,18 +41,46 @@ import org.apache.shardingsphere.transaction.core.TransactionOperationType;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Saga SQL transport.
  *
+ * <p>
+ * Compensations of the same data source are grouped into one local transaction when possible,
+ * and the group falls back to compensating one by one once it fails.
+ * </p>
+ *
+ * <p>
+ * Each execution borrows its own connection from compensation connection manager of the saga,
+ * so SQL of the same data source can be executed concurrently.
+ * Failed SQL is retried here with backoff depends on error type. Transaction SQL of data source with open circuit fails fast without retry,
+ * while compensation SQL waits for probe of the circuit and does not count the rejection as a failed attempt.
+ * Negative max retries means no limit of attempts, while total time of retries is always limited by max retry duration.
+ * </p>
+ *
  * @author yangyi
  */
 @RequiredArgsConstructor
+@Slf4j
 public final class SagaSQLTransport implements SQLTransport {
     
     private final ShardingSQLTransaction shardingSQLTransaction;
     
+    private final SagaConfiguration sagaConfiguration;
+    
+    private final DataSourceBulkhead dataSourceBulkhead;
+    
+    private final DataSourceCircuitBreaker dataSourceCircuitBreaker;
+    
+    private final SagaRetryPolicy sagaRetryPolicy;
+    
     @Override
     public SagaResponse with(final String datasourceName, final String sql, final List<List<String>> sagaParameters) {
         if (Strings.isNullOrEmpty(sql)) {
@@ -57,7 +91,188 @@ public final class SagaSQLTransport implements SQLTransport {
             throw new TransportFailedException("Forced Rollback tag has been checked, saga will rollback this transaction");
         }
         Optional<SQLTransaction> sqlTransaction = shardingSQLTransaction.findSQLTransaction(datasourceName, sql, sagaParameters);
-        return sqlTransaction.isPresent() && isExecuteSQL(sqlTransaction.get().getExecuteStatus()) ? executeSQL(datasourceName, sql, sagaParameters) : new JsonSuccessfulSagaResponse("{}");
+        if (!sqlTransaction.isPresent() || !isExecuteSQL(sqlTransaction.get().getExecuteStatus())) {
+            return new JsonSuccessfulSagaResponse("{}");
+        }
+        return executeWithRetry(datasourceName, sqlTransaction.get(), sql, sagaParameters);
+    }
+    
+    private SagaResponse executeWithRetry(final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters) {
+        boolean compensating = ExecuteStatus.COMPENSATING.equals(sqlTransaction.getExecuteStatus());
+        int maxRetries = compensating ? sagaConfiguration.getCompensationMaxRetries() : sagaConfiguration.getTransactionMaxRetries();
+        long retryDelayMilliseconds = compensating ? sagaConfiguration.getCompensationRetryDelayMilliseconds() : sagaConfiguration.getTransactionRetryDelayMilliseconds();
+        long retryDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sagaConfiguration.getMaxRetryDurationMilliseconds());
+        int attempt = 0;
+        while (true) {
+            try {
+                return executeOnce(datasourceName, sqlTransaction, sql, sagaParameters, compensating);
+            } catch (final TransportFailedException ex) {
+                SQLErrorType errorType = SQLErrorType.of(ex);
+                boolean circuitOpen = ex instanceof DataSourceUnavailableException;
+                if ((circuitOpen && !compensating) || !errorType.isRetryable() || (!circuitOpen && maxRetries >= 0 && attempt >= maxRetries)) {
+                    throw ex;
+                }
+                long delayMilliseconds = Math.max(sagaRetryPolicy.getDelayMilliseconds(attempt, errorType, retryDelayMilliseconds),
+                    circuitOpen ? dataSourceCircuitBreaker.getRemainingOpenMilliseconds(datasourceName) : 0L);
+                if (!circuitOpen) {
+                    attempt++;
+                }
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMilliseconds) - retryDeadlineNanos > 0) {
+                    log.warn("Execute SQL of data source `{}` failed with {} error, give up for max retry duration: {}", datasourceName, errorType, ex.getMessage());
+                    throw ex;
+                }
+                log.warn("Execute SQL of data source `{}` failed with {} error, retry after {} ms: {}", datasourceName, errorType, delayMilliseconds, ex.getMessage());
+                sleep(delayMilliseconds);
+            }
+        }
+    }
+    
+    private SagaResponse executeOnce(final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters, final boolean compensating) {
+        dataSourceBulkhead.acquire(datasourceName);
+        try {
+            dataSourceCircuitBreaker.acquire(datasourceName);
+            return executeWithCircuitBreaker(datasourceName, sqlTransaction, sql, sagaParameters, compensating);
+        } finally {
+            dataSourceBulkhead.release(datasourceName);
+        }
+    }
+    
+    private SagaResponse executeWithCircuitBreaker(final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters,
+                                                   final boolean compensating) {
+        try {
+            SagaResponse result = executeWithConnection(datasourceName, sqlTransaction, sql, sagaParameters, compensating);
+            dataSourceCircuitBreaker.onSuccess(datasourceName);
+            return result;
+        } catch (final RuntimeException ex) {
+            dataSourceCircuitBreaker.onFailure(datasourceName, SQLErrorType.of(ex));
+            throw ex;
+        }
+    }
+    
+    private void sleep(final long delayMilliseconds) {
+        try {
+            Thread.sleep(delayMilliseconds);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TransportFailedException("Saga SQL retry is interrupted", ex);
+        }
+    }
+    
+    private SagaResponse executeWithConnection(final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters,
+                                               final boolean compensating) {
+        CompensationConnectionManager connectionManager = shardingSQLTransaction.getCompensationConnectionManager();
+        Connection connection = connectionManager.borrow(datasourceName, shardingSQLTransaction.getCachedConnections().get(datasourceName));
+        try {
+            prepareConnection(connection, datasourceName);
+            return compensating ? compensate(connection, datasourceName, sqlTransaction, sql, sagaParameters) : execute(connection, datasourceName, sqlTransaction, sql, sagaParameters);
+        } finally {
+            connectionManager.release(datasourceName, connection);
+        }
+    }
+    
+    private SagaResponse compensate(final Connection connection, final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters) {
+        if (ExecuteStatus.COMPENSATED.equals(sqlTransaction.getExecuteStatus())) {
+            return new JsonSuccessfulSagaResponse("{}");
+        }
+        if (sagaConfiguration.isCompensationGroupEnabled() && !shardingSQLTransaction.getCompensationGroupFailedDataSources().contains(datasourceName)) {
+            List<SQLTransaction> compensationGroup = shardingSQLTransaction.findCompensatingSQLTransactions(datasourceName);
+            if (compensationGroup.size() > 1 && compensationGroup.contains(sqlTransaction) && compensateGroup(connection, datasourceName, sqlTransaction)) {
+                return new JsonSuccessfulSagaResponse("{}");
+            }
+        }
+        SagaResponse result = execute(connection, datasourceName, sqlTransaction, sql, sagaParameters);
+        sqlTransaction.setExecuteStatus(ExecuteStatus.COMPENSATED);
+        return result;
+    }
+    
+    private boolean compensateGroup(final Connection connection, final String datasourceName, final SQLTransaction sqlTransaction) {
+        synchronized (shardingSQLTransaction.getCompensationGroupLock(datasourceName)) {
+            if (ExecuteStatus.COMPENSATED.equals(sqlTransaction.getExecuteStatus())) {
+                return true;
+            }
+            if (shardingSQLTransaction.getCompensationGroupFailedDataSources().contains(datasourceName)) {
+                return false;
+            }
+            List<SQLTransaction> compensationGroup = shardingSQLTransaction.findCompensatingSQLTransactions(datasourceName);
+            return compensationGroup.size() > 1 && executeCompensationGroup(connection, datasourceName, compensationGroup);
+        }
+    }
+    
+    private boolean executeCompensationGroup(final Connection connection, final String datasourceName, final List<SQLTransaction> compensationGroup) {
+        try {
+            connection.setAutoCommit(false);
+            for (SQLTransaction each : compensationGroup) {
+                RevertSQLResult revertSQLResult = each.getRevertSQLResult();
+                execute(connection, datasourceName, each, revertSQLResult.getSql(), toSagaParameters(revertSQLResult.getParameters()));
+            }
+            connection.commit();
+        } catch (final SQLException | TransportFailedException ex) {
+            log.warn("Compensation group of data source `{}` failed, compensate one by one instead: {}", datasourceName, ex.getMessage());
+            shardingSQLTransaction.getCompensationGroupFailedDataSources().add(datasourceName);
+            rollbackQuietly(connection);
+            return false;
+        } finally {
+            resetAutoCommit(connection, datasourceName);
+        }
+        for (SQLTransaction each : compensationGroup) {
+            each.setExecuteStatus(ExecuteStatus.COMPENSATED);
+        }
+        return true;
+    }
+    
+    private List<List<String>> toSagaParameters(final List<Collection<Object>> parameters) {
+        List<List<String>> result = new ArrayList<>(parameters.size());
+        for (Collection<Object> each : parameters) {
+            List<String> row = new ArrayList<>(each.size());
+            for (Object value : each) {
+                row.add(null == value ? null : value.toString());
+            }
+            result.add(row);
+        }
+        return result;
+    }
+    
+    private void rollbackQuietly(final Connection connection) {
+        try {
+            connection.rollback();
+        } catch (final SQLException ex) {
+            log.warn("Rollback compensation group failed: {}", ex.getMessage());
+        }
+    }
+    
+    private void resetAutoCommit(final Connection connection, final String datasourceName) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (final SQLException ex) {
+            throw new TransportFailedException(String.format("Reset auto commit of data source name `%s` occur exception: ", datasourceName), ex);
+        }
+    }
+    
+    private SagaResponse execute(final Connection connection, final String datasourceName, final SQLTransaction sqlTransaction, final String sql, final List<List<String>> sagaParameters) {
+        Optional<MultiRowRevertSQL> multiRowRevertSQL = findMultiRowRevertSQL(sqlTransaction);
+        return multiRowRevertSQL.isPresent() && sagaParameters.size() > 1
+            ? executeMultiRowSQL(connection, datasourceName, multiRowRevertSQL.get(), distinctByPrimaryKey(sqlTransaction.getRevertSQLResult(), sagaParameters))
+            : executeSQL(connection, datasourceName, sql, sagaParameters);
+    }
+    
+    private List<List<String>> distinctByPrimaryKey(final RevertSQLResult revertSQLResult, final List<List<String>> sagaParameters) {
+        Optional<RevertSQLMetaData> metaData = revertSQLResult.getMetaData();
+        if (!metaData.isPresent() || DMLType.DELETE != metaData.get().getDmlType()) {
+            return sagaParameters;
+        }
+        Map<List<String>, List<String>> result = new LinkedHashMap<>(sagaParameters.size() * 4 / 3 + 1);
+        for (List<String> each : sagaParameters) {
+            result.put(getPrimaryKeyValues(each, metaData.get().getPrimaryKeyParameterIndexes()), each);
+        }
+        return result.size() == sagaParameters.size() ? sagaParameters : new ArrayList<>(result.values());
+    }
+    
+    private List<String> getPrimaryKeyValues(final List<String> sagaParameter, final List<Integer> primaryKeyParameterIndexes) {
+        List<String> result = new ArrayList<>(primaryKeyParameterIndexes.size());
+        for (int each : primaryKeyParameterIndexes) {
+            result.add(sagaParameter.get(each));
+        }
+        return result;
     }
     
     private boolean isExecuteSQL(final ExecuteStatus executeStatus) {
@@ -65,9 +280,63 @@ public final class SagaSQLTransport implements SQLTransport {
             (TransactionOperationType.COMMIT.equals(shardingSQLTransaction.getOperationType()) && ExecuteStatus.FAILURE.equals(executeStatus));
     }
     
-    private SagaResponse executeSQL(final String datasourceName, final String sql, final List<List<String>> sagaParameters) {
+    private Optional<MultiRowRevertSQL> findMultiRowRevertSQL(final SQLTransaction sqlTransaction) {
+        if (!ExecuteStatus.COMPENSATING.equals(sqlTransaction.getExecuteStatus()) || null == sqlTransaction.getRevertSQLResult()) {
+            return Optional.absent();
+        }
+        return sqlTransaction.getRevertSQLResult().getMultiRowRevertSQL();
+    }
+    
+    private SagaResponse executeMultiRowSQL(final Connection connection, final String datasourceName, final MultiRowRevertSQL multiRowRevertSQL, final List<List<String>> sagaParameters) {
+        int rowsPerStatement = getRowsPerStatement(multiRowRevertSQL.getRowParameterCount());
+        List<List<List<String>>> chunks = Lists.partition(sagaParameters, rowsPerStatement);
+        List<List<String>> lastChunk = chunks.get(chunks.size() - 1);
+        List<List<List<String>>> fullChunks = lastChunk.size() == rowsPerStatement ? chunks : chunks.subList(0, chunks.size() - 1);
+        if (!fullChunks.isEmpty()) {
+            executeChunks(connection, multiRowRevertSQL.toSQL(rowsPerStatement), fullChunks, datasourceName);
+        }
+        if (lastChunk.size() != rowsPerStatement) {
+            executeChunks(connection, multiRowRevertSQL.toSQL(lastChunk.size()), Collections.singletonList(lastChunk), datasourceName);
+        }
+        return new JsonSuccessfulSagaResponse("{}");
+    }
+    
+    private int getRowsPerStatement(final int rowParameterCount) {
+        int result = Math.min(sagaConfiguration.getCompensationBatchMaxRows(), sagaConfiguration.getCompensationBatchMaxParameters() / Math.max(rowParameterCount, 1));
+        return Math.max(result, 1);
+    }
+    
+    private void executeChunks(final Connection connection, final String sql, final List<List<List<String>>> chunks, final String datasourceName) {
+        try {
+            PreparedStatement preparedStatement = shardingSQLTransaction.getPreparedStatementCache(connection).getPreparedStatement(sql);
+            if (1 == chunks.size()) {
+                setChunkParameters(preparedStatement, chunks.get(0));
+                preparedStatement.executeUpdate();
+                return;
+            }
+            for (List<List<String>> each : chunks) {
+                setChunkParameters(preparedStatement, each);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } catch (SQLException ex) {
+            throw new TransportFailedException(String.format("Execute SQL `%s` occur exception. dataSourceName:[%s], chunks:[%d]", sql, datasourceName, chunks.size()), ex);
+        }
+    }
+    
+    private void setChunkParameters(final PreparedStatement preparedStatement, final List<List<String>> chunk) throws SQLException {
+        int parameterIndex = 0;
+        for (List<String> row : chunk) {
+            for (String each : row) {
+                preparedStatement.setObject(++parameterIndex, each);
+            }
+        }
+    }
+    
+    private SagaResponse executeSQL(final Connection connection, final String datasourceName, final String sql, final List<List<String>> sagaParameters) {
         List<List<Object>> sqlParameters = convertSagaParameters(sagaParameters);
-        try (PreparedStatement preparedStatement = getConnection(datasourceName).prepareStatement(sql)) {
+        try {
+            PreparedStatement preparedStatement = shardingSQLTransaction.getPreparedStatementCache(connection).getPreparedStatement(sql);
             if (sqlParameters.isEmpty()) {
                 preparedStatement.executeUpdate();
             } else {
@@ -79,15 +348,13 @@ public final class SagaSQLTransport implements SQLTransport {
         return new JsonSuccessfulSagaResponse("{}");
     }
     
-    private Connection getConnection(final String datasourceName) {
+    private void prepareConnection(final Connection connection, final String datasourceName) {
         try {
-            Connection result = shardingSQLTransaction.getCachedConnections().get(datasourceName);
-            if (!result.getAutoCommit()) {
-                result.setAutoCommit(true);
+            if (!connection.getAutoCommit()) {
+                connection.setAutoCommit(true);
             }
-            return result;
         } catch (final SQLException ex) {
-            throw new TransportFailedException(String.format("Get connection of data source name `%s` occur exception: ", datasourceName), ex);
+            throw new TransportFailedException(String.format("Prepare connection of data source name `%s` occur exception: ", datasourceName), ex);
         }
     }
     
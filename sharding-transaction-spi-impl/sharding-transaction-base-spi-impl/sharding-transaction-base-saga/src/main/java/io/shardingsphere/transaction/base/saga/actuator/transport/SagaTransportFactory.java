@@ -18,32 +18,23 @@
 package io.shardingsphere.transaction.base.saga.actuator.transport;
 
 import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
-import lombok.AccessLevel;
-import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import org.apache.servicecomb.saga.transports.SQLTransport;
 import org.apache.servicecomb.saga.transports.TransportFactory;
 
 /**
- * Saga transport factory.
+ * Saga transport factory, which creates saga SQL transport of its sharding SQL transaction manager.
  *
  * @author yangyi
  */
-@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@RequiredArgsConstructor
 public final class SagaTransportFactory implements TransportFactory<SQLTransport> {
     
-    private static final SagaTransportFactory INSTANCE = new SagaTransportFactory();
-    
-    /**
-     * Get instance of saga transport factory.
-     *
-     * @return instance of saga transport factory
-     */
-    public static SagaTransportFactory getInstance() {
-        return INSTANCE;
-    }
+    private final ShardingSQLTransactionManager transactionManager;
     
     @Override
     public SQLTransport getTransport() {
-        return new SagaSQLTransport(ShardingSQLTransactionManager.getInstance().getCurrentTransaction());
+        return new SagaSQLTransport(transactionManager.getCurrentTransaction(), transactionManager.getSagaConfiguration(), transactionManager.getDataSourceBulkhead(),
+            transactionManager.getDataSourceCircuitBreaker(), transactionManager.getSagaRetryPolicy());
     }
 }
@@ -29,7 +29,25 @@ import lombok.Setter;
 @Setter
 public final class SagaConfiguration {
     
-    private int executorSize = 5;
+    private String executorType = "BOUNDED_QUEUE";
+    
+    private int executorSize;
+    
+    private int executorQueueSize = 1024;
+    
+    private int priorityAgingMilliseconds = 1000;
+    
+    private int inlineMaxBranches = 2;
+    
+    private int maxInFlightSagas = 1024;
+    
+    private int admissionTimeoutMilliseconds = 30000;
+    
+    private int dataSourceMaxConcurrency;
+    
+    private int dataSourceAcquireTimeoutMilliseconds = 5000;
+    
+    private int requestMaxRows = 1000;
     
     private int transactionMaxRetries = 5;
     
@@ -39,5 +57,43 @@ public final class SagaConfiguration {
     
     private int compensationRetryDelayMilliseconds = 3000;
     
+    private int transientRetryDelayMilliseconds = 100;
+    
+    private int maxRetryDelayMilliseconds = 60000;
+    
+    private int maxRetryDurationMilliseconds = 60000;
+    
+    private int circuitBreakerFailureThreshold = 5;
+    
+    private int circuitBreakerOpenMilliseconds = 10000;
+    
+    private int compensationBatchMaxRows = 1000;
+    
+    private int compensationBatchMaxParameters = 32767;
+    
+    private boolean compensationGroupEnabled = true;
+    
+    private int compensationMaxConnections = 4;
+    
+    private boolean earlyCompensationEnabled;
+    
+    private int preparedStatementCacheSize = 64;
+    
+    private boolean autoTuningEnabled;
+    
+    private int autoTuningIntervalMilliseconds = 5000;
+    
+    private int autoTuningMinExecutorSize = 1;
+    
+    private int autoTuningMaxExecutorSize = 64;
+    
+    private int autoTuningTargetLatencyMilliseconds = 1000;
+    
+    private int autoTuningMaxRetryDelayFactor = 8;
+    
+    private boolean warmUpEnabled = true;
+    
+    private int configurationReloadIntervalMilliseconds;
+    
     private SagaPersistenceConfiguration sagaPersistenceConfiguration = new SagaPersistenceConfiguration();
 }
@@ -17,6 +17,7 @@
 
 package io.shardingsphere.transaction.base.saga.config;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -38,8 +39,26 @@ public final class SagaConfigurationLoader {
     
     private static final String ACTUATOR_PREFIX = "saga.actuator.";
     
+    private static final String EXECUTOR_TYPE = ACTUATOR_PREFIX + "executor.type";
+    
     private static final String EXECUTOR_SIZE = ACTUATOR_PREFIX + "executor.size";
     
+    private static final String EXECUTOR_QUEUE_SIZE = ACTUATOR_PREFIX + "executor.queue.size";
+    
+    private static final String PRIORITY_AGING_MILLISECONDS = ACTUATOR_PREFIX + "priority.aging.milliseconds";
+    
+    private static final String INLINE_MAX_BRANCHES = ACTUATOR_PREFIX + "inline.max.branches";
+    
+    private static final String MAX_IN_FLIGHT_SAGAS = ACTUATOR_PREFIX + "max.in.flight.sagas";
+    
+    private static final String ADMISSION_TIMEOUT_MILLISECONDS = ACTUATOR_PREFIX + "admission.timeout.milliseconds";
+    
+    private static final String DATA_SOURCE_MAX_CONCURRENCY = ACTUATOR_PREFIX + "datasource.max.concurrency";
+    
+    private static final String DATA_SOURCE_ACQUIRE_TIMEOUT_MILLISECONDS = ACTUATOR_PREFIX + "datasource.acquire.timeout.milliseconds";
+    
+    private static final String REQUEST_MAX_ROWS = ACTUATOR_PREFIX + "request.max.rows";
+    
     private static final String TRANSACTION_MAX_RETRIES = ACTUATOR_PREFIX + "transaction.max.retries";
     
     private static final String COMPENSATION_MAX_RETRIES = ACTUATOR_PREFIX + "compensation.max.retries";
@@ -48,10 +67,50 @@ public final class SagaConfigurationLoader {
     
     private static final String COMPENSATION_RETRY_DELAY_MILLISECONDS = ACTUATOR_PREFIX + "compensation.retry.delay.milliseconds";
     
+    private static final String TRANSIENT_RETRY_DELAY_MILLISECONDS = ACTUATOR_PREFIX + "transient.retry.delay.milliseconds";
+    
+    private static final String MAX_RETRY_DELAY_MILLISECONDS = ACTUATOR_PREFIX + "max.retry.delay.milliseconds";
+    
+    private static final String MAX_RETRY_DURATION_MILLISECONDS = ACTUATOR_PREFIX + "max.retry.duration.milliseconds";
+    
+    private static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD = ACTUATOR_PREFIX + "circuit.breaker.failure.threshold";
+    
+    private static final String CIRCUIT_BREAKER_OPEN_MILLISECONDS = ACTUATOR_PREFIX + "circuit.breaker.open.milliseconds";
+    
+    private static final String COMPENSATION_BATCH_MAX_ROWS = ACTUATOR_PREFIX + "compensation.batch.max.rows";
+    
+    private static final String COMPENSATION_BATCH_MAX_PARAMETERS = ACTUATOR_PREFIX + "compensation.batch.max.parameters";
+    
+    private static final String COMPENSATION_GROUP_ENABLED = ACTUATOR_PREFIX + "compensation.group.enabled";
+    
+    private static final String COMPENSATION_MAX_CONNECTIONS = ACTUATOR_PREFIX + "compensation.max.connections";
+    
+    private static final String EARLY_COMPENSATION_ENABLED = ACTUATOR_PREFIX + "early.compensation.enabled";
+    
+    private static final String PREPARED_STATEMENT_CACHE_SIZE = ACTUATOR_PREFIX + "prepared.statement.cache.size";
+    
+    private static final String AUTO_TUNING_ENABLED = ACTUATOR_PREFIX + "auto.tuning.enabled";
+    
+    private static final String AUTO_TUNING_INTERVAL_MILLISECONDS = ACTUATOR_PREFIX + "auto.tuning.interval.milliseconds";
+    
+    private static final String AUTO_TUNING_MIN_EXECUTOR_SIZE = ACTUATOR_PREFIX + "auto.tuning.min.executor.size";
+    
+    private static final String AUTO_TUNING_MAX_EXECUTOR_SIZE = ACTUATOR_PREFIX + "auto.tuning.max.executor.size";
+    
+    private static final String AUTO_TUNING_TARGET_LATENCY_MILLISECONDS = ACTUATOR_PREFIX + "auto.tuning.target.latency.milliseconds";
+    
+    private static final String AUTO_TUNING_MAX_RETRY_DELAY_FACTOR = ACTUATOR_PREFIX + "auto.tuning.max.retry.delay.factor";
+    
+    private static final String WARM_UP_ENABLED = ACTUATOR_PREFIX + "warm.up.enabled";
+    
+    private static final String CONFIGURATION_RELOAD_INTERVAL_MILLISECONDS = "saga.configuration.reload.interval.milliseconds";
+    
     private static final String ENABLED_PERSISTENCE = "saga.persistence.enabled";
     
     private static final String PERSISTENCE_DS_PREFIX = "saga.persistence.ds.";
     
+    private static final String PERSISTENCE_GROUP_COMMIT_PREFIX = "saga.persistence.group.commit.";
+    
     private static final String URL = PERSISTENCE_DS_PREFIX + "url";
     
     private static final String USERNAME = PERSISTENCE_DS_PREFIX + "username";
@@ -70,33 +129,101 @@ public final class SagaConfigurationLoader {
     
     private static final String MIN_POOL_SIZE = PERSISTENCE_DS_PREFIX + "min.pool.size";
     
+    private static final String GROUP_COMMIT_ENABLED = PERSISTENCE_GROUP_COMMIT_PREFIX + "enabled";
+    
+    private static final String GROUP_COMMIT_BATCH_SIZE = PERSISTENCE_GROUP_COMMIT_PREFIX + "batch.size";
+    
+    private static final String GROUP_COMMIT_MAX_WAIT_MILLISECONDS = PERSISTENCE_GROUP_COMMIT_PREFIX + "max.wait.milliseconds";
+    
+    private static final String GROUP_COMMIT_QUEUE_SIZE = PERSISTENCE_GROUP_COMMIT_PREFIX + "queue.size";
+    
     /**
-     * Load saga configuration from properties file.
+     * Load saga configuration from properties file at root classpath.
      *
      * @return saga configuration
      */
     public static SagaConfiguration load() {
-        return createSagaConfiguration(loadConfigurationProperties());
+        Optional<File> configurationFile = findConfigurationFile();
+        if (!configurationFile.isPresent()) {
+            log.warn("{} not found at your root classpath, will use default saga configuration", CONFIGURATION_FILE);
+            return load(new Properties());
+        }
+        return load(configurationFile.get());
     }
     
-    @SneakyThrows
-    private static Properties loadConfigurationProperties() {
-        Properties result = new Properties();
+    /**
+     * Find saga configuration file at root classpath.
+     *
+     * @return saga configuration file
+     */
+    public static Optional<File> findConfigurationFile() {
         URL configurationFile = SagaConfigurationLoader.class.getClassLoader().getResource(CONFIGURATION_FILE);
-        if (null == configurationFile) {
-            log.warn("{} not found at your root classpath, will use default saga configuration", CONFIGURATION_FILE);
-            return result;
+        return null == configurationFile ? Optional.<File>absent() : Optional.of(new File(configurationFile.getFile()));
+    }
+    
+    /**
+     * Load saga configuration from properties file.
+     *
+     * @param configurationFile saga configuration file
+     * @return saga configuration
+     */
+    @SneakyThrows
+    public static SagaConfiguration load(final File configurationFile) {
+        Properties sagaProperties = new Properties();
+        try (FileInputStream inputStream = new FileInputStream(configurationFile)) {
+            sagaProperties.load(inputStream);
         }
-        result.load(new FileInputStream(new File(configurationFile.getFile())));
-        return result;
+        return load(sagaProperties);
     }
     
-    private static SagaConfiguration createSagaConfiguration(final Properties sagaProperties) {
+    /**
+     * Load saga configuration from properties, such as properties from registry center.
+     *
+     * @param sagaProperties saga properties
+     * @return saga configuration
+     */
+    public static SagaConfiguration load(final Properties sagaProperties) {
         SagaConfiguration result = new SagaConfiguration();
+        String executorType = sagaProperties.getProperty(EXECUTOR_TYPE);
+        if (!Strings.isNullOrEmpty(executorType)) {
+            result.setExecutorType(executorType);
+        }
         String executorSize = sagaProperties.getProperty(EXECUTOR_SIZE);
         if (!Strings.isNullOrEmpty(executorSize)) {
             result.setExecutorSize(Integer.parseInt(executorSize));
         }
+        String executorQueueSize = sagaProperties.getProperty(EXECUTOR_QUEUE_SIZE);
+        if (!Strings.isNullOrEmpty(executorQueueSize)) {
+            result.setExecutorQueueSize(Integer.parseInt(executorQueueSize));
+        }
+        String priorityAgingMilliseconds = sagaProperties.getProperty(PRIORITY_AGING_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(priorityAgingMilliseconds)) {
+            result.setPriorityAgingMilliseconds(Integer.parseInt(priorityAgingMilliseconds));
+        }
+        String inlineMaxBranches = sagaProperties.getProperty(INLINE_MAX_BRANCHES);
+        if (!Strings.isNullOrEmpty(inlineMaxBranches)) {
+            result.setInlineMaxBranches(Integer.parseInt(inlineMaxBranches));
+        }
+        String maxInFlightSagas = sagaProperties.getProperty(MAX_IN_FLIGHT_SAGAS);
+        if (!Strings.isNullOrEmpty(maxInFlightSagas)) {
+            result.setMaxInFlightSagas(Integer.parseInt(maxInFlightSagas));
+        }
+        String admissionTimeoutMilliseconds = sagaProperties.getProperty(ADMISSION_TIMEOUT_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(admissionTimeoutMilliseconds)) {
+            result.setAdmissionTimeoutMilliseconds(Integer.parseInt(admissionTimeoutMilliseconds));
+        }
+        String dataSourceMaxConcurrency = sagaProperties.getProperty(DATA_SOURCE_MAX_CONCURRENCY);
+        if (!Strings.isNullOrEmpty(dataSourceMaxConcurrency)) {
+            result.setDataSourceMaxConcurrency(Integer.parseInt(dataSourceMaxConcurrency));
+        }
+        String dataSourceAcquireTimeoutMilliseconds = sagaProperties.getProperty(DATA_SOURCE_ACQUIRE_TIMEOUT_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(dataSourceAcquireTimeoutMilliseconds)) {
+            result.setDataSourceAcquireTimeoutMilliseconds(Integer.parseInt(dataSourceAcquireTimeoutMilliseconds));
+        }
+        String requestMaxRows = sagaProperties.getProperty(REQUEST_MAX_ROWS);
+        if (!Strings.isNullOrEmpty(requestMaxRows)) {
+            result.setRequestMaxRows(Integer.parseInt(requestMaxRows));
+        }
         String transactionMaxRetries = sagaProperties.getProperty(TRANSACTION_MAX_RETRIES);
         if (!Strings.isNullOrEmpty(transactionMaxRetries)) {
             result.setTransactionMaxRetries(Integer.parseInt(transactionMaxRetries));
@@ -113,6 +240,82 @@ public final class SagaConfigurationLoader {
         if (!Strings.isNullOrEmpty(transactionMaxRetries)) {
             result.setCompensationRetryDelayMilliseconds(Integer.parseInt(compensationRetryDelayMilliseconds));
         }
+        String transientRetryDelayMilliseconds = sagaProperties.getProperty(TRANSIENT_RETRY_DELAY_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(transientRetryDelayMilliseconds)) {
+            result.setTransientRetryDelayMilliseconds(Integer.parseInt(transientRetryDelayMilliseconds));
+        }
+        String maxRetryDelayMilliseconds = sagaProperties.getProperty(MAX_RETRY_DELAY_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(maxRetryDelayMilliseconds)) {
+            result.setMaxRetryDelayMilliseconds(Integer.parseInt(maxRetryDelayMilliseconds));
+        }
+        String maxRetryDurationMilliseconds = sagaProperties.getProperty(MAX_RETRY_DURATION_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(maxRetryDurationMilliseconds)) {
+            result.setMaxRetryDurationMilliseconds(Integer.parseInt(maxRetryDurationMilliseconds));
+        }
+        String circuitBreakerFailureThreshold = sagaProperties.getProperty(CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+        if (!Strings.isNullOrEmpty(circuitBreakerFailureThreshold)) {
+            result.setCircuitBreakerFailureThreshold(Integer.parseInt(circuitBreakerFailureThreshold));
+        }
+        String circuitBreakerOpenMilliseconds = sagaProperties.getProperty(CIRCUIT_BREAKER_OPEN_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(circuitBreakerOpenMilliseconds)) {
+            result.setCircuitBreakerOpenMilliseconds(Integer.parseInt(circuitBreakerOpenMilliseconds));
+        }
+        String compensationBatchMaxRows = sagaProperties.getProperty(COMPENSATION_BATCH_MAX_ROWS);
+        if (!Strings.isNullOrEmpty(compensationBatchMaxRows)) {
+            result.setCompensationBatchMaxRows(Integer.parseInt(compensationBatchMaxRows));
+        }
+        String compensationBatchMaxParameters = sagaProperties.getProperty(COMPENSATION_BATCH_MAX_PARAMETERS);
+        if (!Strings.isNullOrEmpty(compensationBatchMaxParameters)) {
+            result.setCompensationBatchMaxParameters(Integer.parseInt(compensationBatchMaxParameters));
+        }
+        String compensationGroupEnabled = sagaProperties.getProperty(COMPENSATION_GROUP_ENABLED);
+        if (!Strings.isNullOrEmpty(compensationGroupEnabled)) {
+            result.setCompensationGroupEnabled(Boolean.parseBoolean(compensationGroupEnabled));
+        }
+        String compensationMaxConnections = sagaProperties.getProperty(COMPENSATION_MAX_CONNECTIONS);
+        if (!Strings.isNullOrEmpty(compensationMaxConnections)) {
+            result.setCompensationMaxConnections(Integer.parseInt(compensationMaxConnections));
+        }
+        String earlyCompensationEnabled = sagaProperties.getProperty(EARLY_COMPENSATION_ENABLED);
+        if (!Strings.isNullOrEmpty(earlyCompensationEnabled)) {
+            result.setEarlyCompensationEnabled(Boolean.parseBoolean(earlyCompensationEnabled));
+        }
+        String preparedStatementCacheSize = sagaProperties.getProperty(PREPARED_STATEMENT_CACHE_SIZE);
+        if (!Strings.isNullOrEmpty(preparedStatementCacheSize)) {
+            result.setPreparedStatementCacheSize(Integer.parseInt(preparedStatementCacheSize));
+        }
+        String autoTuningEnabled = sagaProperties.getProperty(AUTO_TUNING_ENABLED);
+        if (!Strings.isNullOrEmpty(autoTuningEnabled)) {
+            result.setAutoTuningEnabled(Boolean.parseBoolean(autoTuningEnabled));
+        }
+        String autoTuningIntervalMilliseconds = sagaProperties.getProperty(AUTO_TUNING_INTERVAL_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(autoTuningIntervalMilliseconds)) {
+            result.setAutoTuningIntervalMilliseconds(Integer.parseInt(autoTuningIntervalMilliseconds));
+        }
+        String autoTuningMinExecutorSize = sagaProperties.getProperty(AUTO_TUNING_MIN_EXECUTOR_SIZE);
+        if (!Strings.isNullOrEmpty(autoTuningMinExecutorSize)) {
+            result.setAutoTuningMinExecutorSize(Integer.parseInt(autoTuningMinExecutorSize));
+        }
+        String autoTuningMaxExecutorSize = sagaProperties.getProperty(AUTO_TUNING_MAX_EXECUTOR_SIZE);
+        if (!Strings.isNullOrEmpty(autoTuningMaxExecutorSize)) {
+            result.setAutoTuningMaxExecutorSize(Integer.parseInt(autoTuningMaxExecutorSize));
+        }
+        String autoTuningTargetLatencyMilliseconds = sagaProperties.getProperty(AUTO_TUNING_TARGET_LATENCY_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(autoTuningTargetLatencyMilliseconds)) {
+            result.setAutoTuningTargetLatencyMilliseconds(Integer.parseInt(autoTuningTargetLatencyMilliseconds));
+        }
+        String autoTuningMaxRetryDelayFactor = sagaProperties.getProperty(AUTO_TUNING_MAX_RETRY_DELAY_FACTOR);
+        if (!Strings.isNullOrEmpty(autoTuningMaxRetryDelayFactor)) {
+            result.setAutoTuningMaxRetryDelayFactor(Integer.parseInt(autoTuningMaxRetryDelayFactor));
+        }
+        String warmUpEnabled = sagaProperties.getProperty(WARM_UP_ENABLED);
+        if (!Strings.isNullOrEmpty(warmUpEnabled)) {
+            result.setWarmUpEnabled(Boolean.parseBoolean(warmUpEnabled));
+        }
+        String configurationReloadIntervalMilliseconds = sagaProperties.getProperty(CONFIGURATION_RELOAD_INTERVAL_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(configurationReloadIntervalMilliseconds)) {
+            result.setConfigurationReloadIntervalMilliseconds(Integer.parseInt(configurationReloadIntervalMilliseconds));
+        }
         result.setSagaPersistenceConfiguration(createSagaPersistenceConfiguration(sagaProperties));
         return result;
     }
@@ -124,6 +327,7 @@ public final class SagaConfigurationLoader {
             result.setEnablePersistence(Boolean.parseBoolean(enabledPersistence));
         }
         initPersistenceDataSourceProperties(result, sagaProperties);
+        initGroupCommitProperties(result, sagaProperties);
         return result;
     }
     
@@ -132,6 +336,25 @@ public final class SagaConfigurationLoader {
         initHikariPoolProperties(result, sagaProperties);
     }
     
+    private static void initGroupCommitProperties(final SagaPersistenceConfiguration result, final Properties sagaProperties) {
+        String groupCommitEnabled = sagaProperties.getProperty(GROUP_COMMIT_ENABLED);
+        if (!Strings.isNullOrEmpty(groupCommitEnabled)) {
+            result.setGroupCommitEnabled(Boolean.parseBoolean(groupCommitEnabled));
+        }
+        String groupCommitBatchSize = sagaProperties.getProperty(GROUP_COMMIT_BATCH_SIZE);
+        if (!Strings.isNullOrEmpty(groupCommitBatchSize)) {
+            result.setGroupCommitBatchSize(Integer.parseInt(groupCommitBatchSize));
+        }
+        String groupCommitMaxWaitMilliseconds = sagaProperties.getProperty(GROUP_COMMIT_MAX_WAIT_MILLISECONDS);
+        if (!Strings.isNullOrEmpty(groupCommitMaxWaitMilliseconds)) {
+            result.setGroupCommitMaxWaitMilliseconds(Long.parseLong(groupCommitMaxWaitMilliseconds));
+        }
+        String groupCommitQueueSize = sagaProperties.getProperty(GROUP_COMMIT_QUEUE_SIZE);
+        if (!Strings.isNullOrEmpty(groupCommitQueueSize)) {
+            result.setGroupCommitQueueSize(Integer.parseInt(groupCommitQueueSize));
+        }
+    }
+    
     private static void initCommonDataSourceProperties(final SagaPersistenceConfiguration result, final Properties sagaProperties) {
         String url = sagaProperties.getProperty(URL);
         if (null != url) {
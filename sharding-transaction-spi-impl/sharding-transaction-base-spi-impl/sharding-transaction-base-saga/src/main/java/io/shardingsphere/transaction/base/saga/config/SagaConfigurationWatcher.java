@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga configuration watcher, which reloads saga configuration when last modified time of configuration file changes.
+ *
+ * @author zhaojun
+ */
+@Slf4j
+public final class SagaConfigurationWatcher implements Runnable {
+    
+    private final File configurationFile;
+    
+    private final SagaConfigurationChangedListener listener;
+    
+    private long lastModified;
+    
+    private ScheduledExecutorService scheduledExecutorService;
+    
+    public SagaConfigurationWatcher(final File configurationFile, final SagaConfigurationChangedListener listener) {
+        this.configurationFile = configurationFile;
+        this.listener = listener;
+        lastModified = configurationFile.lastModified();
+    }
+    
+    /**
+     * Start watching configuration file.
+     *
+     * @param intervalMilliseconds interval to check configuration file
+     */
+    public synchronized void start(final long intervalMilliseconds) {
+        if (null != scheduledExecutorService) {
+            return;
+        }
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(ShardingThreadFactoryBuilder.build("Saga-ConfigurationWatcher-%d"));
+        scheduledExecutorService.scheduleWithFixedDelay(this, intervalMilliseconds, intervalMilliseconds, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop watching configuration file.
+     */
+    public synchronized void close() {
+        if (null != scheduledExecutorService) {
+            scheduledExecutorService.shutdownNow();
+            scheduledExecutorService = null;
+        }
+    }
+    
+    @Override
+    public synchronized void run() {
+        long currentLastModified = configurationFile.lastModified();
+        if (currentLastModified == lastModified) {
+            return;
+        }
+        lastModified = currentLastModified;
+        try {
+            listener.onChanged(SagaConfigurationLoader.load(configurationFile));
+        } catch (final RuntimeException ex) {
+            log.warn("Reload saga configuration from `{}` failed: {}", configurationFile, ex.getMessage());
+        }
+    }
+}
@@ -41,6 +41,12 @@ public class SagaPersistenceConfiguration {
     
     private static final int DEFAULT_MIN_POOL_SIZE = 1;
     
+    private static final int DEFAULT_GROUP_COMMIT_BATCH_SIZE = 128;
+    
+    private static final long DEFAULT_GROUP_COMMIT_MAX_WAIT_MILLISECONDS = 1;
+    
+    private static final int DEFAULT_GROUP_COMMIT_QUEUE_SIZE = 4096;
+    
     private boolean enablePersistence;
     
     private String url;
@@ -60,4 +66,12 @@ public class SagaPersistenceConfiguration {
     private int minPoolSize = DEFAULT_MIN_POOL_SIZE;
     
     private long maintenanceIntervalMilliseconds = DEFAULT_MAINTENANCE_INTERVAL_MILLISECONDS;
+    
+    private boolean groupCommitEnabled = true;
+    
+    private int groupCommitBatchSize = DEFAULT_GROUP_COMMIT_BATCH_SIZE;
+    
+    private long groupCommitMaxWaitMilliseconds = DEFAULT_GROUP_COMMIT_MAX_WAIT_MILLISECONDS;
+    
+    private int groupCommitQueueSize = DEFAULT_GROUP_COMMIT_QUEUE_SIZE;
 }
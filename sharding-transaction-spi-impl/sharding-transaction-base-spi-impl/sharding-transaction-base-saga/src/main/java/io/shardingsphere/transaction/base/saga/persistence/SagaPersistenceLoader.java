@@ -55,7 +55,7 @@ public final class SagaPersistenceLoader {
     }
     
     private static PersistentStore loadDefaultPersistence(final SagaPersistenceConfiguration persistenceConfiguration) {
-        JDBCSagaPersistence result = new JDBCSagaPersistence(initDataSource(persistenceConfiguration));
+        JDBCSagaPersistence result = new JDBCSagaPersistence(initDataSource(persistenceConfiguration), persistenceConfiguration);
         result.createTableIfNotExists();
         return result;
     }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.persistence.impl.jdbc;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.shardingsphere.transaction.base.utils.JDBCUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit saga event writer.
+ *
+ * <p>
+ * Saga events are queued by callers, and written by writer thread as one JDBC batch in a single transaction,
+ * once batch size is reached or max wait time is passed. Future of each saga event is done after its batch is committed,
+ * so callers waiting for it keep the same durability as writing saga event one by one.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Slf4j
+public final class GroupCommitSagaEventWriter implements Runnable, AutoCloseable {
+    
+    private static final long POLL_TIMEOUT_MILLISECONDS = 100L;
+    
+    private final DataSource dataSource;
+    
+    private final String sql;
+    
+    private final int batchSize;
+    
+    private final long maxWaitNanos;
+    
+    private final BlockingQueue<PendingSagaEvent> pendingSagaEvents;
+    
+    private final ExecutorService writerExecutor;
+    
+    private final AtomicLong committedBatchCount = new AtomicLong();
+    
+    private volatile boolean closed;
+    
+    public GroupCommitSagaEventWriter(final DataSource dataSource, final String sql, final int batchSize, final long maxWaitMilliseconds, final int queueSize) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.batchSize = Math.max(batchSize, 1);
+        maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMilliseconds);
+        pendingSagaEvents = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        writerExecutor = Executors.newSingleThreadExecutor(ShardingThreadFactoryBuilder.build("Saga-EventWriter-%d"));
+        writerExecutor.execute(this);
+    }
+    
+    /**
+     * Write saga event, caller blocks if queue of saga event writer is full.
+     *
+     * @param params parameters of saga event
+     * @return future done after saga event is committed
+     */
+    public ListenableFuture<Void> write(final List<Object> params) {
+        PendingSagaEvent result = new PendingSagaEvent(params, SettableFuture.<Void>create());
+        if (closed) {
+            result.getFuture().setException(new IllegalStateException("Saga event writer is closed"));
+            return result.getFuture();
+        }
+        Uninterruptibles.putUninterruptibly(pendingSagaEvents, result);
+        if (closed && pendingSagaEvents.remove(result)) {
+            result.getFuture().setException(new IllegalStateException("Saga event writer is closed"));
+        }
+        return result.getFuture();
+    }
+    
+    /**
+     * Get count of committed batches.
+     *
+     * @return committed batch count
+     */
+    public long getCommittedBatchCount() {
+        return committedBatchCount.get();
+    }
+    
+    @Override
+    public void run() {
+        List<PendingSagaEvent> batch = new ArrayList<>(batchSize);
+        while (!closed || !pendingSagaEvents.isEmpty()) {
+            try {
+                PendingSagaEvent first = pendingSagaEvents.poll(POLL_TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS);
+                if (null == first) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                flush(batch);
+            }
+        }
+    }
+    
+    private void fillBatch(final List<PendingSagaEvent> batch) throws InterruptedException {
+        pendingSagaEvents.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < batchSize && !closed) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return;
+            }
+            PendingSagaEvent next = pendingSagaEvents.poll(Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(POLL_TIMEOUT_MILLISECONDS)), TimeUnit.NANOSECONDS);
+            if (null != next) {
+                batch.add(next);
+                pendingSagaEvents.drainTo(batch, batchSize - batch.size());
+            }
+        }
+    }
+    
+    private void flush(final List<PendingSagaEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Collection<Object>> paramsCollection = new ArrayList<>(batch.size());
+        for (PendingSagaEvent each : batch) {
+            paramsCollection.add(each.getParams());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                JDBCUtil.executeBatch(connection, sql, paramsCollection);
+                connection.commit();
+            } catch (final SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+            committedBatchCount.incrementAndGet();
+            for (PendingSagaEvent each : batch) {
+                each.getFuture().set(null);
+            }
+        } catch (final SQLException | RuntimeException ex) {
+            log.warn("Write batch of {} saga events failed: {}", batch.size(), ex.getMessage());
+            for (PendingSagaEvent each : batch) {
+                each.getFuture().setException(ex);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Close saga event writer, queued saga events are written before writer thread stops.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(POLL_TIMEOUT_MILLISECONDS * 10, TimeUnit.MILLISECONDS)) {
+                log.warn("Saga event writer does not stop in time");
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingSagaEvent> remaining = new ArrayList<>(pendingSagaEvents.size());
+        pendingSagaEvents.drainTo(remaining);
+        flush(remaining);
+    }
+    
+    @RequiredArgsConstructor
+    @Getter
+    private static final class PendingSagaEvent {
+        
+        private final List<Object> params;
+        
+        private final SettableFuture<Void> future;
+    }
+}
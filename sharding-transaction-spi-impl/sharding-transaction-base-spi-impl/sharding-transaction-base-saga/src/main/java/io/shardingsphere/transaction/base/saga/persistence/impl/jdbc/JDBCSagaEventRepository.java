@@ -18,8 +18,8 @@
 package io.shardingsphere.transaction.base.saga.persistence.impl.jdbc;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.shardingsphere.transaction.base.utils.JDBCUtil;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.servicecomb.saga.core.JacksonToJsonFormat;
 import org.apache.servicecomb.saga.core.SagaEvent;
@@ -29,28 +29,48 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * JDBC saga event repository.
  *
+ * <p>
+ * Saga events are written by group commit saga event writer if it is present, otherwise each saga event is inserted with its own connection.
+ * </p>
+ *
  * @author yangyi
+ * @author zhaojun
  */
-@RequiredArgsConstructor
 @Slf4j
-public final class JDBCSagaEventRepository {
+public final class JDBCSagaEventRepository implements AutoCloseable {
     
-    private static final String INSERT_SQL = "INSERT INTO saga_event (saga_id, type, content_json) values (?, ?, ?)";
+    static final String INSERT_SQL = "INSERT INTO saga_event (saga_id, type, content_json) values (?, ?, ?)";
 
     private final DataSource dataSource;
     
+    private final GroupCommitSagaEventWriter groupCommitSagaEventWriter;
+    
     private final ToJsonFormat toJsonFormat = new JacksonToJsonFormat();
     
+    public JDBCSagaEventRepository(final DataSource dataSource) {
+        this(dataSource, null);
+    }
+    
+    public JDBCSagaEventRepository(final DataSource dataSource, final GroupCommitSagaEventWriter groupCommitSagaEventWriter) {
+        this.dataSource = dataSource;
+        this.groupCommitSagaEventWriter = groupCommitSagaEventWriter;
+    }
+    
     /**
      * Insert new saga event.
      *
      * @param sagaEvent saga event
      */
     public void insert(final SagaEvent sagaEvent) {
+        if (null != groupCommitSagaEventWriter) {
+            insertByGroupCommit(sagaEvent);
+            return;
+        }
         try (Connection connection = dataSource.getConnection()) {
             JDBCUtil.executeUpdate(connection, INSERT_SQL, generateParams(sagaEvent));
         } catch (SQLException ex) {
@@ -58,6 +78,21 @@ public final class JDBCSagaEventRepository {
         }
     }
     
+    private void insertByGroupCommit(final SagaEvent sagaEvent) {
+        try {
+            Uninterruptibles.getUninterruptibly(groupCommitSagaEventWriter.write(generateParams(sagaEvent)));
+        } catch (final ExecutionException ex) {
+            log.warn("Persist saga event failed", ex.getCause());
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (null != groupCommitSagaEventWriter) {
+            groupCommitSagaEventWriter.close();
+        }
+    }
+    
     private List<Object> generateParams(final SagaEvent sagaEvent) {
         List<Object> result = Lists.newArrayList();
         result.add(sagaEvent.sagaId);
@@ -18,6 +18,7 @@
 package io.shardingsphere.transaction.base.saga.persistence.impl.jdbc;
 
 import com.google.common.collect.Lists;
+import io.shardingsphere.transaction.base.saga.config.SagaPersistenceConfiguration;
 import io.shardingsphere.transaction.base.utils.JDBCUtil;
 import org.apache.servicecomb.saga.core.EventEnvelope;
 import org.apache.servicecomb.saga.core.PersistentStore;
@@ -37,7 +38,7 @@ import java.util.Map;
  *
  * @author yangyi
  */
-public final class JDBCSagaPersistence implements PersistentStore {
+public final class JDBCSagaPersistence implements PersistentStore, AutoCloseable {
     
     private final DataSource dataSource;
     
@@ -48,6 +49,13 @@ public final class JDBCSagaPersistence implements PersistentStore {
         eventRepository = new JDBCSagaEventRepository(dataSource);
     }
     
+    public JDBCSagaPersistence(final DataSource dataSource, final SagaPersistenceConfiguration persistenceConfiguration) {
+        this.dataSource = dataSource;
+        eventRepository = persistenceConfiguration.isGroupCommitEnabled() ? new JDBCSagaEventRepository(dataSource, new GroupCommitSagaEventWriter(dataSource, JDBCSagaEventRepository.INSERT_SQL,
+            persistenceConfiguration.getGroupCommitBatchSize(), persistenceConfiguration.getGroupCommitMaxWaitMilliseconds(), persistenceConfiguration.getGroupCommitQueueSize()))
+            : new JDBCSagaEventRepository(dataSource);
+    }
+    
     /**
      * Create table if not exists.
      */
@@ -74,4 +82,12 @@ public final class JDBCSagaPersistence implements PersistentStore {
     public void offer(final SagaEvent sagaEvent) {
         eventRepository.insert(sagaEvent);
     }
+    
+    @Override
+    public void close() throws Exception {
+        eventRepository.close();
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
 }
@@ -25,4 +25,6 @@ package io.shardingsphere.transaction.base.utils;
 public final class Constant {
     
     public static final String SAGA_TRANSACTION_KEY = "saga_transaction";
+    
+    public static final String SAGA_TRANSACTION_MANAGER_KEY = "saga_transaction_manager";
 }
@@ -25,9 +25,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * JDBC util.
@@ -42,25 +40,47 @@ public class JDBCUtil {
      * @param connection JDBC connection
      * @param sql sql
      * @param params sql parameters
-     * @return result set
+     * @return query result
      * @throws SQLException failed to execute SQL, throw this exception
      */
-    public static List<Map<String, Object>> executeQuery(final Connection connection, final String sql, final Collection<Object> params) throws SQLException {
-        List<Map<String, Object>> result = new ArrayList<>();
+    public static QueryResult executeQuery(final Connection connection, final String sql, final Collection<Object> params) throws SQLException {
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            fillParameters(preparedStatement, params);
-            ResultSet rs = preparedStatement.executeQuery();
+            return executeQuery(preparedStatement, params);
+        }
+    }
+    
+    /**
+     * Execute query use JDBC with statement got from prepared statement cache, the statement is kept open for reuse.
+     *
+     * @param preparedStatementCache prepared statement cache
+     * @param sql sql
+     * @param params sql parameters
+     * @return query result
+     * @throws SQLException failed to execute SQL, throw this exception
+     */
+    public static QueryResult executeQuery(final PreparedStatementCache preparedStatementCache, final String sql, final Collection<Object> params) throws SQLException {
+        return executeQuery(preparedStatementCache.getPreparedStatement(sql), params);
+    }
+    
+    private static QueryResult executeQuery(final PreparedStatement preparedStatement, final Collection<Object> params) throws SQLException {
+        fillParameters(preparedStatement, params);
+        try (ResultSet rs = preparedStatement.executeQuery()) {
             ResultSetMetaData rsMeta = rs.getMetaData();
             int columnCount = rsMeta.getColumnCount();
+            List<String> columnNames = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                columnNames.add(rsMeta.getColumnName(i));
+            }
+            QueryResult result = new QueryResult(columnNames);
             while (rs.next()) {
-                Map<String, Object> rowResultMap = new LinkedHashMap<>();
-                result.add(rowResultMap);
-                for (int i = 1; i <= columnCount; i++) {
-                    rowResultMap.put(rsMeta.getColumnName(i), rs.getObject(i));
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
                 }
+                result.addRow(row);
             }
+            return result;
         }
-        return result;
     }
     
     /**
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.utils;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * LRU prepared statement cache of one connection, keyed by SQL.
+ *
+ * <p>
+ * Statements got from this cache are reused by later callers and must not be closed by them,
+ * they are closed when evicted or when the cache is closed.
+ * </p>
+ *
+ * @author zhaojun
+ */
+@Slf4j
+public final class PreparedStatementCache {
+    
+    @Getter
+    private final Connection connection;
+    
+    private final Map<String, PreparedStatement> cachedStatements;
+    
+    @Getter
+    private volatile long hits;
+    
+    @Getter
+    private volatile long misses;
+    
+    public PreparedStatementCache(final Connection connection, final int maxSize) {
+        Preconditions.checkArgument(maxSize > 0, "Prepared statement cache size must be positive.");
+        this.connection = connection;
+        cachedStatements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            
+            @Override
+            protected boolean removeEldestEntry(final Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Get prepared statement of SQL, create and cache it if absent.
+     *
+     * @param sql SQL
+     * @return prepared statement with cleared parameters
+     * @throws SQLException failed to prepare statement, throw this exception
+     */
+    public synchronized PreparedStatement getPreparedStatement(final String sql) throws SQLException {
+        PreparedStatement result = cachedStatements.get(sql);
+        if (null != result && !result.isClosed()) {
+            hits++;
+            result.clearParameters();
+            return result;
+        }
+        misses++;
+        result = connection.prepareStatement(sql);
+        cachedStatements.put(sql, result);
+        return result;
+    }
+    
+    /**
+     * Get size of cached statements.
+     *
+     * @return size of cached statements
+     */
+    public synchronized int size() {
+        return cachedStatements.size();
+    }
+    
+    /**
+     * Close all cached statements.
+     */
+    public synchronized void close() {
+        for (PreparedStatement each : cachedStatements.values()) {
+            closeQuietly(each);
+        }
+        cachedStatements.clear();
+        log.debug("Prepared statement cache closed, hits: {}, misses: {}", hits, misses);
+    }
+    
+    private void closeQuietly(final PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch (final SQLException ex) {
+            log.warn("Close cached prepared statement failed", ex);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.utils;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact query result, which shares one column header for all rows and keeps row values in arrays.
+ *
+ * @author zhaojun
+ */
+@Getter
+public final class QueryResult {
+    
+    private final List<String> columnNames;
+    
+    private final List<Object[]> rows = new ArrayList<>();
+    
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    
+    public QueryResult(final List<String> columnNames) {
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnIndexes.put(columnNames.get(i).toLowerCase(), i);
+        }
+    }
+    
+    /**
+     * Add row.
+     *
+     * @param row row values, in the same order of column names
+     */
+    public void addRow(final Object[] row) {
+        Preconditions.checkArgument(row.length == columnNames.size(), "Row length %s does not match column count %s", row.length, columnNames.size());
+        rows.add(row);
+    }
+    
+    /**
+     * Find column index ignoring case.
+     *
+     * @param columnName column name
+     * @return column index, -1 if column not exists
+     */
+    public int findColumnIndex(final String columnName) {
+        Integer result = columnIndexes.get(columnName.toLowerCase());
+        return null == result ? -1 : result;
+    }
+    
+    /**
+     * Judge whether query result is empty or not.
+     *
+     * @return is empty or not
+     */
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+}
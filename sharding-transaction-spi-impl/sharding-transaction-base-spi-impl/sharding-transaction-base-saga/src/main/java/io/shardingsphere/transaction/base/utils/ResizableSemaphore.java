@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.utils;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Semaphore whose permits can be resized while permits are held.
+ *
+ * <p>
+ * Shrinking may leave available permits negative, then holders give them back on release before new acquirers are admitted.
+ * </p>
+ *
+ * @author zhaojun
+ */
+public final class ResizableSemaphore extends Semaphore {
+    
+    private static final long serialVersionUID = -2391795364836467215L;
+    
+    public ResizableSemaphore(final int permits) {
+        super(permits);
+    }
+    
+    /**
+     * Resize permits by delta.
+     *
+     * @param delta delta of permits, negative to shrink
+     */
+    public void resize(final int delta) {
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+    }
+}
@@ -17,6 +17,9 @@
 
 package io.shardingsphere.transaction.base.context;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
 import org.apache.shardingsphere.core.metadata.table.TableMetas;
 import org.apache.shardingsphere.core.optimize.api.segment.Tables;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
@@ -28,8 +31,12 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -94,4 +101,93 @@ public final class SagaTransactionTest {
         assertThat(sagaTransaction.getCurrentLogicSQLTransaction().getSqlTransactions().size(), is(1));
         assertFalse(sagaTransaction.isContainsException());
     }
+    
+    @Test
+    public void assertMarkDoomed() {
+        assertFalse(sagaTransaction.isDoomed());
+        assertTrue(sagaTransaction.markDoomed());
+        assertFalse(sagaTransaction.markDoomed());
+        assertTrue(sagaTransaction.isDoomed());
+    }
+    
+    @Test
+    public void assertCreateSucceededSnapshot() {
+        sagaTransaction.nextLogicSQLTransaction("sql1");
+        sagaTransaction.initLogicSQLTransaction(sqlRouteResult, tableMetas);
+        SQLTransaction succeededSQLTransaction = new SQLTransaction("ds0", actualSQL, null, ExecuteStatus.SUCCESS);
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert");
+        revertSQLResult.getParameters().add(Lists.<Object>newArrayList(1));
+        succeededSQLTransaction.setRevertSQLResult(revertSQLResult);
+        sagaTransaction.addSQLTransaction(succeededSQLTransaction);
+        sagaTransaction.addSQLTransaction(new SQLTransaction("ds1", actualSQL, null, ExecuteStatus.FAILURE));
+        sagaTransaction.addSQLTransaction(new SQLTransaction("ds2", actualSQL, null, ExecuteStatus.EXECUTING));
+        ShardingSQLTransaction actual = sagaTransaction.createSucceededSnapshot();
+        assertThat(actual.getLogicSQLTransactions().size(), is(1));
+        assertThat(actual.getLogicSQLTransactions().get(0).getSqlTransactions().size(), is(1));
+        SQLTransaction actualSQLTransaction = actual.getLogicSQLTransactions().get(0).getSqlTransactions().peek();
+        assertThat(actualSQLTransaction, not(succeededSQLTransaction));
+        assertThat(actualSQLTransaction.getSqlTransactionId(), is(succeededSQLTransaction.getSqlTransactionId()));
+        actualSQLTransaction.getRevertSQLResult().getParameters().clear();
+        assertThat(revertSQLResult.getParameters().size(), is(1));
+        assertTrue(actual.isContainsSQLTransaction());
+        assertThat(actual.getPriority(), is(sagaTransaction.getPriority()));
+    }
+    
+    @Test
+    public void assertMergeCompensatedStatus() {
+        sagaTransaction.nextLogicSQLTransaction("sql1");
+        sagaTransaction.initLogicSQLTransaction(sqlRouteResult, tableMetas);
+        SQLTransaction succeededSQLTransaction = new SQLTransaction("ds0", actualSQL, null, ExecuteStatus.SUCCESS);
+        sagaTransaction.addSQLTransaction(succeededSQLTransaction);
+        ShardingSQLTransaction succeededSnapshot = sagaTransaction.createSucceededSnapshot();
+        succeededSnapshot.getLogicSQLTransactions().get(0).getSqlTransactions().peek().setExecuteStatus(ExecuteStatus.COMPENSATED);
+        assertThat(succeededSQLTransaction.getExecuteStatus(), is(ExecuteStatus.SUCCESS));
+        sagaTransaction.mergeCompensatedStatus(succeededSnapshot);
+        assertThat(succeededSQLTransaction.getExecuteStatus(), is(ExecuteStatus.COMPENSATED));
+    }
+    
+    @Test
+    public void assertChangeAllLogicTransactionStatusKeepCompensated() {
+        sagaTransaction.nextLogicSQLTransaction("sql1");
+        sagaTransaction.initLogicSQLTransaction(sqlRouteResult, tableMetas);
+        SQLTransaction compensatedSQLTransaction = new SQLTransaction("ds0", actualSQL, null, ExecuteStatus.COMPENSATED);
+        SQLTransaction succeededSQLTransaction = new SQLTransaction("ds1", actualSQL, null, ExecuteStatus.SUCCESS);
+        sagaTransaction.addSQLTransaction(compensatedSQLTransaction);
+        sagaTransaction.addSQLTransaction(succeededSQLTransaction);
+        sagaTransaction.changeAllLogicTransactionStatus(ExecuteStatus.COMPENSATING);
+        assertThat(compensatedSQLTransaction.getExecuteStatus(), is(ExecuteStatus.COMPENSATED));
+        assertThat(succeededSQLTransaction.getExecuteStatus(), is(ExecuteStatus.COMPENSATING));
+    }
+    
+    @Test
+    public void assertFindSQLTransactionByAllRevertParameters() {
+        sagaTransaction.nextLogicSQLTransaction("sql1");
+        sagaTransaction.initLogicSQLTransaction(sqlRouteResult, tableMetas);
+        SQLTransaction firstSQLTransaction = newCompensatingSQLTransaction(1, 2);
+        SQLTransaction secondSQLTransaction = newCompensatingSQLTransaction(3);
+        sagaTransaction.addSQLTransaction(firstSQLTransaction);
+        sagaTransaction.addSQLTransaction(secondSQLTransaction);
+        assertThat(sagaTransaction.findSQLTransaction("ds0", "revert", toSagaParameters("1", "2")), is(Optional.of(firstSQLTransaction)));
+        assertThat(sagaTransaction.findSQLTransaction("ds0", "revert", toSagaParameters("3")), is(Optional.of(secondSQLTransaction)));
+        assertFalse(sagaTransaction.findSQLTransaction("ds0", "revert", toSagaParameters("1")).isPresent());
+        assertFalse(sagaTransaction.findSQLTransaction("ds0", "revert", toSagaParameters("3", "4")).isPresent());
+    }
+    
+    private SQLTransaction newCompensatingSQLTransaction(final Object... revertParameters) {
+        SQLTransaction result = new SQLTransaction("ds0", actualSQL, null, ExecuteStatus.COMPENSATING);
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert");
+        for (Object each : revertParameters) {
+            revertSQLResult.getParameters().add(Lists.newArrayList(each));
+        }
+        result.setRevertSQLResult(revertSQLResult);
+        return result;
+    }
+    
+    private List<List<String>> toSagaParameters(final String... parameters) {
+        List<List<String>> result = Lists.newLinkedList();
+        for (String each : parameters) {
+            result.add(Collections.singletonList(each));
+        }
+        return result;
+    }
 }
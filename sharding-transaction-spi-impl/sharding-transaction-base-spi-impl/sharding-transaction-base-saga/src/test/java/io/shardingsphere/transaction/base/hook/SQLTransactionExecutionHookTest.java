@@ -23,7 +23,10 @@ import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
 import io.shardingsphere.transaction.base.hook.revert.utils.MockTestUtil;
 import io.shardingsphere.transaction.base.SagaShardingTransactionManager;
+import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import lombok.SneakyThrows;
+import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.metadata.table.TableMetaData;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingTransparentOptimizedStatement;
@@ -54,6 +57,9 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class SQLTransactionExecutionHookTest {
     
+    @Mock
+    private ShardingSQLTransactionManager shardingSQLTransactionManager;
+    
     @Mock
     private ShardingSQLTransaction shardingSQLTransaction;
     
@@ -85,8 +91,10 @@ public class SQLTransactionExecutionHookTest {
     public void assertStartWithinTransaction() throws SQLException {
         when(logicSQLTransaction.isWritableTransaction()).thenReturn(true);
         shardingExecuteDataMap.put(SAGA_TRANSACTION_KEY, shardingSQLTransaction);
-        cachedConnections.put("ds", MockTestUtil.mockConnection());
+        Connection connection = MockTestUtil.mockConnection();
+        cachedConnections.put("ds", connection);
         when(shardingSQLTransaction.getCachedConnections()).thenReturn(cachedConnections);
+        when(shardingSQLTransaction.getPreparedStatementCache(connection)).thenReturn(new PreparedStatementCache(connection, 16));
         SQLStatement sqlStatement = MockTestUtil.mockDeleteStatement("t_order");
         ShardingOptimizedStatement optimizedStatement = new ShardingTransparentOptimizedStatement(sqlStatement);
         when(logicSQLTransaction.getSqlRouteResult()).thenReturn(MockTestUtil.mockSQLRouteResult(optimizedStatement, "ds", "t_order", "t_order_0"));
@@ -95,6 +103,14 @@ public class SQLTransactionExecutionHookTest {
         verify(shardingSQLTransaction).addSQLTransaction(any(SQLTransaction.class));
     }
     
+    @Test(expected = ShardingException.class)
+    public void assertStartWhenDoomed() {
+        when(logicSQLTransaction.isWritableTransaction()).thenReturn(true);
+        when(shardingSQLTransaction.isDoomed()).thenReturn(true);
+        shardingExecuteDataMap.put(SAGA_TRANSACTION_KEY, shardingSQLTransaction);
+        sqlExecutionHook.start(mock(RouteUnit.class), dataSourceMetaData, true, shardingExecuteDataMap);
+    }
+    
     @Test
     public void assertStartWithoutTransaction() {
         sqlExecutionHook.start(mock(RouteUnit.class), dataSourceMetaData, true, shardingExecuteDataMap);
@@ -119,6 +135,7 @@ public class SQLTransactionExecutionHookTest {
         setBranchTransaction();
         sqlExecutionHook.finishFailure(mock(Exception.class));
         verify(sqlTransaction).setExecuteStatus(ExecuteStatus.FAILURE);
+        verify(shardingSQLTransactionManager).doom(shardingSQLTransaction);
     }
     
     @SneakyThrows
@@ -126,5 +143,11 @@ public class SQLTransactionExecutionHookTest {
         Field field = sqlExecutionHook.getClass().getDeclaredField("sqlTransaction");
         field.setAccessible(true);
         field.set(sqlExecutionHook, sqlTransaction);
+        Field shardingSQLTransactionField = sqlExecutionHook.getClass().getDeclaredField("shardingSQLTransaction");
+        shardingSQLTransactionField.setAccessible(true);
+        shardingSQLTransactionField.set(sqlExecutionHook, shardingSQLTransaction);
+        Field shardingSQLTransactionManagerField = sqlExecutionHook.getClass().getDeclaredField("shardingSQLTransactionManager");
+        shardingSQLTransactionManagerField.setAccessible(true);
+        shardingSQLTransactionManagerField.set(sqlExecutionHook, shardingSQLTransactionManager);
     }
 }
\ No newline at end of file
@@ -19,10 +19,12 @@ package io.shardingsphere.transaction.base.hook;
 
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
 import io.shardingsphere.transaction.base.saga.ShardingSQLTransactionManager;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import org.apache.shardingsphere.core.metadata.table.TableMetas;
 import org.apache.shardingsphere.core.optimize.api.segment.Tables;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
 import org.apache.shardingsphere.core.route.SQLRouteResult;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -55,18 +57,26 @@ public final class TransactionalSQLShardHookTest {
     
     private final TransactionalSQLRoutingHook sagaSQLShardHook = new TransactionalSQLRoutingHook();
     
+    private final ShardingSQLTransactionManager shardingSQLTransactionManager = new ShardingSQLTransactionManager(new SagaConfiguration());
+    
     @Before
     public void setUp() {
-        ShardingSQLTransactionManager.getInstance().begin();
+        shardingSQLTransactionManager.begin();
 //        when(sqlRouteResult.getShardingStatement()).thenReturn(shardingOptimizedStatement);
 //        when(shardingOptimizedStatement.getTables()).thenReturn(tables);
 //        when(tables.getSingleTableName()).thenReturn("table");
     }
     
+    @After
+    public void tearDown() {
+        shardingSQLTransactionManager.clear();
+        shardingSQLTransactionManager.close();
+    }
+    
     @Test
     @Ignore("fix it later")
     public void assertFinishSuccess() {
-        ShardingSQLTransaction shardingSQLTransaction = spy(ShardingSQLTransactionManager.getInstance().getCurrentTransaction());
+        ShardingSQLTransaction shardingSQLTransaction = spy(shardingSQLTransactionManager.getCurrentTransaction());
         sagaSQLShardHook.start("logicSQL");
         sagaSQLShardHook.finishSuccess(sqlRouteResult, tableMetas);
         verify(shardingSQLTransaction).nextLogicSQLTransaction("logicSQL");
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.hook.revert;
+
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLTemplateType;
+import io.shardingsphere.transaction.base.hook.revert.executor.insert.InsertMultiRowRevertSQL;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public final class SQLTemplateCacheTest {
+    
+    @Before
+    public void setUp() {
+        SQLTemplateCache.getInstance().clear();
+    }
+    
+    @Test
+    public void assertGetWithEqualKey() {
+        SQLTemplateCache.getInstance().get(new SQLTemplateKey(SQLTemplateType.UPDATE_REVERT, "t_order_0", Arrays.asList("status", "modifier"), Collections.singletonList("order_id")),
+            render("UPDATE t_order_0 SET status = ?, modifier = ? WHERE order_id = ?"));
+        String actual = SQLTemplateCache.getInstance().get(
+            new SQLTemplateKey(SQLTemplateType.UPDATE_REVERT, "t_order_0", Arrays.asList("status", "modifier"), Collections.singletonList("order_id")), render("unexpected"));
+        assertThat(actual, is("UPDATE t_order_0 SET status = ?, modifier = ? WHERE order_id = ?"));
+    }
+    
+    @Test
+    public void assertGetWithDifferentColumnOrder() {
+        SQLTemplateCache.getInstance().get(new SQLTemplateKey(SQLTemplateType.UPDATE_REVERT, "t_order_0", Arrays.asList("status", "modifier"), Collections.singletonList("order_id")),
+            render("UPDATE t_order_0 SET status = ?, modifier = ? WHERE order_id = ?"));
+        String actual = SQLTemplateCache.getInstance().get(new SQLTemplateKey(SQLTemplateType.UPDATE_REVERT, "t_order_0", Arrays.asList("modifier", "status"), Collections.singletonList("order_id")),
+            render("UPDATE t_order_0 SET modifier = ?, status = ? WHERE order_id = ?"));
+        assertThat(actual, is("UPDATE t_order_0 SET modifier = ?, status = ? WHERE order_id = ?"));
+    }
+    
+    @Test
+    public void assertGetWithDifferentRowCount() {
+        SQLTemplateKey key = new SQLTemplateKey(SQLTemplateType.INSERT_REVERT, "t_order_0", Collections.singletonList("order_id"));
+        SQLTemplateCache.getInstance().get(key.withRowCount(2), render("DELETE FROM t_order_0 WHERE order_id IN (?,?)"));
+        assertThat(SQLTemplateCache.getInstance().get(key.withRowCount(3), render("DELETE FROM t_order_0 WHERE order_id IN (?,?,?)")), is("DELETE FROM t_order_0 WHERE order_id IN (?,?,?)"));
+        assertThat(SQLTemplateCache.getInstance().get(key.withRowCount(2), render("unexpected")), is("DELETE FROM t_order_0 WHERE order_id IN (?,?)"));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void assertGetWhenRenderFailed() {
+        SQLTemplateCache.getInstance().get(new SQLTemplateKey(SQLTemplateType.SNAPSHOT_QUERY, "t_order_0"), new Callable<String>() {
+            
+            @Override
+            public String call() {
+                throw new IllegalStateException("render failed");
+            }
+        });
+    }
+    
+    @Test
+    public void assertRenderedTemplateIsReused() {
+        String expected = new InsertMultiRowRevertSQL("t_order_0", Collections.singletonList("order_id")).toSQL(3);
+        assertThat(new InsertMultiRowRevertSQL("t_order_0", Collections.singletonList("order_id")).toSQL(3), sameInstance(expected));
+        assertThat(SQLTemplateCache.getInstance().size(), is(1L));
+    }
+    
+    private Callable<String> render(final String sql) {
+        return new Callable<String>() {
+            
+            @Override
+            public String call() {
+                return sql;
+            }
+        };
+    }
+}
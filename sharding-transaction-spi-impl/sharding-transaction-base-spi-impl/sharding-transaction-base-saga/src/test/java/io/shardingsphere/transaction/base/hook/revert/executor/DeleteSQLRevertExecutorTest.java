@@ -18,10 +18,11 @@
 package io.shardingsphere.transaction.base.hook.revert.executor;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
 import io.shardingsphere.transaction.base.hook.revert.executor.delete.DeleteSQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.snapshot.DeleteSnapshotAccessor;
+import io.shardingsphere.transaction.base.utils.QueryResult;
+import org.apache.shardingsphere.core.database.DatabaseTypes;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,9 +30,8 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
@@ -50,7 +50,7 @@ public class DeleteSQLRevertExecutorTest {
     
     private DeleteSQLRevertExecutor deleteSQLRevertExecutor;
     
-    private List<Map<String, Object>> undoData = Lists.newLinkedList();
+    private QueryResult undoData = new QueryResult(Arrays.asList("order_id", "user_id", "status"));
     
     private RevertSQLResult revertSQLResult = new RevertSQLResult("");
     
@@ -63,11 +63,7 @@ public class DeleteSQLRevertExecutorTest {
     
     private void addUndoData() {
         for (int i = 1; i <= 10; i++) {
-            Map<String, Object> record = new HashMap<>();
-            record.put("order_id", i);
-            record.put("user_id", i);
-            record.put("status", "init");
-            undoData.add(record);
+            undoData.addRow(new Object[]{i, i, "init"});
         }
     }
     
@@ -79,9 +75,38 @@ public class DeleteSQLRevertExecutorTest {
         assertThat(actual.get(), is("INSERT INTO t_order_0 VALUES (?,?,?)"));
     }
     
+    @Test
+    public void assertGenerateSQLForMySQL() throws SQLException {
+        when(executorContext.getDatabaseType()).thenReturn(DatabaseTypes.getActualDatabaseType("MySQL"));
+        when(executorContext.getPrimaryKeyColumns()).thenReturn(Collections.singletonList("order_id"));
+        deleteSQLRevertExecutor = new DeleteSQLRevertExecutor(executorContext, snapshotAccessor);
+        Optional<String> actual = deleteSQLRevertExecutor.revertSQL();
+        assertTrue(actual.isPresent());
+        assertThat(actual.get(), is("INSERT INTO t_order_0 (order_id, user_id, status) VALUES (?,?,?) ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), status = VALUES(status)"));
+    }
+    
+    @Test
+    public void assertGenerateSQLForPostgreSQL() throws SQLException {
+        when(executorContext.getDatabaseType()).thenReturn(DatabaseTypes.getActualDatabaseType("PostgreSQL"));
+        when(executorContext.getPrimaryKeyColumns()).thenReturn(Collections.singletonList("order_id"));
+        deleteSQLRevertExecutor = new DeleteSQLRevertExecutor(executorContext, snapshotAccessor);
+        Optional<String> actual = deleteSQLRevertExecutor.revertSQL();
+        assertTrue(actual.isPresent());
+        assertThat(actual.get(), is("INSERT INTO t_order_0 (order_id, user_id, status) VALUES (?,?,?) ON CONFLICT (order_id) DO UPDATE SET user_id = EXCLUDED.user_id, status = EXCLUDED.status"));
+    }
+    
+    @Test
+    public void assertGenerateSQLForH2() throws SQLException {
+        when(executorContext.getDatabaseType()).thenReturn(DatabaseTypes.getActualDatabaseType("H2"));
+        when(executorContext.getPrimaryKeyColumns()).thenReturn(Collections.singletonList("order_id"));
+        deleteSQLRevertExecutor = new DeleteSQLRevertExecutor(executorContext, snapshotAccessor);
+        deleteSQLRevertExecutor.fillParameters(revertSQLResult);
+        assertThat(revertSQLResult.getMultiRowRevertSQL().get().toSQL(2), is("MERGE INTO t_order_0 (order_id, user_id, status) KEY (order_id) VALUES (?,?,?), (?,?,?)"));
+    }
+    
     @Test
     public void assertGenerateRevertSQLWithoutUndoData() throws SQLException {
-        when(snapshotAccessor.queryUndoData()).thenReturn(Lists.<Map<String, Object>>newLinkedList());
+        when(snapshotAccessor.queryUndoData()).thenReturn(new QueryResult(Collections.<String>emptyList()));
         deleteSQLRevertExecutor = new DeleteSQLRevertExecutor(executorContext, snapshotAccessor);
         Optional<String> actual = deleteSQLRevertExecutor.revertSQL();
         assertFalse(actual.isPresent());
@@ -93,5 +118,7 @@ public class DeleteSQLRevertExecutorTest {
         deleteSQLRevertExecutor.fillParameters(revertSQLResult);
         assertThat(revertSQLResult.getParameters().size(), is(10));
         assertThat(revertSQLResult.getParameters().iterator().next().size(), is(3));
+        assertTrue(revertSQLResult.getMultiRowRevertSQL().isPresent());
+        assertThat(revertSQLResult.getMultiRowRevertSQL().get().toSQL(2), is("INSERT INTO t_order_0 VALUES (?,?,?), (?,?,?)"));
     }
 }
@@ -19,6 +19,7 @@ package io.shardingsphere.transaction.base.hook.revert.executor;
 
 import com.google.common.base.Optional;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
 import io.shardingsphere.transaction.base.hook.revert.executor.insert.InsertSQLRevertContext;
 import io.shardingsphere.transaction.base.hook.revert.executor.insert.InsertSQLRevertExecutor;
 import lombok.SneakyThrows;
@@ -29,6 +30,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -89,6 +91,10 @@ public class InsertSQLRevertExecutorTest {
         Iterator iterator = firstItem.iterator();
         assertThat(iterator.next(), CoreMatchers.<Object>is("user_id_1"));
         assertThat(iterator.next(), CoreMatchers.<Object>is("order_id_1"));
+        assertTrue(revertSQLResult.getMultiRowRevertSQL().isPresent());
+        assertThat(revertSQLResult.getMultiRowRevertSQL().get().toSQL(2), is("DELETE FROM t_order_0 WHERE (user_id = ? AND order_id = ?) OR (user_id = ? AND order_id = ?)"));
+        assertThat(revertSQLResult.getMetaData().get().getDmlType(), is(DMLType.INSERT));
+        assertThat(revertSQLResult.getMetaData().get().getPrimaryKeyParameterIndexes(), is(Arrays.asList(0, 1)));
     }
     
     @Test
@@ -108,6 +114,9 @@ public class InsertSQLRevertExecutorTest {
         assertThat(firstItem.size(), is(1));
         Iterator iterator = firstItem.iterator();
         assertThat(iterator.next(), CoreMatchers.<Object>is("user_id_1"));
+        assertTrue(revertSQLResult.getMultiRowRevertSQL().isPresent());
+        assertThat(revertSQLResult.getMultiRowRevertSQL().get().getRowParameterCount(), is(1));
+        assertThat(revertSQLResult.getMultiRowRevertSQL().get().toSQL(3), is("DELETE FROM t_order_0 WHERE user_id IN (?, ?, ?)"));
     }
     
     @Test(expected = IllegalStateException.class)
@@ -21,6 +21,7 @@ import com.google.common.base.Optional;
 import io.shardingsphere.transaction.base.hook.revert.executor.delete.DeleteSQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.executor.insert.InsertSQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.executor.update.UpdateSQLRevertExecutor;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
 import org.apache.shardingsphere.core.optimize.sharding.statement.dml.ShardingInsertOptimizedStatement;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.assignment.SetAssignmentsSegment;
@@ -109,6 +110,7 @@ public class SQLRevertExecutorFactoryTest {
     public void assertNewDeleteSQLRevertExecutor() throws SQLException {
         when(shardingStatement.getSQLStatement()).thenReturn(deleteStatement);
         when(executorContext.getConnection()).thenReturn(connection);
+        when(executorContext.getPreparedStatementCache()).thenReturn(new PreparedStatementCache(connection, 16));
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.getMetaData()).thenReturn(resultSetMetaData);
@@ -120,6 +122,7 @@ public class SQLRevertExecutorFactoryTest {
     public void assertNewUpdateSQLRevertExecutor() throws SQLException {
         when(shardingStatement.getSQLStatement()).thenReturn(updateStatement);
         when(executorContext.getConnection()).thenReturn(connection);
+        when(executorContext.getPreparedStatementCache()).thenReturn(new PreparedStatementCache(connection, 16));
         when(executorContext.getPrimaryKeyColumns()).thenReturn(primaryKeyColumns);
         when(executorContext.getParameters()).thenReturn(Arrays.<Object>asList(1, 2, 3));
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
@@ -22,6 +22,8 @@ import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
 import io.shardingsphere.transaction.base.hook.revert.executor.update.UpdateSQLRevertExecutor;
 import io.shardingsphere.transaction.base.hook.revert.snapshot.UpdateSnapshotAccessor;
+import io.shardingsphere.transaction.base.utils.QueryResult;
+import org.apache.shardingsphere.core.exception.ShardingException;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.assignment.AssignmentSegment;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.assignment.SetAssignmentsSegment;
@@ -43,12 +45,11 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -77,15 +78,12 @@ public class UpdateSQLRevertExecutorTest {
     
     private List<Object> parameters = new LinkedList<>();
     
-    private List<Map<String, Object>> undoData = Lists.newLinkedList();
-    
     private UpdateSQLRevertExecutor sqlRevertExecutor;
     
     @Before
     public void setUp() throws SQLException {
         when(updateStatement.getSetAssignment()).thenReturn(setAssignmentsSegment);
         when(setAssignmentsSegment.getAssignments()).thenReturn(assignments);
-        when(snapshotAccessor.queryUndoData()).thenReturn(undoData);
         when(executorContext.getShardingStatement()).thenReturn(shardingOptimizedStatement);
         when(shardingOptimizedStatement.getSQLStatement()).thenReturn(updateStatement);
         when(executorContext.getParameters()).thenReturn(parameters);
@@ -111,14 +109,16 @@ public class UpdateSQLRevertExecutorTest {
         }
     }
     
-    private void setSnapshot(final int count, String... columns) {
+    private void setSnapshot(final int count, String... columns) throws SQLException {
+        QueryResult undoData = new QueryResult(Arrays.asList(columns));
         for (int i = 1; i <= count; i++) {
-            Map<String, Object> record = new HashMap<>();
-            for (String each : columns) {
-                record.put(each, each + "_" + i);
+            Object[] row = new Object[columns.length];
+            for (int j = 0; j < columns.length; j++) {
+                row[j] = columns[j] + "_" + i;
             }
-            undoData.add(record);
+            undoData.addRow(row);
         }
+        when(snapshotAccessor.queryUndoData()).thenReturn(undoData);
     }
     
     @Test
@@ -167,6 +167,7 @@ public class UpdateSQLRevertExecutorTest {
             assertThat(parameterRow.get(2), CoreMatchers.<Object>is("order_id_1"));
             assertThat(parameterRow.get(3), CoreMatchers.<Object>is(1000L));
         }
+        assertTrue(revertSQLResult.getMetaData().get().isPrimaryKeyChanged());
     }
     
     @Test
@@ -205,5 +206,50 @@ public class UpdateSQLRevertExecutorTest {
             assertThat(parameterRow.get(3), CoreMatchers.<Object>is("pk_2_" + offset));
             offset++;
         }
+        assertFalse(revertSQLResult.getMetaData().get().isPrimaryKeyChanged());
+        assertThat(revertSQLResult.getMetaData().get().getPrimaryKeyParameterIndexes(), is(Arrays.asList(2, 3)));
+    }
+    
+    @Test
+    public void assertRevertSQLWithoutUnchangedColumns() throws SQLException {
+        setUpdateAssignments("t_order", "user_id", "status");
+        setSnapshot(Arrays.asList("user_id", "status", "order_id"), new Object[]{1, "init", 1L});
+        sqlRevertExecutor = new UpdateSQLRevertExecutor(executorContext, snapshotAccessor);
+        Optional<String> actual = sqlRevertExecutor.revertSQL();
+        assertTrue(actual.isPresent());
+        assertThat(actual.get(), is("UPDATE t_order_0 SET status = ? WHERE order_id = ?"));
+    }
+    
+    @Test
+    public void assertRevertSQLWithoutChangedRows() throws SQLException {
+        setUpdateAssignments("t_order", "user_id");
+        setSnapshot(Arrays.asList("user_id", "order_id"), new Object[]{1L, 1L}, new Object[]{1L, 2L});
+        sqlRevertExecutor = new UpdateSQLRevertExecutor(executorContext, snapshotAccessor);
+        assertFalse(sqlRevertExecutor.revertSQL().isPresent());
+    }
+    
+    @Test
+    public void assertFillParametersWithoutUnchangedRows() throws SQLException {
+        setUpdateAssignments("t_order", "user_id");
+        setSnapshot(Arrays.asList("user_id", "order_id"), new Object[]{1L, 1L}, new Object[]{2L, 2L});
+        sqlRevertExecutor = new UpdateSQLRevertExecutor(executorContext, snapshotAccessor);
+        sqlRevertExecutor.fillParameters(revertSQLResult);
+        assertThat(revertSQLResult.getParameters().size(), is(1));
+        assertThat(revertSQLResult.getParameters().get(0), is((Collection<Object>) Arrays.<Object>asList(2L, 2L)));
+    }
+    
+    @Test(expected = ShardingException.class)
+    public void assertNewInstanceWhenUpdateColumnMissingInSnapshot() throws SQLException {
+        setUpdateAssignments("t_order", "user_id", "status");
+        setSnapshot(Arrays.asList("user_id", "order_id"), new Object[]{2L, 1L});
+        new UpdateSQLRevertExecutor(executorContext, snapshotAccessor);
+    }
+    
+    private void setSnapshot(final List<String> columns, final Object[]... rows) throws SQLException {
+        QueryResult undoData = new QueryResult(columns);
+        for (Object[] each : rows) {
+            undoData.addRow(each);
+        }
+        when(snapshotAccessor.queryUndoData()).thenReturn(undoData);
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ package io.shardingsphere.transaction.base.hook.revert.snapshot;
 
 import com.google.common.base.Optional;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
 import org.apache.shardingsphere.core.parse.sql.segment.dml.predicate.WhereSegment;
 import org.apache.shardingsphere.core.parse.sql.statement.dml.DeleteStatement;
@@ -86,6 +87,7 @@ public class DeleteSnapshotAccessorTest {
         when(whereSegment.getStopIndex()).thenReturn(37);
         when(deleteStatement.getWhere()).thenReturn(Optional.of(whereSegment));
         when(executorContext.getConnection()).thenReturn(connection);
+        when(executorContext.getPreparedStatementCache()).thenReturn(new PreparedStatementCache(connection, 16));
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.getMetaData()).thenReturn(resultSetMetaData);
@@ -107,4 +109,4 @@ public class DeleteSnapshotAccessorTest {
         deleteSnapshotAccessor.queryUndoData();
         verify(connection).prepareStatement("SELECT * FROM t_order_0 WHERE order_id = ? ");
     }
-}
\ No newline at end of file
+}
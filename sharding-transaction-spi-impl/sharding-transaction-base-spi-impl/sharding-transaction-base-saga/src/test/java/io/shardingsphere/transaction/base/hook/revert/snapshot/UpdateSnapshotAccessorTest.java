@@ -20,6 +20,7 @@ package io.shardingsphere.transaction.base.hook.revert.snapshot;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.hook.revert.executor.SQLRevertExecutorContext;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import org.apache.shardingsphere.core.optimize.api.segment.Table;
 import org.apache.shardingsphere.core.optimize.api.segment.Tables;
 import org.apache.shardingsphere.core.optimize.sharding.statement.ShardingOptimizedStatement;
@@ -101,6 +102,7 @@ public class UpdateSnapshotAccessorTest {
         when(executorContext.getShardingStatement()).thenReturn(shardingOptimizedStatement);
         when(shardingOptimizedStatement.getSQLStatement()).thenReturn(updateStatement);
         when(executorContext.getConnection()).thenReturn(connection);
+        when(executorContext.getPreparedStatementCache()).thenReturn(new PreparedStatementCache(connection, 16));
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.getMetaData()).thenReturn(resultSetMetaData);
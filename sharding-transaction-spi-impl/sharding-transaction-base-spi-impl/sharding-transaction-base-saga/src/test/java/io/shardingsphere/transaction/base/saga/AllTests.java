@@ -20,6 +20,7 @@ package io.shardingsphere.transaction.base.saga;
 import io.shardingsphere.transaction.base.hook.AllHookTests;
 import io.shardingsphere.transaction.base.saga.actuator.AllActuatorTests;
 import io.shardingsphere.transaction.base.saga.config.SagaConfigurationLoaderTest;
+import io.shardingsphere.transaction.base.saga.config.SagaConfigurationWatcherTest;
 import io.shardingsphere.transaction.base.context.AllContextTests;
 import io.shardingsphere.transaction.base.saga.persistence.AllPersistenceTests;
 import org.junit.runner.RunWith;
@@ -28,7 +29,9 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+        ShardingSQLTransactionManagerTest.class,
         SagaConfigurationLoaderTest.class,
+        SagaConfigurationWatcherTest.class,
         AllContextTests.class,
         AllHookTests.class,
         AllPersistenceTests.class,
@@ -20,8 +20,11 @@ package io.shardingsphere.transaction.base.saga;
 import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.SagaShardingTransactionManager;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.saga.actuator.SagaActuator;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.executor.SagaPriority;
+import io.shardingsphere.transaction.base.saga.actuator.transport.CompensationConnectionManager;
 import lombok.SneakyThrows;
-import org.apache.servicecomb.saga.core.application.SagaExecutionComponent;
 import org.apache.shardingsphere.core.database.DatabaseTypes;
 import org.apache.shardingsphere.core.execute.ShardingExecuteDataMap;
 import org.apache.shardingsphere.transaction.core.ResourceDataSource;
@@ -48,7 +51,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -69,7 +73,7 @@ public class SagaShardingTransactionManagerTest {
     private ShardingSQLTransaction shardingSQLTransaction;
     
     @Mock
-    private SagaExecutionComponent sagaActuator;
+    private SagaActuator sagaActuator;
     
     private Map<String, DataSource> dataSourceMap = new HashMap<>();
     
@@ -80,7 +84,8 @@ public class SagaShardingTransactionManagerTest {
     
     @After
     public void tearDown() {
-        ShardingSQLTransactionManager.getInstance().clear();
+        transactionManager.rollback();
+        transactionManager.close();
     }
     
     @Test
@@ -121,10 +126,19 @@ public class SagaShardingTransactionManagerTest {
         transactionManager.begin();
         ShardingSQLTransaction expect = transactionManager.getCurrentTransaction();
         assertNotNull(expect);
+        assertNotNull(expect.getCompensationConnectionManager());
         ShardingSQLTransaction actual = (ShardingSQLTransaction) ShardingExecuteDataMap.getDataMap().get(SAGA_TRANSACTION_KEY);
         assertThat(actual, is(expect));
     }
     
+    @Test
+    public void assertBeginInTransaction() {
+        transactionManager.begin();
+        CompensationConnectionManager expect = transactionManager.getCurrentTransaction().getCompensationConnectionManager();
+        transactionManager.begin();
+        assertThat(transactionManager.getCurrentTransaction().getCompensationConnectionManager(), is(expect));
+    }
+    
     @Test
     public void assertCommitContainsException() {
         setSagaActuator();
@@ -132,7 +146,7 @@ public class SagaShardingTransactionManagerTest {
         transactionManager.begin();
         transactionManager.commit();
         verify(shardingSQLTransaction).setOperationType(TransactionOperationType.COMMIT);
-        verify(sagaActuator).run(anyString());
+        verify(sagaActuator).run(any(SagaDefinition.class), eq(SagaPriority.NORMAL));
     }
     
     @Test
@@ -142,7 +156,7 @@ public class SagaShardingTransactionManagerTest {
         transactionManager.begin();
         transactionManager.commit();
         verify(shardingSQLTransaction, never()).setOperationType(TransactionOperationType.COMMIT);
-        verify(sagaActuator, never()).run(anyString());
+        verify(sagaActuator, never()).run(any(SagaDefinition.class), eq(SagaPriority.NORMAL));
     }
     
     @Test
@@ -151,7 +165,7 @@ public class SagaShardingTransactionManagerTest {
         transactionManager.begin();
         transactionManager.rollback();
         verify(shardingSQLTransaction).setOperationType(TransactionOperationType.ROLLBACK);
-        verify(sagaActuator).run(anyString());
+        verify(sagaActuator).run(any(SagaDefinition.class), eq(SagaPriority.NORMAL));
     }
     
     @Test
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga;
+
+import io.shardingsphere.transaction.base.context.ExecuteStatus;
+import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.saga.actuator.transport.CompensationConnectionManager;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceBulkhead;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceCircuitBreaker;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SQLErrorType;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import io.shardingsphere.transaction.base.utils.Constant;
+import org.apache.shardingsphere.core.exception.ShardingException;
+import org.apache.shardingsphere.core.execute.ShardingExecuteDataMap;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public final class ShardingSQLTransactionManagerTest {
+    
+    private final ShardingSQLTransactionManager shardingSQLTransactionManager = new ShardingSQLTransactionManager(new SagaConfiguration());
+    
+    private final ShardingSQLTransactionManager anotherShardingSQLTransactionManager = new ShardingSQLTransactionManager(createSagaConfiguration(2));
+    
+    @After
+    public void tearDown() {
+        shardingSQLTransactionManager.clear();
+        anotherShardingSQLTransactionManager.clear();
+        shardingSQLTransactionManager.close();
+        anotherShardingSQLTransactionManager.close();
+    }
+    
+    private SagaConfiguration createSagaConfiguration(final int executorSize) {
+        SagaConfiguration result = new SagaConfiguration();
+        result.setExecutorSize(executorSize);
+        return result;
+    }
+    
+    @Test
+    public void assertBegin() {
+        shardingSQLTransactionManager.begin();
+        assertTrue(shardingSQLTransactionManager.isInTransaction());
+        assertThat(ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_KEY), is((Object) shardingSQLTransactionManager.getCurrentTransaction()));
+        assertThat(ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_MANAGER_KEY), is((Object) shardingSQLTransactionManager));
+    }
+    
+    @Test
+    public void assertClear() {
+        shardingSQLTransactionManager.begin();
+        shardingSQLTransactionManager.clear();
+        assertFalse(shardingSQLTransactionManager.isInTransaction());
+        assertNull(ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_KEY));
+        assertNull(ShardingExecuteDataMap.getDataMap().get(Constant.SAGA_TRANSACTION_MANAGER_KEY));
+    }
+    
+    @Test
+    public void assertCommitDoomedTransaction() {
+        shardingSQLTransactionManager.begin();
+        shardingSQLTransactionManager.getCurrentTransaction().markDoomed();
+        try {
+            shardingSQLTransactionManager.commit();
+            fail("Expected sharding exception");
+        } catch (final ShardingException ex) {
+            assertFalse(shardingSQLTransactionManager.isInTransaction());
+        }
+    }
+    
+    @Test
+    public void assertRollbackAfterReload() {
+        shardingSQLTransactionManager.reload(createSagaConfiguration(4));
+        shardingSQLTransactionManager.begin();
+        shardingSQLTransactionManager.rollback();
+        assertFalse(shardingSQLTransactionManager.isInTransaction());
+        assertThat(shardingSQLTransactionManager.getSagaConfiguration().getExecutorSize(), is(4));
+    }
+    
+    @Test
+    public void assertKeepCircuitBreakerAndBulkheadAfterReload() {
+        DataSourceCircuitBreaker dataSourceCircuitBreaker = shardingSQLTransactionManager.getDataSourceCircuitBreaker();
+        DataSourceBulkhead dataSourceBulkhead = shardingSQLTransactionManager.getDataSourceBulkhead();
+        SagaConfiguration sagaConfiguration = createSagaConfiguration(4);
+        sagaConfiguration.setCircuitBreakerFailureThreshold(1);
+        shardingSQLTransactionManager.reload(sagaConfiguration);
+        dataSourceCircuitBreaker.onFailure("ds", SQLErrorType.UNAVAILABLE);
+        shardingSQLTransactionManager.reload(createSagaConfiguration(4));
+        assertThat(shardingSQLTransactionManager.getDataSourceCircuitBreaker(), sameInstance(dataSourceCircuitBreaker));
+        assertThat(shardingSQLTransactionManager.getDataSourceBulkhead(), sameInstance(dataSourceBulkhead));
+        assertTrue(dataSourceCircuitBreaker.isOpen("ds"));
+    }
+    
+    @Test(expected = ShardingException.class)
+    public void assertRollbackAfterClose() {
+        shardingSQLTransactionManager.begin();
+        shardingSQLTransactionManager.close();
+        shardingSQLTransactionManager.rollback();
+    }
+    
+    @Test
+    public void assertRollbackWhenCircuitOpen() {
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setCircuitBreakerFailureThreshold(1);
+        sagaConfiguration.setCircuitBreakerOpenMilliseconds(60000);
+        sagaConfiguration.setMaxRetryDurationMilliseconds(0);
+        sagaConfiguration.setCompensationRetryDelayMilliseconds(1);
+        ShardingSQLTransactionManager manager = new ShardingSQLTransactionManager(sagaConfiguration);
+        try {
+            manager.begin();
+            manager.getCurrentTransaction().setCompensationConnectionManager(new CompensationConnectionManager(Collections.singletonMap("ds", mock(DataSource.class)), 1, 0));
+            manager.getCurrentTransaction().getLogicSQLTransactions().add(createInsertedLogicSQLTransaction());
+            manager.getDataSourceCircuitBreaker().onFailure("ds", SQLErrorType.UNAVAILABLE);
+            manager.rollback();
+            fail("Expected sharding exception");
+        } catch (final ShardingException ex) {
+            assertFalse(manager.isInTransaction());
+        } finally {
+            manager.close();
+        }
+    }
+    
+    private LogicSQLTransaction createInsertedLogicSQLTransaction() {
+        SQLTransaction sqlTransaction = new SQLTransaction("ds", "INSERT INTO t_order (order_id) VALUES (?)",
+            Collections.<Collection<Object>>singletonList(Collections.<Object>singletonList(1)), ExecuteStatus.SUCCESS);
+        RevertSQLResult revertSQLResult = new RevertSQLResult("DELETE FROM t_order WHERE order_id = ?");
+        revertSQLResult.getParameters().add(Collections.<Object>singletonList(1));
+        sqlTransaction.setRevertSQLResult(revertSQLResult);
+        LogicSQLTransaction result = new LogicSQLTransaction("INSERT INTO t_order (order_id) VALUES (?)");
+        result.getSqlTransactions().add(sqlTransaction);
+        return result;
+    }
+    
+    @Test
+    public void assertIsolatedBetweenManagers() {
+        shardingSQLTransactionManager.begin();
+        assertFalse(anotherShardingSQLTransactionManager.isInTransaction());
+        anotherShardingSQLTransactionManager.begin();
+        assertThat(anotherShardingSQLTransactionManager.getCurrentTransaction(), not(shardingSQLTransactionManager.getCurrentTransaction()));
+        assertThat(anotherShardingSQLTransactionManager.getSagaConfiguration().getExecutorSize(), is(2));
+        assertThat(shardingSQLTransactionManager.getDataSourceBulkhead(), not(anotherShardingSQLTransactionManager.getDataSourceBulkhead()));
+    }
+}
@@ -17,16 +17,46 @@
 
 package io.shardingsphere.transaction.base.saga.actuator;
 
+import io.shardingsphere.transaction.base.saga.actuator.definition.DataResourceTest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.ParallelCompensatorTest;
 import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactoryTest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SQLTransactionSplitterTest;
 import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionTest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.ServiceCombSagaDefinitionTest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.UndoLogCompactorTest;
+import io.shardingsphere.transaction.base.saga.actuator.executor.CallerRunsBoundedExecutorServiceTest;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorServiceTest;
+import io.shardingsphere.transaction.base.saga.actuator.executor.PriorityThreadPoolExecutorTest;
+import io.shardingsphere.transaction.base.saga.actuator.executor.WorkStealingExecutorServiceProviderTest;
+import io.shardingsphere.transaction.base.saga.actuator.transport.CompensationConnectionManagerTest;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceBulkheadTest;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceCircuitBreakerTest;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SQLErrorTypeTest;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaRetryPolicyTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+    CallerRunsBoundedExecutorServiceTest.class,
+    CompensationConnectionManagerTest.class,
+    DataResourceTest.class,
+    DataSourceBulkheadTest.class,
+    DataSourceCircuitBreakerTest.class,
+    InstrumentedExecutorServiceTest.class,
+    ParallelCompensatorTest.class,
+    PriorityThreadPoolExecutorTest.class,
     SagaActuatorFactoryTest.class,
+    SagaAutoTunerTest.class,
+    SagaActuatorTest.class,
     SagaDefinitionFactoryTest.class,
-    SagaDefinitionTest.class
+    SagaDefinitionTest.class,
+    SagaRetryPolicyTest.class,
+    ServiceCombSagaDefinitionTest.class,
+    SQLErrorTypeTest.class,
+    SQLTransactionSplitterTest.class,
+    UndoLogCompactorTest.class,
+    WorkStealingExecutorServiceProviderTest.class
 })
 public final class AllActuatorTests {
 }
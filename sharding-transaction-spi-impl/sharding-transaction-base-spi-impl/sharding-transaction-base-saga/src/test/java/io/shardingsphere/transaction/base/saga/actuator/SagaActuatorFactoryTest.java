@@ -17,52 +17,86 @@
 
 package io.shardingsphere.transaction.base.saga.actuator;
 
+import io.shardingsphere.transaction.base.saga.actuator.executor.CallerRunsBoundedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaTransportFactory;
 import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import io.shardingsphere.transaction.base.saga.persistence.impl.EmptySagaPersistence;
-import org.apache.servicecomb.saga.core.application.SagaExecutionComponent;
 import org.apache.servicecomb.saga.core.dag.GraphBasedSagaFactory;
+import org.apache.shardingsphere.core.config.ShardingConfigurationException;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
 
 public final class SagaActuatorFactoryTest {
     
+    private final SagaTransportFactory transportFactory = mock(SagaTransportFactory.class);
+    
+    @Test
+    public void assertCreateWithBoundedQueueExecutor() throws ReflectiveOperationException {
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setExecutorSize(8);
+        sagaConfiguration.setExecutorQueueSize(16);
+        SagaActuator sagaActuator = SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence(), transportFactory);
+        assertThat(getExecutorFromActuator(sagaActuator), is((ExecutorService) sagaActuator.getExecutorService()));
+        ExecutorService delegate = getDelegate(sagaActuator.getExecutorService());
+        assertThat(delegate, instanceOf(ThreadPoolExecutor.class));
+        ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) delegate;
+        assertThat(threadPoolExecutor.getCorePoolSize(), is(8));
+        assertThat(threadPoolExecutor.getMaximumPoolSize(), is(8));
+        assertThat(threadPoolExecutor.getQueue().remainingCapacity(), is(16));
+        assertThat(threadPoolExecutor.getRejectedExecutionHandler(), instanceOf(ThreadPoolExecutor.CallerRunsPolicy.class));
+    }
+    
+    @Test
+    public void assertCreateWithDefaultExecutorSize() throws ReflectiveOperationException {
+        SagaActuator sagaActuator = SagaActuatorFactory.newInstance(new SagaConfiguration(), new EmptySagaPersistence(), transportFactory);
+        ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) getDelegate(sagaActuator.getExecutorService());
+        assertThat(threadPoolExecutor.getMaximumPoolSize(), is(Runtime.getRuntime().availableProcessors() * 2));
+    }
+    
     @Test
-    public void assertCreateSagaExecutionComponent() throws NoSuchFieldException, IllegalAccessException {
-        assertCreateWithFixedExecutors();
-        assertCreateWithCachedExecutors();
+    public void assertCreateWithWorkStealingExecutor() throws ReflectiveOperationException {
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setExecutorType("WORK_STEALING");
+        SagaActuator sagaActuator = SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence(), transportFactory);
+        assertThat(getDelegate(sagaActuator.getExecutorService()), instanceOf(CallerRunsBoundedExecutorService.class));
     }
     
-    private void assertCreateWithFixedExecutors() throws NoSuchFieldException, IllegalAccessException {
+    @Test
+    public void assertCreateWithPriorityExecutor() throws ReflectiveOperationException {
         SagaConfiguration sagaConfiguration = new SagaConfiguration();
-        SagaExecutionComponent sagaExecutionComponent = SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence());
-        assertThat(sagaExecutionComponent, instanceOf(SagaExecutionComponent.class));
-        ThreadPoolExecutor threadPoolExecutor = getExecutorFromComponent(sagaExecutionComponent);
-        assertThat(threadPoolExecutor.getCorePoolSize(), is(sagaConfiguration.getExecutorSize()));
-        assertThat(threadPoolExecutor.getMaximumPoolSize(), is(sagaConfiguration.getExecutorSize()));
+        sagaConfiguration.setExecutorType("PRIORITY");
+        SagaActuator sagaActuator = SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence(), transportFactory);
+        assertThat(getDelegate(sagaActuator.getExecutorService()), instanceOf(CallerRunsBoundedExecutorService.class));
     }
     
-    private void assertCreateWithCachedExecutors() throws NoSuchFieldException, IllegalAccessException {
+    @Test(expected = ShardingConfigurationException.class)
+    public void assertCreateWithUnknownExecutor() {
         SagaConfiguration sagaConfiguration = new SagaConfiguration();
-        sagaConfiguration.setExecutorSize(0);
-        SagaExecutionComponent sagaExecutionComponent = SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence());
-        assertThat(sagaExecutionComponent, instanceOf(SagaExecutionComponent.class));
-        ThreadPoolExecutor threadPoolExecutor = getExecutorFromComponent(sagaExecutionComponent);
-        assertThat(threadPoolExecutor.getCorePoolSize(), is(0));
-        assertThat(threadPoolExecutor.getMaximumPoolSize(), is(Integer.MAX_VALUE));
+        sagaConfiguration.setExecutorType("UNKNOWN");
+        SagaActuatorFactory.newInstance(sagaConfiguration, new EmptySagaPersistence(), transportFactory);
     }
     
-    private ThreadPoolExecutor getExecutorFromComponent(final SagaExecutionComponent sagaExecutionComponent) throws NoSuchFieldException, IllegalAccessException {
-        Field sagaFactoryField = SagaExecutionComponent.class.getDeclaredField("sagaFactory");
+    private ExecutorService getExecutorFromActuator(final SagaActuator sagaActuator) throws ReflectiveOperationException {
+        Field sagaFactoryField = SagaActuator.class.getDeclaredField("sagaFactory");
         sagaFactoryField.setAccessible(true);
-        GraphBasedSagaFactory sagaFactory = (GraphBasedSagaFactory) sagaFactoryField.get(sagaExecutionComponent);
+        GraphBasedSagaFactory sagaFactory = (GraphBasedSagaFactory) sagaFactoryField.get(sagaActuator);
         Field executorServiceField = GraphBasedSagaFactory.class.getDeclaredField("executorService");
         executorServiceField.setAccessible(true);
-        return (ThreadPoolExecutor) executorServiceField.get(sagaFactory);
+        return (ExecutorService) executorServiceField.get(sagaFactory);
+    }
+    
+    private ExecutorService getDelegate(final InstrumentedExecutorService executorService) throws ReflectiveOperationException {
+        Field delegateField = InstrumentedExecutorService.class.getDeclaredField("delegate");
+        delegateField.setAccessible(true);
+        return (ExecutorService) delegateField.get(executorService);
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator;
+
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaRequest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaSQLUnit;
+import io.shardingsphere.transaction.base.saga.actuator.definition.ServiceCombSagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import org.apache.servicecomb.saga.core.EventStore;
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.core.Saga;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.application.SagaFactory;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+import org.apache.shardingsphere.core.exception.ShardingException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class SagaActuatorTest {
+    
+    @Mock
+    private SagaFactory sagaFactory;
+    
+    @Mock
+    private SagaFactory inlineSagaFactory;
+    
+    @Mock
+    private TransportFactory<SQLTransport> transportFactory;
+    
+    @Mock
+    private Saga saga;
+    
+    @Mock
+    private SagaResponse sagaResponse;
+    
+    private final SagaDefinition sagaDefinition = new SagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, Collections.<SagaRequest>emptyList());
+    
+    @Before
+    public void setUp() {
+        when(sagaFactory.createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class))).thenReturn(saga);
+        when(saga.run()).thenReturn(sagaResponse);
+    }
+    
+    @Test
+    public void assertRunWithoutPersistence() {
+        assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, new SagaAdmissionController(0, 0), null).run(sagaDefinition), is(sagaResponse));
+        verify(sagaFactory).createSaga(eq("{}"), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+    }
+    
+    @Test
+    public void assertRunWithPersistence() {
+        assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, true, new SagaAdmissionController(0, 0), null).run(sagaDefinition), is(sagaResponse));
+        verify(sagaFactory).createSaga(eq(sagaDefinition.toJson()), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+    }
+    
+    @Test
+    public void assertRunInline() {
+        when(inlineSagaFactory.createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class))).thenReturn(saga);
+        SagaDefinition sagaDefinition = new SagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, Arrays.asList(newSagaRequest("branch1"), newSagaRequest("branch2"), newSagaRequest(SagaDefinitionFactory.ROLLBACK_TAG)));
+        assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, 2, transportFactory, false, new SagaAdmissionController(0, 0), null).run(sagaDefinition), is(sagaResponse));
+        verify(inlineSagaFactory).createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+        verify(sagaFactory, never()).createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+    }
+    
+    @Test
+    public void assertRunWithExecutorWhenBranchesExceedInlineThreshold() {
+        SagaDefinition sagaDefinition = new SagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, Arrays.asList(newSagaRequest("branch1"), newSagaRequest("branch2"), newSagaRequest("branch3")));
+        assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, 2, transportFactory, false, new SagaAdmissionController(0, 0), null).run(sagaDefinition), is(sagaResponse));
+        verify(sagaFactory).createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+        verify(inlineSagaFactory, never()).createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+    }
+    
+    @Test(expected = ShardingException.class)
+    public void assertRunRejectedByAdmissionController() {
+        SagaAdmissionController admissionController = new SagaAdmissionController(1, 0);
+        admissionController.acquire();
+        new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, admissionController, null)
+            .run(new SagaDefinition(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY, Collections.<SagaRequest>emptyList()));
+    }
+    
+    @Test
+    public void assertRunBackwardRecoveryByReservedPermitWhenNotAdmitted() {
+        SagaAdmissionController admissionController = new SagaAdmissionController(1, 0);
+        admissionController.acquire();
+        assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, admissionController, null).run(sagaDefinition), is(sagaResponse));
+        verify(sagaFactory).createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class));
+        assertThat(admissionController.getInFlightSagas(), is(1));
+    }
+    
+    @Test(expected = ShardingException.class)
+    public void assertRunBackwardRecoveryRejectedWhenReservedPermitsUsedUp() {
+        SagaAdmissionController admissionController = new SagaAdmissionController(1, 0);
+        admissionController.acquire();
+        assertTrue(admissionController.acquireRollback());
+        new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, admissionController, null).run(sagaDefinition);
+    }
+    
+    @Test
+    public void assertWarmUp() {
+        InstrumentedExecutorService executorService = new InstrumentedExecutorService(new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()));
+        try {
+            assertThat(new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, true, new SagaAdmissionController(0, 0), executorService).warmUp(), is(2));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void assertCloseAfterInFlightSagasFinish() {
+        InstrumentedExecutorService executorService = new InstrumentedExecutorService(Executors.newSingleThreadExecutor());
+        SagaActuator sagaActuator = new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, new SagaAdmissionController(0, 0), executorService);
+        assertTrue(sagaActuator.tryEnter());
+        sagaActuator.close();
+        assertFalse(executorService.isShutdown());
+        assertTrue(sagaActuator.tryEnter());
+        sagaActuator.exit();
+        assertFalse(executorService.isShutdown());
+        sagaActuator.exit();
+        assertTrue(executorService.isShutdown());
+        assertFalse(sagaActuator.tryEnter());
+    }
+    
+    @Test
+    public void assertReleaseAdmissionAfterRun() {
+        SagaAdmissionController admissionController = new SagaAdmissionController(1, 0);
+        new SagaActuator(sagaFactory, inlineSagaFactory, -1, transportFactory, false, admissionController, null).run(sagaDefinition);
+        assertThat(admissionController.getInFlightSagas(), is(0));
+    }
+    
+    private SagaRequest newSagaRequest(final String id) {
+        SagaSQLUnit sqlUnit = new SagaSQLUnit("sql", new LinkedList<Collection<Object>>(), 1);
+        return new SagaRequest(id, "ds", "sql", sqlUnit, sqlUnit, Collections.<String>emptyList(), 0);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator;
+
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.definition.SagaRequest;
+import io.shardingsphere.transaction.base.saga.actuator.definition.ServiceCombSagaDefinition;
+import io.shardingsphere.transaction.base.saga.actuator.executor.InstrumentedExecutorService;
+import io.shardingsphere.transaction.base.saga.actuator.transport.DataSourceCircuitBreaker;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SQLErrorType;
+import io.shardingsphere.transaction.base.saga.actuator.transport.SagaRetryPolicy;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import org.apache.servicecomb.saga.core.EventStore;
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.core.Saga;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.application.SagaFactory;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class SagaAutoTunerTest {
+    
+    private final SagaConfiguration sagaConfiguration = new SagaConfiguration();
+    
+    private final SagaRetryPolicy sagaRetryPolicy = new SagaRetryPolicy(100, 60000, new Random());
+    
+    private final DataSourceCircuitBreaker dataSourceCircuitBreaker = new DataSourceCircuitBreaker(0, 0);
+    
+    private final SagaFactory sagaFactory = mock(SagaFactory.class);
+    
+    private final Saga saga = mock(Saga.class);
+    
+    @SuppressWarnings("unchecked")
+    private final TransportFactory<SQLTransport> transportFactory = mock(TransportFactory.class);
+    
+    private InstrumentedExecutorService executorService;
+    
+    @Before
+    public void setUp() {
+        when(sagaFactory.createSaga(anyString(), anyString(), any(EventStore.class), any(ServiceCombSagaDefinition.class))).thenReturn(saga);
+        when(saga.run()).thenAnswer(new Answer<SagaResponse>() {
+            
+            @Override
+            public SagaResponse answer(final InvocationOnMock invocation) {
+                sleep(5L);
+                return null;
+            }
+        });
+        sagaConfiguration.setAutoTuningMinExecutorSize(1);
+        sagaConfiguration.setAutoTuningMaxExecutorSize(8);
+        sagaConfiguration.setAutoTuningTargetLatencyMilliseconds(0);
+        sagaConfiguration.setAutoTuningMaxRetryDelayFactor(4);
+    }
+    
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+    
+    @Test
+    public void assertBackOffWhenErrorRateIsHigh() {
+        executorService = newExecutorService(8);
+        SagaAutoTuner sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, newSagaActuator(), sagaRetryPolicy, dataSourceCircuitBreaker);
+        recordFailures(20);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(4));
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(2D));
+        for (int i = 0; i < 3; i++) {
+            recordFailures(20);
+            sagaAutoTuner.run();
+            assertThat(sagaAutoTuner.getExecutorSize(), is(4));
+        }
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(4D));
+        recordFailures(20);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(2));
+        dataSourceCircuitBreaker.onSuccess("ds_0");
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(2D));
+    }
+    
+    @Test
+    public void assertNotBackOffWithFewExecutions() {
+        executorService = newExecutorService(4);
+        SagaAutoTuner sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, newSagaActuator(), sagaRetryPolicy, dataSourceCircuitBreaker);
+        recordFailures(19);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(4));
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(1D));
+        recordFailures(1);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(2));
+    }
+    
+    @Test
+    public void assertShrinkWhenIdle() {
+        sagaConfiguration.setAutoTuningTargetLatencyMilliseconds(1000);
+        executorService = newExecutorService(4);
+        SagaAutoTuner sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, newSagaActuator(), sagaRetryPolicy, dataSourceCircuitBreaker);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(3));
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(1D));
+        assertThat(sagaAutoTuner.getAdjustmentCount(), is(1L));
+    }
+    
+    @Test
+    public void assertGrowWhenTasksAreQueued() throws InterruptedException {
+        executorService = newExecutorService(1);
+        SagaActuator sagaActuator = newSagaActuator();
+        SagaAutoTuner sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, sagaActuator, sagaRetryPolicy, dataSourceCircuitBreaker);
+        sagaActuator.run(new SagaDefinition(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY, Collections.<SagaRequest>emptyList()));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        executorService.execute(new Runnable() {
+            
+            @Override
+            public void run() {
+                started.countDown();
+                await(finish);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executorService.execute(new Runnable() {
+            
+            @Override
+            public void run() {
+            }
+        });
+        sagaAutoTuner.run();
+        finish.countDown();
+        assertTrue(sagaAutoTuner.getWindowLatencyMilliseconds() > 0);
+        assertThat(sagaAutoTuner.getExecutorSize(), is(2));
+    }
+    
+    @Test
+    public void assertTuneRetryDelayFactorOnlyWithoutThreadPoolExecutor() {
+        executorService = new InstrumentedExecutorService(Executors.newSingleThreadExecutor());
+        SagaAutoTuner sagaAutoTuner = new SagaAutoTuner(sagaConfiguration, newSagaActuator(), sagaRetryPolicy, dataSourceCircuitBreaker);
+        recordFailures(20);
+        sagaAutoTuner.run();
+        assertThat(sagaAutoTuner.getExecutorSize(), is(-1));
+        assertThat(sagaAutoTuner.getRetryDelayFactor(), is(2D));
+    }
+    
+    private SagaActuator newSagaActuator() {
+        return new SagaActuator(sagaFactory, sagaFactory, -1, transportFactory, false, new SagaAdmissionController(0, 0), executorService);
+    }
+    
+    private void recordFailures(final int failures) {
+        for (int i = 0; i < failures; i++) {
+            dataSourceCircuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        }
+    }
+    
+    private InstrumentedExecutorService newExecutorService(final int executorSize) {
+        return new InstrumentedExecutorService(new ThreadPoolExecutor(executorSize, executorSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()));
+    }
+    
+    private void sleep(final long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
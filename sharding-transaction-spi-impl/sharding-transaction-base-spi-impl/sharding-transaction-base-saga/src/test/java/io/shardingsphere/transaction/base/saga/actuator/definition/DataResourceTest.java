@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class DataResourceTest {
+    
+    @Test
+    public void assertConflictedWithSameRow() {
+        assertTrue(newDataResource("ds", "t_order_0", false, 1L, 2L).isConflicted(newDataResource("ds", "T_ORDER_0", false, 2L)));
+    }
+    
+    @Test
+    public void assertNotConflictedWithDifferentRow() {
+        assertFalse(newDataResource("ds", "t_order_0", false, 1L, 2L).isConflicted(newDataResource("ds", "t_order_0", false, 3L)));
+    }
+    
+    @Test
+    public void assertNotConflictedWithDifferentTable() {
+        assertFalse(newDataResource("ds", "t_order_0", false, 1L).isConflicted(newDataResource("ds", "t_order_1", false, 1L)));
+    }
+    
+    @Test
+    public void assertNotConflictedWithDifferentDataSource() {
+        assertFalse(newDataResource("ds_0", null, false).isConflicted(newDataResource("ds_1", null, false)));
+    }
+    
+    @Test
+    public void assertConflictedWithoutMetaData() {
+        assertTrue(newDataResource("ds", null, false).isConflicted(newDataResource("ds", "t_order_0", false, 1L)));
+    }
+    
+    @Test
+    public void assertConflictedWhenPrimaryKeyChanged() {
+        assertTrue(newDataResource("ds", "t_order_0", true, 1L).isConflicted(newDataResource("ds", "t_order_0", false, 3L)));
+    }
+    
+    private DataResource newDataResource(final String dataSourceName, final String actualTable, final boolean primaryKeyChanged, final Object... primaryKeys) {
+        SQLTransaction sqlTransaction = new SQLTransaction(dataSourceName, "tx-sql", new LinkedList<Collection<Object>>());
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert-sql");
+        for (Object each : primaryKeys) {
+            revertSQLResult.getParameters().add(Arrays.asList("value", each));
+        }
+        if (null != actualTable) {
+            revertSQLResult.setMetaData(new RevertSQLMetaData(DMLType.UPDATE, actualTable, Collections.singletonList(1), Collections.singletonList("status"), primaryKeyChanged));
+        }
+        sqlTransaction.setRevertSQLResult(revertSQLResult);
+        return DataResource.newInstance(0, sqlTransaction);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.SuccessfulSagaResponse;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class ParallelCompensatorTest {
+    
+    private static final List<List<String>> PARAMETERS = Collections.singletonList(Collections.singletonList("1"));
+    
+    @Mock
+    private TransportFactory<SQLTransport> transportFactory;
+    
+    @Mock
+    private SQLTransport transport;
+    
+    private final List<Runnable> submittedTasks = new LinkedList<>();
+    
+    private final SagaResponse sagaResponse = new SuccessfulSagaResponse("{}");
+    
+    @Before
+    public void setUp() {
+        when(transportFactory.getTransport()).thenReturn(transport);
+    }
+    
+    @Test
+    public void assertCompensateIndependentRequestsOnExecutor() {
+        when(transport.with("ds_0", "revert_1", PARAMETERS)).thenReturn(sagaResponse);
+        when(transport.with("ds_1", "revert_2", PARAMETERS)).thenReturn(sagaResponse);
+        ParallelCompensator compensator = new ParallelCompensator(newRecordingExecutor());
+        register(compensator, "id_1", "ds_0", Collections.<String>emptyList());
+        register(compensator, "id_2", "ds_1", Collections.<String>emptyList());
+        assertThat(compensator.compensate("id_2", "ds_1"), is(sagaResponse));
+        assertThat(submittedTasks.size(), is(1));
+        submittedTasks.remove(0).run();
+        assertThat(compensator.compensate("id_1", "ds_0"), is(sagaResponse));
+        verify(transport).with("ds_0", "revert_1", PARAMETERS);
+        verify(transport).with("ds_1", "revert_2", PARAMETERS);
+    }
+    
+    @Test
+    public void assertSubmitParentAfterChildrenCompensated() {
+        when(transport.with("ds_0", "revert_1", PARAMETERS)).thenReturn(sagaResponse);
+        when(transport.with("ds_0", "revert_2", PARAMETERS)).thenReturn(sagaResponse);
+        when(transport.with("ds_0", "revert_3", PARAMETERS)).thenReturn(sagaResponse);
+        ParallelCompensator compensator = new ParallelCompensator(newRecordingExecutor());
+        register(compensator, "id_1", "ds_0", Collections.<String>emptyList());
+        register(compensator, "id_2", "ds_0", Collections.singletonList("id_1"));
+        register(compensator, "id_3", "ds_0", Collections.singletonList("id_1"));
+        assertThat(compensator.compensate("id_3", "ds_0"), is(sagaResponse));
+        assertThat(submittedTasks.size(), is(1));
+        submittedTasks.remove(0).run();
+        assertThat(submittedTasks.size(), is(1));
+        submittedTasks.remove(0).run();
+        assertThat(compensator.compensate("id_2", "ds_0"), is(sagaResponse));
+        assertThat(compensator.compensate("id_1", "ds_0"), is(sagaResponse));
+        verify(transport).with("ds_0", "revert_1", PARAMETERS);
+    }
+    
+    @Test
+    public void assertCompensateOnCurrentThreadAfterSubmittedCompensationFailed() {
+        when(transport.with("ds_0", "revert_1", PARAMETERS)).thenThrow(new TransportFailedException("failed")).thenReturn(sagaResponse);
+        when(transport.with("ds_1", "revert_2", PARAMETERS)).thenReturn(sagaResponse);
+        ParallelCompensator compensator = new ParallelCompensator(newRecordingExecutor());
+        register(compensator, "id_1", "ds_0", Collections.<String>emptyList());
+        register(compensator, "id_2", "ds_1", Collections.<String>emptyList());
+        compensator.compensate("id_2", "ds_1");
+        submittedTasks.remove(0).run();
+        try {
+            compensator.compensate("id_1", "ds_0");
+            fail("Expected TransportFailedException");
+        } catch (final TransportFailedException ex) {
+            assertThat(ex.getMessage(), is("failed"));
+        }
+        assertThat(compensator.compensate("id_1", "ds_0"), is(sagaResponse));
+        verify(transport, times(2)).with("ds_0", "revert_1", PARAMETERS);
+    }
+    
+    private void register(final ParallelCompensator compensator, final String requestId, final String address, final List<String> parentsIds) {
+        ParallelSQLCompensation compensation = new ParallelSQLCompensation(requestId, "revert" + requestId.substring(2), PARAMETERS, 0, compensator);
+        compensation.with(transportFactory);
+        compensator.register(requestId, address, parentsIds, compensation);
+    }
+    
+    private Executor newRecordingExecutor() {
+        return new Executor() {
+            
+            @Override
+            public void execute(final Runnable command) {
+                submittedTasks.add(command);
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import io.shardingsphere.transaction.base.context.ExecuteStatus;
+import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class SQLTransactionSplitterTest {
+    
+    private final ShardingSQLTransaction shardingSQLTransaction = new ShardingSQLTransaction();
+    
+    private final Queue<SQLTransaction> sqlTransactions = new ConcurrentLinkedQueue<>();
+    
+    @Test
+    public void assertSplitRevertRows() {
+        SQLTransaction sqlTransaction = newSQLTransaction(ExecuteStatus.SUCCESS, 1, 5);
+        addLogicSQLTransaction(sqlTransaction);
+        SQLTransactionSplitter.split(shardingSQLTransaction, 2, true);
+        List<SQLTransaction> actual = new ArrayList<>(sqlTransactions);
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(0).getParameters(), is(sqlTransaction.getParameters()));
+        assertTrue(actual.get(1).getParameters().isEmpty());
+        assertThat(actual.get(0).getRevertSQLResult().getParameters().size(), is(2));
+        assertThat(actual.get(2).getRevertSQLResult().getParameters().size(), is(1));
+        assertThat(actual.get(2).getRevertSQLResult().getParameters().get(0), is((Collection<Object>) Arrays.<Object>asList("revert", 4)));
+        assertThat(actual.get(2).getExecuteStatus(), is(ExecuteStatus.SUCCESS));
+    }
+    
+    @Test
+    public void assertSplitRowsOfFailedSQLTransaction() {
+        SQLTransaction sqlTransaction = newSQLTransaction(ExecuteStatus.FAILURE, 3, 1);
+        addLogicSQLTransaction(sqlTransaction);
+        SQLTransactionSplitter.split(shardingSQLTransaction, 2, false);
+        List<SQLTransaction> actual = new ArrayList<>(sqlTransactions);
+        assertThat(actual.size(), is(2));
+        assertThat(actual.get(0).getParameters().size(), is(2));
+        assertThat(actual.get(1).getParameters().size(), is(1));
+        assertThat(actual.get(1).getRevertSQLResult(), sameInstance(sqlTransaction.getRevertSQLResult()));
+    }
+    
+    @Test
+    public void assertNotSplitSucceedSQLTransactionForForwardRecovery() {
+        SQLTransaction sqlTransaction = newSQLTransaction(ExecuteStatus.SUCCESS, 3, 3);
+        addLogicSQLTransaction(sqlTransaction);
+        SQLTransactionSplitter.split(shardingSQLTransaction, 2, false);
+        assertThat(sqlTransactions.size(), is(1));
+        assertThat(sqlTransactions.peek(), sameInstance(sqlTransaction));
+    }
+    
+    @Test
+    public void assertNotSplitWithoutLimit() {
+        addLogicSQLTransaction(newSQLTransaction(ExecuteStatus.SUCCESS, 1, 5));
+        SQLTransactionSplitter.split(shardingSQLTransaction, 0, true);
+        assertThat(sqlTransactions.size(), is(1));
+    }
+    
+    private void addLogicSQLTransaction(final SQLTransaction sqlTransaction) {
+        sqlTransactions.add(sqlTransaction);
+        LogicSQLTransaction logicSQLTransaction = mock(LogicSQLTransaction.class);
+        when(logicSQLTransaction.getSqlTransactions()).thenReturn(sqlTransactions);
+        shardingSQLTransaction.getLogicSQLTransactions().add(logicSQLTransaction);
+    }
+    
+    private SQLTransaction newSQLTransaction(final ExecuteStatus executeStatus, final int rows, final int revertRows) {
+        List<Collection<Object>> parameters = new LinkedList<>();
+        for (int i = 0; i < rows; i++) {
+            parameters.add(Arrays.<Object>asList("tx", i));
+        }
+        SQLTransaction result = new SQLTransaction("ds_0", "tx-sql", parameters, executeStatus);
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert-sql");
+        for (int i = 0; i < revertRows; i++) {
+            revertSQLResult.getParameters().add(Arrays.<Object>asList("revert", i));
+        }
+        result.setRevertSQLResult(revertSQLResult);
+        return result;
+    }
+}
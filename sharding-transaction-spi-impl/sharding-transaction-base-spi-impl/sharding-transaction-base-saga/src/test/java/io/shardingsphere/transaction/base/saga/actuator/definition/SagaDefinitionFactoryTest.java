@@ -20,7 +20,9 @@ package io.shardingsphere.transaction.base.saga.actuator.definition;
 import io.shardingsphere.transaction.base.context.SQLTransaction;
 import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
 import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
 import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
 import org.apache.servicecomb.saga.core.RecoveryPolicy;
 import org.junit.Before;
@@ -28,8 +30,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
@@ -38,6 +42,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -71,10 +76,10 @@ public class SagaDefinitionFactoryTest {
                 assertThat(each.getTransaction().getParams().size(), is(3));
                 assertThat(each.getId(), instanceOf(String.class));
                 assertThat(each.getType(), is("sql"));
-                assertThat(each.getFailRetryDelayMilliseconds(), is(sagaConfiguration.getTransactionRetryDelayMilliseconds()));
+                assertThat(each.getFailRetryDelayMilliseconds(), is(0));
                 assertThat(each.getCompensation().getSql(), is("revert-sql"));
                 assertThat(each.getCompensation().getParams().size(), is(3));
-                assertThat(each.getCompensation().getRetries(), is(sagaConfiguration.getCompensationMaxRetries()));
+                assertThat(each.getCompensation().getRetries(), is(0));
             } else {
                 assertThat(each.getDatasource(), is("rollbackTag"));
                 assertThat(each.getTransaction().getSql(), is("rollbackTag"));
@@ -101,6 +106,83 @@ public class SagaDefinitionFactoryTest {
         }
     }
     
+    @Test
+    public void assertNewInstanceWithIndependentBranches() {
+        SQLTransaction first = newSQLTransaction("ds_0", "t_order_0", 1L);
+        SQLTransaction second = newSQLTransaction("ds_1", "t_order_1", 1L);
+        SQLTransaction third = newSQLTransaction("ds_0", "t_order_0", 2L);
+        SQLTransaction fourth = newSQLTransaction("ds_0", "t_order_0", 1L, 2L);
+        shardingSQLTransaction.getLogicSQLTransactions().addAll(Arrays.asList(mockLogicSQLTransaction(first), mockLogicSQLTransaction(second, third), mockLogicSQLTransaction(fourth)));
+        List<SagaRequest> actual = new ArrayList<>(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, sagaConfiguration, shardingSQLTransaction).getRequests());
+        assertThat(actual.size(), is(5));
+        assertTrue(actual.get(0).getParents().isEmpty());
+        assertTrue(actual.get(1).getParents().isEmpty());
+        assertTrue(actual.get(2).getParents().isEmpty());
+        assertThat(new ArrayList<>(actual.get(3).getParents()), is(Arrays.asList(first.getSqlTransactionId(), third.getSqlTransactionId())));
+        assertThat(new ArrayList<>(actual.get(4).getParents()), is(Arrays.asList(second.getSqlTransactionId(), fourth.getSqlTransactionId())));
+    }
+    
+    @Test
+    public void assertNewInstanceWithTransitiveDependency() {
+        SQLTransaction first = newSQLTransaction("ds_0", "t_order_0", 1L);
+        SQLTransaction second = newSQLTransaction("ds_0", "t_order_0", 1L);
+        SQLTransaction third = newSQLTransaction("ds_0", "t_order_0", 1L);
+        shardingSQLTransaction.getLogicSQLTransactions().addAll(Arrays.asList(mockLogicSQLTransaction(first), mockLogicSQLTransaction(second), mockLogicSQLTransaction(third)));
+        List<SagaRequest> actual = new ArrayList<>(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY, sagaConfiguration, shardingSQLTransaction).getRequests());
+        assertThat(actual.size(), is(3));
+        assertTrue(actual.get(0).getParents().isEmpty());
+        assertThat(new ArrayList<>(actual.get(1).getParents()), is(Collections.singletonList(first.getSqlTransactionId())));
+        assertThat(new ArrayList<>(actual.get(2).getParents()), is(Collections.singletonList(second.getSqlTransactionId())));
+    }
+    
+    @Test
+    public void assertNewInstanceWithOversizedBranch() {
+        sagaConfiguration.setRequestMaxRows(2);
+        SQLTransaction first = newSQLTransaction("ds_0", "t_order_0", 1L, 2L, 3L);
+        SQLTransaction second = newSQLTransaction("ds_0", "t_order_0", 3L);
+        shardingSQLTransaction.getLogicSQLTransactions().addAll(Arrays.asList(mockLogicSQLTransaction(first), mockLogicSQLTransaction(second)));
+        List<SagaRequest> actual = new ArrayList<>(SagaDefinitionFactory.newInstance(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, sagaConfiguration, shardingSQLTransaction).getRequests());
+        assertThat(actual.size(), is(4));
+        assertThat(actual.get(0).getCompensation().getParams().size(), is(2));
+        assertThat(actual.get(1).getCompensation().getParams().size(), is(1));
+        assertTrue(actual.get(0).getParents().isEmpty());
+        assertTrue(actual.get(1).getParents().isEmpty());
+        assertThat(new ArrayList<>(actual.get(2).getParents()), is(Collections.singletonList(actual.get(1).getId())));
+        assertThat(new ArrayList<>(actual.get(3).getParents()), is(Arrays.asList(actual.get(0).getId(), second.getSqlTransactionId())));
+    }
+    
+    @Test
+    public void assertNewCompensationInstanceWithoutSplit() {
+        sagaConfiguration.setRequestMaxRows(2);
+        SQLTransaction first = newSQLTransaction("ds_0", "t_order_0", 1L, 2L, 3L);
+        SQLTransaction second = newSQLTransaction("ds_1", "t_order_1", 1L);
+        shardingSQLTransaction.getLogicSQLTransactions().addAll(Arrays.asList(mockLogicSQLTransaction(first), mockLogicSQLTransaction(second)));
+        SagaDefinition actual = SagaDefinitionFactory.newCompensationInstance(shardingSQLTransaction);
+        assertThat(actual.getPolicy(), is(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY));
+        List<SagaRequest> actualRequests = new ArrayList<>(actual.getRequests());
+        assertThat(actualRequests.size(), is(3));
+        assertThat(actualRequests.get(0).getId(), is(first.getSqlTransactionId()));
+        assertThat(actualRequests.get(0).getCompensation().getParams().size(), is(3));
+        assertThat(actualRequests.get(2).getId(), is(SagaDefinitionFactory.ROLLBACK_TAG));
+    }
+    
+    private LogicSQLTransaction mockLogicSQLTransaction(final SQLTransaction... sqlTransactions) {
+        LogicSQLTransaction result = mock(LogicSQLTransaction.class);
+        when(result.getSqlTransactions()).thenReturn(new ConcurrentLinkedQueue<>(Arrays.asList(sqlTransactions)));
+        return result;
+    }
+    
+    private SQLTransaction newSQLTransaction(final String dataSourceName, final String actualTable, final Object... primaryKeys) {
+        SQLTransaction result = new SQLTransaction(dataSourceName, "tx-sql", mockParameters());
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert-sql");
+        for (Object each : primaryKeys) {
+            revertSQLResult.getParameters().add(Arrays.asList("init", each));
+        }
+        revertSQLResult.setMetaData(new RevertSQLMetaData(DMLType.UPDATE, actualTable, Collections.singletonList(1), Collections.singletonList("status"), false));
+        result.setRevertSQLResult(revertSQLResult);
+        return result;
+    }
+    
     private List<LogicSQLTransaction> mockLogicSQLTransactions(final int logicSQLCount, int branchCount) {
         List<LogicSQLTransaction> result = new LinkedList<>();
         for (int i = 0; i < logicSQLCount; i++) {
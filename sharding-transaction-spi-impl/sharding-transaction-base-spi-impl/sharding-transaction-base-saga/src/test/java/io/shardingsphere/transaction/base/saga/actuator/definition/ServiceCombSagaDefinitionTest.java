@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import io.shardingsphere.transaction.base.saga.persistence.impl.EmptySagaPersistence;
+import org.apache.servicecomb.saga.core.BackwardRecovery;
+import org.apache.servicecomb.saga.core.RecoveryPolicy;
+import org.apache.servicecomb.saga.core.SQLOperation;
+import org.apache.servicecomb.saga.core.SagaResponse;
+import org.apache.servicecomb.saga.core.SuccessfulSagaResponse;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+import org.apache.servicecomb.saga.core.dag.GraphBasedSagaFactory;
+import org.apache.servicecomb.saga.format.ChildrenExtractor;
+import org.apache.servicecomb.saga.infrastructure.EmbeddedEventStore;
+import org.apache.servicecomb.saga.transports.SQLTransport;
+import org.apache.servicecomb.saga.transports.TransportFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class ServiceCombSagaDefinitionTest {
+    
+    @Mock
+    private TransportFactory<SQLTransport> transportFactory;
+    
+    @Test
+    public void assertNewInstanceOfBackwardRecovery() {
+        ServiceCombSagaDefinition actual = new ServiceCombSagaDefinition(newSagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY), transportFactory);
+        assertThat(actual.policy(), instanceOf(BackwardRecovery.class));
+        assertThat(actual.requests().length, is(2));
+        org.apache.servicecomb.saga.core.SagaRequest request = actual.requests()[1];
+        assertThat(request.id(), is("id_2"));
+        assertThat(request.serviceName(), is("ds"));
+        assertThat(request.type(), is("sql"));
+        assertThat(request.parents(), is(new String[]{"id_1"}));
+        assertThat(request.failRetryDelayMilliseconds(), is(10));
+        assertThat(((SQLOperation) request.transaction()).sql(), is("tx-sql"));
+        assertThat(request.transaction().retries(), is(5));
+        assertThat(((SQLOperation) request.compensation()).sql(), is("revert-sql"));
+        assertThat(((SQLOperation) request.compensation()).params(), is(Collections.singletonList(Arrays.asList("1", null, "init"))));
+        assertThat(request.compensation().retries(), is(3));
+    }
+    
+    @Test
+    public void assertNewInstanceOfForwardRecovery() {
+        ServiceCombSagaDefinition actual = new ServiceCombSagaDefinition(newSagaDefinition(RecoveryPolicy.SAGA_FORWARD_RECOVERY_POLICY), transportFactory);
+        assertThat(actual.policy(), instanceOf(SingleAttemptForwardRecovery.class));
+    }
+    
+    @Test
+    public void assertCompensateIndependentRequestsConcurrently() {
+        final CountDownLatch compensatingLatch = new CountDownLatch(2);
+        final AtomicInteger compensatingCount = new AtomicInteger();
+        final AtomicInteger maxCompensatingCount = new AtomicInteger();
+        when(transportFactory.getTransport()).thenReturn(new SQLTransport() {
+            
+            @Override
+            public SagaResponse with(final String datasourceName, final String sql, final List<List<String>> sagaParameters) {
+                if (SagaDefinitionFactory.ROLLBACK_TAG.equals(sql)) {
+                    throw new TransportFailedException("rollback");
+                }
+                if ("revert-sql".equals(sql)) {
+                    int currentCompensatingCount = compensatingCount.incrementAndGet();
+                    synchronized (maxCompensatingCount) {
+                        maxCompensatingCount.set(Math.max(maxCompensatingCount.get(), currentCompensatingCount));
+                    }
+                    awaitOtherCompensation(compensatingLatch);
+                    compensatingCount.decrementAndGet();
+                }
+                return new SuccessfulSagaResponse("{}");
+            }
+        });
+        List<SagaRequest> sagaRequests = new LinkedList<>();
+        sagaRequests.add(newSagaRequest("id_1", Collections.<String>emptyList()));
+        sagaRequests.add(newSagaRequest("id_2", Collections.<String>emptyList()));
+        SagaSQLUnit rollbackTag = new SagaSQLUnit(SagaDefinitionFactory.ROLLBACK_TAG, new LinkedList<Collection<Object>>(), 0);
+        sagaRequests.add(new SagaRequest(SagaDefinitionFactory.ROLLBACK_TAG, SagaDefinitionFactory.ROLLBACK_TAG, "sql", rollbackTag, rollbackTag, Arrays.asList("id_1", "id_2"), 0));
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ServiceCombSagaDefinition sagaDefinition = new ServiceCombSagaDefinition(
+                new SagaDefinition(RecoveryPolicy.SAGA_BACKWARD_RECOVERY_POLICY, sagaRequests), transportFactory, executorService);
+            new GraphBasedSagaFactory(0, new EmptySagaPersistence(), new ChildrenExtractor(), executorService)
+                .createSaga("{}", "saga_id", new EmbeddedEventStore(), sagaDefinition).run();
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertThat(maxCompensatingCount.get(), is(2));
+    }
+    
+    private void awaitOtherCompensation(final CountDownLatch compensatingLatch) {
+        compensatingLatch.countDown();
+        try {
+            compensatingLatch.await(3, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            throw new TransportFailedException("Interrupted", ex);
+        }
+    }
+    
+    private SagaDefinition newSagaDefinition(final String recoveryPolicy) {
+        List<SagaRequest> sagaRequests = new LinkedList<>();
+        sagaRequests.add(newSagaRequest("id_1", Collections.<String>emptyList()));
+        sagaRequests.add(newSagaRequest("id_2", Collections.singletonList("id_1")));
+        return new SagaDefinition(recoveryPolicy, sagaRequests);
+    }
+    
+    private SagaRequest newSagaRequest(final String id, final Collection<String> parents) {
+        List<Collection<Object>> parameters = new LinkedList<>();
+        parameters.add(Arrays.<Object>asList(1L, null, "init"));
+        SagaSQLUnit transaction = new SagaSQLUnit("tx-sql", parameters, 5);
+        SagaSQLUnit compensation = new SagaSQLUnit("revert-sql", parameters, 3);
+        return new SagaRequest(id, "ds", "sql", transaction, compensation, parents, 10);
+    }
+}
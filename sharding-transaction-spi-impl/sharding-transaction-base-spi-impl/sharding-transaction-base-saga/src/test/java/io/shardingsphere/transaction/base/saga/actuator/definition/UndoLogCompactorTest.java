@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.definition;
+
+import io.shardingsphere.transaction.base.context.ExecuteStatus;
+import io.shardingsphere.transaction.base.context.LogicSQLTransaction;
+import io.shardingsphere.transaction.base.context.SQLTransaction;
+import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class UndoLogCompactorTest {
+    
+    private final ShardingSQLTransaction shardingSQLTransaction = new ShardingSQLTransaction();
+    
+    @Test
+    public void assertCompactUpdateAfterInsert() {
+        RevertSQLResult insertRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.INSERT, 0, false), Arrays.<Object>asList(1L), Arrays.<Object>asList(2L));
+        RevertSQLResult updateRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.UPDATE, 1, false), Arrays.<Object>asList("init", 1L));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(insertRevert.getParameters().size(), is(2));
+        assertThat(updateRevert.getParameters().size(), is(0));
+    }
+    
+    @Test
+    public void assertCompactDeleteAfterInsert() {
+        RevertSQLResult insertRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.INSERT, 0, false), Arrays.<Object>asList(1L), Arrays.<Object>asList(2L));
+        RevertSQLResult deleteRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.DELETE, 0, false), Arrays.<Object>asList(1, "init"));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(insertRevert.getParameters().size(), is(1));
+        assertThat(insertRevert.getParameters().get(0), is((Collection<Object>) Arrays.<Object>asList(2L)));
+        assertThat(deleteRevert.getParameters().size(), is(0));
+    }
+    
+    @Test
+    public void assertCompactRepeatedUpdate() {
+        RevertSQLResult firstRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.UPDATE, 1, false), Arrays.<Object>asList("init", 1L));
+        RevertSQLResult secondRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.UPDATE, 1, false), Arrays.<Object>asList("paid", 1L), Arrays.<Object>asList("init", 2L));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(firstRevert.getParameters().size(), is(1));
+        assertThat(secondRevert.getParameters().size(), is(1));
+        assertThat(secondRevert.getParameters().get(0), is((Collection<Object>) Arrays.<Object>asList("init", 2L)));
+    }
+    
+    @Test
+    public void assertNotCompactWhenPrimaryKeyChanged() {
+        RevertSQLResult insertRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.INSERT, 0, false), Arrays.<Object>asList(1L));
+        RevertSQLResult updateRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.UPDATE, 1, true), Arrays.<Object>asList(1L, 1L));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(insertRevert.getParameters().size(), is(1));
+        assertThat(updateRevert.getParameters().size(), is(1));
+    }
+    
+    @Test
+    public void assertNotCompactWhenBranchNotSucceed() {
+        RevertSQLResult insertRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.INSERT, 0, false), Arrays.<Object>asList(1L));
+        RevertSQLResult updateRevert = addSQLTransaction(ExecuteStatus.FAILURE, newMetaData(DMLType.UPDATE, 1, false), Arrays.<Object>asList("init", 1L));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(insertRevert.getParameters().size(), is(1));
+        assertThat(updateRevert.getParameters().size(), is(1));
+    }
+    
+    @Test
+    public void assertNotCompactWithoutMetaData() {
+        RevertSQLResult insertRevert = addSQLTransaction(ExecuteStatus.SUCCESS, newMetaData(DMLType.INSERT, 0, false), Arrays.<Object>asList(1L));
+        RevertSQLResult deleteRevert = addSQLTransaction(ExecuteStatus.SUCCESS, null, Arrays.<Object>asList(1L, "init"));
+        UndoLogCompactor.compact(shardingSQLTransaction);
+        assertThat(insertRevert.getParameters().size(), is(1));
+        assertThat(deleteRevert.getParameters().size(), is(1));
+    }
+    
+    private RevertSQLMetaData newMetaData(final DMLType dmlType, final int primaryKeyParameterIndex, final boolean primaryKeyChanged) {
+        Collection<String> revertColumns = DMLType.UPDATE == dmlType ? Collections.singletonList("status") : Collections.<String>emptyList();
+        return new RevertSQLMetaData(dmlType, "t_order_0", Collections.singletonList(primaryKeyParameterIndex), revertColumns, primaryKeyChanged);
+    }
+    
+    @SafeVarargs
+    private final RevertSQLResult addSQLTransaction(final ExecuteStatus executeStatus, final RevertSQLMetaData metaData, final Collection<Object>... revertParameters) {
+        SQLTransaction sqlTransaction = new SQLTransaction("ds_0", "sql", new LinkedList<Collection<Object>>(), executeStatus);
+        RevertSQLResult result = new RevertSQLResult("revert-sql");
+        result.getParameters().addAll(Arrays.asList(revertParameters));
+        result.setMetaData(metaData);
+        sqlTransaction.setRevertSQLResult(result);
+        LogicSQLTransaction logicSQLTransaction = new LogicSQLTransaction("logic-sql");
+        logicSQLTransaction.getSqlTransactions().add(sqlTransaction);
+        shardingSQLTransaction.getLogicSQLTransactions().add(logicSQLTransaction);
+        return result;
+    }
+}
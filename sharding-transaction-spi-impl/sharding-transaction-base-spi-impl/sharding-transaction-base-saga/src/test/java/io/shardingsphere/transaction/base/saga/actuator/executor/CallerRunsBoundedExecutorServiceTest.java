@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class CallerRunsBoundedExecutorServiceTest {
+    
+    private final CallerRunsBoundedExecutorService executorService = new CallerRunsBoundedExecutorService(Executors.newSingleThreadExecutor(), 1);
+    
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+    
+    @Test
+    public void assertExecuteInCallerThreadWhenFull() throws InterruptedException {
+        CountDownLatch finish = new CountDownLatch(1);
+        executeBlockingTask(finish);
+        assertThat(executeRecordingTask().get(), is(Thread.currentThread()));
+        finish.countDown();
+    }
+    
+    @Test
+    public void assertExecuteInDelegateAfterMaxPendingTasksIncreased() throws InterruptedException {
+        CountDownLatch finish = new CountDownLatch(1);
+        executeBlockingTask(finish);
+        executorService.setMaxPendingTasks(2);
+        assertThat(executorService.getMaxPendingTasks(), is(2));
+        assertNull(executeRecordingTask().get());
+        finish.countDown();
+    }
+    
+    @Test
+    public void assertExecuteInCallerThreadAfterMaxPendingTasksDecreased() throws InterruptedException {
+        executorService.setMaxPendingTasks(0);
+        assertThat(executeRecordingTask().get(), is(Thread.currentThread()));
+    }
+    
+    private void executeBlockingTask(final CountDownLatch finish) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        executorService.execute(new Runnable() {
+            
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    finish.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+    
+    private AtomicReference<Thread> executeRecordingTask() {
+        final AtomicReference<Thread> result = new AtomicReference<>();
+        executorService.execute(new Runnable() {
+            
+            @Override
+            public void run() {
+                result.set(Thread.currentThread());
+            }
+        });
+        return result;
+    }
+}
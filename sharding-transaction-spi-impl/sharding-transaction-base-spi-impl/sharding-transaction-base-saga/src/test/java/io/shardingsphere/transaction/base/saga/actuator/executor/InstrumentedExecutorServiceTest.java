@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class InstrumentedExecutorServiceTest {
+    
+    private final InstrumentedExecutorService executorService = new InstrumentedExecutorService(Executors.newSingleThreadExecutor());
+    
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+    
+    @Test
+    public void assertMetrics() throws InterruptedException, ExecutionException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        Future<?> first = executorService.submit(new Runnable() {
+            
+            @Override
+            public void run() {
+                started.countDown();
+                await(finish);
+            }
+        });
+        Future<?> second = executorService.submit(new Runnable() {
+            
+            @Override
+            public void run() {
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThat(executorService.getActiveCount(), is(1));
+        assertThat(executorService.getQueueDepth(), is(1));
+        finish.countDown();
+        first.get();
+        second.get();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertThat(executorService.getActiveCount(), is(0));
+        assertThat(executorService.getQueueDepth(), is(0));
+        assertThat(executorService.getCompletedTaskCount(), is(2L));
+        assertTrue(executorService.getMaxTaskLatencyMilliseconds() >= executorService.getAverageTaskLatencyMilliseconds());
+    }
+    
+    private void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Test
+    public void assertSetPoolSize() {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(4, 4, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        CallerRunsBoundedExecutorService callerRunsExecutorService = new CallerRunsBoundedExecutorService(threadPoolExecutor, 8);
+        InstrumentedExecutorService executorService = new InstrumentedExecutorService(callerRunsExecutorService);
+        try {
+            assertThat(executorService.getPoolSize().get(), is(4));
+            assertTrue(executorService.setPoolSize(8));
+            assertThat(threadPoolExecutor.getCorePoolSize(), is(8));
+            assertThat(callerRunsExecutorService.getMaxPendingTasks(), is(12));
+            assertTrue(executorService.setPoolSize(2));
+            assertThat(threadPoolExecutor.getMaximumPoolSize(), is(2));
+            assertThat(executorService.getPoolSize().get(), is(2));
+            assertThat(callerRunsExecutorService.getMaxPendingTasks(), is(6));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void assertSetPoolSizeWithoutThreadPoolExecutor() {
+        assertFalse(executorService.getPoolSize().isPresent());
+        assertFalse(executorService.setPoolSize(8));
+    }
+    
+    @Test
+    public void assertPrestartAllCoreThreads() {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(4, 4, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        InstrumentedExecutorService executorService = new InstrumentedExecutorService(new CallerRunsBoundedExecutorService(threadPoolExecutor, 8));
+        try {
+            assertThat(executorService.prestartAllCoreThreads(), is(4));
+            assertThat(threadPoolExecutor.getPoolSize(), is(4));
+            assertThat(executorService.prestartAllCoreThreads(), is(0));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void assertPrestartAllCoreThreadsWithoutThreadPoolExecutor() {
+        assertThat(executorService.prestartAllCoreThreads(), is(0));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class PriorityThreadPoolExecutorTest {
+    
+    private PriorityThreadPoolExecutor executor;
+    
+    @After
+    public void tearDown() {
+        SagaPriorityHolder.clear();
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void assertRunHigherPriorityFirst() throws InterruptedException {
+        executor = new PriorityThreadPoolExecutor(1, 60000L, Executors.defaultThreadFactory());
+        assertThat(runInOrder(SagaPriority.LOW, SagaPriority.NORMAL, SagaPriority.HIGH), is(Arrays.asList(SagaPriority.HIGH, SagaPriority.NORMAL, SagaPriority.LOW)));
+    }
+    
+    @Test
+    public void assertRunInSubmissionOrderWithoutAging() throws InterruptedException {
+        executor = new PriorityThreadPoolExecutor(1, 0L, Executors.defaultThreadFactory());
+        assertThat(runInOrder(SagaPriority.LOW, SagaPriority.NORMAL, SagaPriority.HIGH), is(Arrays.asList(SagaPriority.LOW, SagaPriority.NORMAL, SagaPriority.HIGH)));
+    }
+    
+    private List<SagaPriority> runInOrder(final SagaPriority... priorities) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    finish.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final List<SagaPriority> result = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(priorities.length);
+        for (final SagaPriority each : priorities) {
+            SagaPriorityHolder.set(each);
+            executor.execute(new Runnable() {
+                
+                @Override
+                public void run() {
+                    result.add(each);
+                    completed.countDown();
+                }
+            });
+        }
+        finish.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        return result;
+    }
+}
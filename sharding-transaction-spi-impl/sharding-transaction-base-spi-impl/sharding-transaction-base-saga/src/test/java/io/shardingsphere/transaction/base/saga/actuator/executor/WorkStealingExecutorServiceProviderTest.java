@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.executor;
+
+import org.apache.shardingsphere.core.execute.ShardingThreadFactoryBuilder;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertTrue;
+
+public final class WorkStealingExecutorServiceProviderTest {
+    
+    @Test
+    public void assertNewExecutorServiceWithThreadFactory() throws InterruptedException, ExecutionException {
+        ExecutorService executorService = new WorkStealingExecutorServiceProvider().newExecutorService(1, 1, ShardingThreadFactoryBuilder.build("Saga-%d"));
+        try {
+            String actual = executorService.submit(new Callable<String>() {
+                
+                @Override
+                public String call() {
+                    return Thread.currentThread().getName();
+                }
+            }).get();
+            assertTrue(actual.startsWith("ShardingSphere-Saga-WorkStealing-"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
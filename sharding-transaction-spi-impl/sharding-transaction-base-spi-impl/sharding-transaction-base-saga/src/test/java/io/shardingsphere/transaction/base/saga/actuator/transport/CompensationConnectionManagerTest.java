@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import org.apache.servicecomb.saga.core.TransportFailedException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class CompensationConnectionManagerTest {
+    
+    @Mock
+    private DataSource dataSource;
+    
+    private CompensationConnectionManager compensationConnectionManager;
+    
+    @Before
+    public void setUp() {
+        compensationConnectionManager = new CompensationConnectionManager(Collections.singletonMap("ds_0", dataSource), 2, 10);
+    }
+    
+    @Test
+    public void assertBorrowConcurrently() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class), mock(Connection.class));
+        Connection first = compensationConnectionManager.borrow("ds_0");
+        Connection second = compensationConnectionManager.borrow("ds_0");
+        assertThat(first, not(second));
+        verify(dataSource, times(2)).getConnection();
+    }
+    
+    @Test
+    public void assertReuseReleasedConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        compensationConnectionManager.release("ds_0", compensationConnectionManager.borrow("ds_0"));
+        assertThat(compensationConnectionManager.borrow("ds_0"), is(connection));
+        verify(dataSource).getConnection();
+        assertThat(compensationConnectionManager.getBorrowCount(), is(2L));
+    }
+    
+    @Test(expected = TransportFailedException.class)
+    public void assertBorrowTimeout() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class), mock(Connection.class));
+        compensationConnectionManager.borrow("ds_0");
+        compensationConnectionManager.borrow("ds_0");
+        try {
+            compensationConnectionManager.borrow("ds_0");
+        } finally {
+            assertThat(compensationConnectionManager.getBorrowCount(), is(3L));
+        }
+    }
+    
+    @Test(expected = TransportFailedException.class)
+    public void assertBorrowAbsentDataSource() {
+        compensationConnectionManager.borrow("ds_1");
+    }
+    
+    @Test
+    public void assertCloseReturnsIdleConnections() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        compensationConnectionManager.release("ds_0", compensationConnectionManager.borrow("ds_0"));
+        verify(connection, never()).close();
+        compensationConnectionManager.close();
+        verify(connection).close();
+    }
+    
+    @Test
+    public void assertReleaseClosedConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isClosed()).thenReturn(true);
+        compensationConnectionManager.release("ds_0", compensationConnectionManager.borrow("ds_0"));
+        compensationConnectionManager.borrow("ds_0");
+        verify(dataSource, times(2)).getConnection();
+    }
+    
+    @Test
+    public void assertBorrowCachedConnection() throws SQLException {
+        Connection cachedConnection = mock(Connection.class);
+        assertThat(compensationConnectionManager.borrow("ds_0", cachedConnection), is(cachedConnection));
+        verify(dataSource, never()).getConnection();
+        compensationConnectionManager.release("ds_0", cachedConnection);
+        compensationConnectionManager.close();
+        verify(cachedConnection, never()).close();
+    }
+    
+    @Test
+    public void assertBorrowWhenCachedConnectionLent() throws SQLException {
+        Connection cachedConnection = mock(Connection.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        compensationConnectionManager.borrow("ds_0", cachedConnection);
+        assertThat(compensationConnectionManager.borrow("ds_0", cachedConnection), is(connection));
+        compensationConnectionManager.release("ds_0", cachedConnection);
+        assertThat(compensationConnectionManager.borrow("ds_0", cachedConnection), is(cachedConnection));
+    }
+    
+    @Test
+    public void assertBorrowWhenCachedConnectionClosed() throws SQLException {
+        Connection cachedConnection = mock(Connection.class);
+        Connection connection = mock(Connection.class);
+        when(cachedConnection.isClosed()).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        assertThat(compensationConnectionManager.borrow("ds_0", cachedConnection), is(connection));
+    }
+}
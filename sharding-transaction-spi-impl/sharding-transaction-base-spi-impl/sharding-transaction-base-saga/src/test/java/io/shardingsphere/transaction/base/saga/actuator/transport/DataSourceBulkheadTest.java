@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import org.apache.servicecomb.saga.core.TransportFailedException;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class DataSourceBulkheadTest {
+    
+    @Test
+    public void assertAcquireAndRelease() {
+        DataSourceBulkhead dataSourceBulkhead = new DataSourceBulkhead(2, 0);
+        dataSourceBulkhead.acquire("ds_0");
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_0"), is(1));
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_1"), is(2));
+        dataSourceBulkhead.release("ds_0");
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_0"), is(2));
+    }
+    
+    @Test(expected = TransportFailedException.class)
+    public void assertAcquireWhenFull() {
+        DataSourceBulkhead dataSourceBulkhead = new DataSourceBulkhead(1, 10);
+        dataSourceBulkhead.acquire("ds_0");
+        dataSourceBulkhead.acquire("ds_0");
+    }
+    
+    @Test
+    public void assertMaxConcurrencyFromConfiguration() {
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setExecutorSize(8);
+        assertThat(new DataSourceBulkhead(sagaConfiguration).getAvailablePermits("ds_0"), is(4));
+        sagaConfiguration.setDataSourceMaxConcurrency(3);
+        assertThat(new DataSourceBulkhead(sagaConfiguration).getAvailablePermits("ds_0"), is(3));
+    }
+    
+    @Test
+    public void assertReloadKeepsHeldPermits() {
+        DataSourceBulkhead dataSourceBulkhead = new DataSourceBulkhead(2, 0);
+        dataSourceBulkhead.acquire("ds_0");
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setDataSourceMaxConcurrency(4);
+        dataSourceBulkhead.reload(sagaConfiguration);
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_0"), is(3));
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_1"), is(4));
+        sagaConfiguration.setDataSourceMaxConcurrency(1);
+        dataSourceBulkhead.reload(sagaConfiguration);
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_0"), is(0));
+        dataSourceBulkhead.release("ds_0");
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds_0"), is(1));
+    }
+}
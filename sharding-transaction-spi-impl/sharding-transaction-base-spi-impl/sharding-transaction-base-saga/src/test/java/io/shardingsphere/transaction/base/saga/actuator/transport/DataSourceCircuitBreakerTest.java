@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class DataSourceCircuitBreakerTest {
+    
+    @Test
+    public void assertOpenAfterContinuousUnavailableFailures() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(2, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertFalse(circuitBreaker.isOpen("ds_0"));
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertTrue(circuitBreaker.isOpen("ds_0"));
+        assertFalse(circuitBreaker.isOpen("ds_1"));
+    }
+    
+    @Test
+    public void assertNotOpenWhenFailuresInterruptedBySuccess() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(2, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.onSuccess("ds_0");
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertFalse(circuitBreaker.isOpen("ds_0"));
+    }
+    
+    @Test
+    public void assertOpenWhenFailuresInterruptedByOtherErrors() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(2, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.TRANSIENT);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertTrue(circuitBreaker.isOpen("ds_0"));
+    }
+    
+    @Test
+    public void assertReleaseProbeWhenProbeFailedWithOtherError() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 0);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.acquire("ds_0");
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNKNOWN);
+        assertTrue(circuitBreaker.isOpen("ds_0"));
+        circuitBreaker.acquire("ds_0");
+    }
+    
+    @Test(expected = DataSourceUnavailableException.class)
+    public void assertAcquireWhenOpen() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.acquire("ds_0");
+    }
+    
+    @Test
+    public void assertProbeAfterOpenDuration() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 0);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.acquire("ds_0");
+        try {
+            circuitBreaker.acquire("ds_0");
+            throw new AssertionError("Only one probe is allowed");
+        } catch (final DataSourceUnavailableException ignored) {
+        }
+        circuitBreaker.onSuccess("ds_0");
+        assertFalse(circuitBreaker.isOpen("ds_0"));
+        circuitBreaker.acquire("ds_0");
+    }
+    
+    @Test
+    public void assertReopenWhenProbeFailed() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(3, 0);
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        }
+        circuitBreaker.acquire("ds_0");
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertTrue(circuitBreaker.isOpen("ds_0"));
+    }
+    
+    @Test
+    public void assertDisabled() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(0, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.acquire("ds_0");
+        assertFalse(circuitBreaker.isOpen("ds_0"));
+    }
+    
+    @Test
+    public void assertDrainErrorRates() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(0, 0);
+        circuitBreaker.onSuccess("ds_0");
+        circuitBreaker.onFailure("ds_0", SQLErrorType.TRANSIENT);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.NON_RETRYABLE);
+        circuitBreaker.onSuccess("ds_1");
+        Map<String, Double> actual = circuitBreaker.drainErrorRates(1L);
+        assertThat(actual.get("ds_0"), is(0.75D));
+        assertThat(actual.get("ds_1"), is(0D));
+        assertTrue(circuitBreaker.drainErrorRates(1L).isEmpty());
+    }
+    
+    @Test
+    public void assertKeepExecutionsBelowMinExecutionsForNextDrain() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(0, 0);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.TRANSIENT);
+        assertTrue(circuitBreaker.drainErrorRates(2L).isEmpty());
+        circuitBreaker.onSuccess("ds_0");
+        assertThat(circuitBreaker.drainErrorRates(2L).get("ds_0"), is(0.5D));
+        assertTrue(circuitBreaker.drainErrorRates(1L).isEmpty());
+    }
+    
+    @Test
+    public void assertReloadKeepsOpenCircuit() {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 60000);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        SagaConfiguration sagaConfiguration = new SagaConfiguration();
+        sagaConfiguration.setCircuitBreakerFailureThreshold(3);
+        sagaConfiguration.setCircuitBreakerOpenMilliseconds(0);
+        circuitBreaker.reload(sagaConfiguration);
+        assertTrue(circuitBreaker.isOpen("ds_0"));
+        circuitBreaker.acquire("ds_0");
+        circuitBreaker.onSuccess("ds_0");
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        circuitBreaker.onFailure("ds_0", SQLErrorType.UNAVAILABLE);
+        assertFalse(circuitBreaker.isOpen("ds_0"));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import org.apache.servicecomb.saga.core.TransportFailedException;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransactionRollbackException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class SQLErrorTypeTest {
+    
+    @Test
+    public void assertUnavailable() {
+        assertThat(SQLErrorType.of(wrap(new SQLNonTransientConnectionException("closed"))), is(SQLErrorType.UNAVAILABLE));
+        assertThat(SQLErrorType.of(wrap(new SQLException("link failure", "08S01"))), is(SQLErrorType.UNAVAILABLE));
+        assertThat(SQLErrorType.of(new DataSourceUnavailableException("ds_0")), is(SQLErrorType.UNAVAILABLE));
+    }
+    
+    @Test
+    public void assertTransient() {
+        assertThat(SQLErrorType.of(wrap(new SQLTransactionRollbackException("deadlock"))), is(SQLErrorType.TRANSIENT));
+        assertThat(SQLErrorType.of(wrap(new SQLException("lock wait timeout", "HY000", 1205))), is(SQLErrorType.TRANSIENT));
+    }
+    
+    @Test
+    public void assertNonRetryable() {
+        assertThat(SQLErrorType.of(wrap(new SQLSyntaxErrorException("syntax"))), is(SQLErrorType.NON_RETRYABLE));
+        assertThat(SQLErrorType.of(wrap(new SQLException("duplicate", "23000"))), is(SQLErrorType.NON_RETRYABLE));
+    }
+    
+    @Test
+    public void assertUnknown() {
+        assertThat(SQLErrorType.of(new TransportFailedException("unknown")), is(SQLErrorType.UNKNOWN));
+        assertThat(SQLErrorType.of(wrap(new SQLException("unknown"))), is(SQLErrorType.UNKNOWN));
+    }
+    
+    private TransportFailedException wrap(final SQLException ex) {
+        return new TransportFailedException("failed", ex);
+    }
+}
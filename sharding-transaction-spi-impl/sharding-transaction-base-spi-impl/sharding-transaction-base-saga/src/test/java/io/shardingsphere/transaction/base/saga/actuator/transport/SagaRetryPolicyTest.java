@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.actuator.transport;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class SagaRetryPolicyTest {
+    
+    private final SagaRetryPolicy sagaRetryPolicy = new SagaRetryPolicy(100, 5000, new Random());
+    
+    @Test
+    public void assertExponentialBackoffWithJitter() {
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long expectedDelay = 1000L << attempt;
+            long actual = sagaRetryPolicy.getDelayMilliseconds(attempt, SQLErrorType.UNKNOWN, 1000);
+            assertTrue(actual >= expectedDelay / 2 && actual <= expectedDelay || expectedDelay > 5000);
+        }
+    }
+    
+    @Test
+    public void assertMaxDelay() {
+        assertTrue(sagaRetryPolicy.getDelayMilliseconds(10, SQLErrorType.UNAVAILABLE, 1000) <= 5000);
+        assertTrue(sagaRetryPolicy.getDelayMilliseconds(100, SQLErrorType.UNAVAILABLE, 1000) >= 2500);
+    }
+    
+    @Test
+    public void assertTransientDelay() {
+        assertTrue(sagaRetryPolicy.getDelayMilliseconds(0, SQLErrorType.TRANSIENT, 1000) <= 100);
+    }
+    
+    @Test
+    public void assertZeroBaseDelay() {
+        assertThat(sagaRetryPolicy.getDelayMilliseconds(3, SQLErrorType.UNKNOWN, 0), is(0L));
+    }
+    
+    @Test
+    public void assertDelayFactor() {
+        SagaRetryPolicy sagaRetryPolicy = new SagaRetryPolicy(100, 60000, new Random());
+        sagaRetryPolicy.setDelayFactor(4D);
+        long actual = sagaRetryPolicy.getDelayMilliseconds(0, SQLErrorType.UNKNOWN, 1000);
+        assertTrue(actual >= 2000 && actual <= 4000);
+    }
+}
@@ -22,7 +22,14 @@ import com.google.common.collect.Lists;
 import io.shardingsphere.transaction.base.context.SQLTransaction;
 import io.shardingsphere.transaction.base.context.ExecuteStatus;
 import io.shardingsphere.transaction.base.context.ShardingSQLTransaction;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLMetaData;
+import io.shardingsphere.transaction.base.hook.revert.RevertSQLResult;
+import io.shardingsphere.transaction.base.hook.revert.constant.DMLType;
+import io.shardingsphere.transaction.base.hook.revert.constant.SQLDialect;
+import io.shardingsphere.transaction.base.hook.revert.executor.delete.DeleteMultiRowRevertSQL;
 import io.shardingsphere.transaction.base.saga.actuator.definition.SagaDefinitionFactory;
+import io.shardingsphere.transaction.base.saga.config.SagaConfiguration;
+import io.shardingsphere.transaction.base.utils.PreparedStatementCache;
 import org.apache.servicecomb.saga.core.TransportFailedException;
 import org.apache.shardingsphere.transaction.core.TransactionOperationType;
 import org.junit.Before;
@@ -32,16 +39,30 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransactionRollbackException;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -60,15 +81,29 @@ public class SagaSQLTransportTest {
     @Mock
     private PreparedStatement preparedStatement;
     
+    @Mock
+    private DataSource dataSource;
+    
     private SagaSQLTransport sagaSQLTransport;
     
-    private final Map<String, Connection> cachedConnections = new HashMap<>();
+    private CompensationConnectionManager compensationConnectionManager;
+    
+    private final SagaConfiguration sagaConfiguration = new SagaConfiguration();
+    
+    private final DataSourceBulkhead dataSourceBulkhead = new DataSourceBulkhead(1, 0);
+    
+    private final DataSourceCircuitBreaker dataSourceCircuitBreaker = new DataSourceCircuitBreaker(2, 60000);
     
     @Before
     public void setUp() throws SQLException {
-        sagaSQLTransport = new SagaSQLTransport(shardingSQLTransaction);
-        when(shardingSQLTransaction.getCachedConnections()).thenReturn(cachedConnections);
-        cachedConnections.put("ds1", connection);
+        sagaConfiguration.setTransactionMaxRetries(0);
+        sagaConfiguration.setCompensationMaxRetries(0);
+        sagaSQLTransport = new SagaSQLTransport(shardingSQLTransaction, sagaConfiguration, dataSourceBulkhead, dataSourceCircuitBreaker, new SagaRetryPolicy(0, 0, new Random()));
+        compensationConnectionManager = new CompensationConnectionManager(Collections.singletonMap("ds1", dataSource), 1, 0);
+        when(shardingSQLTransaction.getCompensationConnectionManager()).thenReturn(compensationConnectionManager);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(shardingSQLTransaction.getPreparedStatementCache(connection)).thenReturn(new PreparedStatementCache(connection, 16));
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
     }
     
@@ -125,4 +160,207 @@ public class SagaSQLTransportTest {
         verify(connection).prepareStatement("xxx");
         verify(preparedStatement).executeBatch();
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void assertWithExecuteMultiRowSQL() throws SQLException {
+        sagaConfiguration.setCompensationBatchMaxRows(2);
+        RevertSQLResult revertSQLResult = new RevertSQLResult("INSERT INTO t_order_0 VALUES (?,?)");
+        revertSQLResult.setMultiRowRevertSQL(new DeleteMultiRowRevertSQL("t_order_0", Arrays.asList("order_id", "status"), Collections.singletonList("order_id"), SQLDialect.GENERIC));
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(sqlTransaction.getRevertSQLResult()).thenReturn(revertSQLResult);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        List<List<String>> parameters = Lists.newLinkedList();
+        for (int i = 1; i <= 5; i++) {
+            parameters.add(Arrays.asList(String.valueOf(i), "init"));
+        }
+        sagaSQLTransport.with("ds1", "INSERT INTO t_order_0 VALUES (?,?)", parameters);
+        verify(connection).prepareStatement("INSERT INTO t_order_0 VALUES (?,?), (?,?)");
+        verify(connection).prepareStatement("INSERT INTO t_order_0 VALUES (?,?)");
+        verify(preparedStatement, times(2)).addBatch();
+        verify(preparedStatement).executeBatch();
+        verify(preparedStatement).executeUpdate();
+    }
+    
+    @Test
+    public void assertWithExecuteMultiRowSQLDistinctByPrimaryKey() throws SQLException {
+        sagaConfiguration.setCompensationBatchMaxRows(4);
+        DeleteMultiRowRevertSQL multiRowRevertSQL = new DeleteMultiRowRevertSQL("t_order_0", Arrays.asList("order_id", "status"), Collections.singletonList("order_id"), SQLDialect.POSTGRESQL);
+        RevertSQLResult revertSQLResult = new RevertSQLResult(multiRowRevertSQL.toSQL(1));
+        revertSQLResult.setMultiRowRevertSQL(multiRowRevertSQL);
+        revertSQLResult.setMetaData(new RevertSQLMetaData(DMLType.DELETE, "t_order_0", Collections.singletonList(0), Arrays.asList("order_id", "status"), false));
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(sqlTransaction.getRevertSQLResult()).thenReturn(revertSQLResult);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        List<List<String>> parameters = Arrays.asList(Arrays.asList("1", "init"), Arrays.asList("2", "init"), Arrays.asList("1", "paid"), Arrays.asList("3", "init"));
+        sagaSQLTransport.with("ds1", multiRowRevertSQL.toSQL(1), parameters);
+        verify(connection).prepareStatement(multiRowRevertSQL.toSQL(3));
+        verify(connection, never()).prepareStatement(multiRowRevertSQL.toSQL(4));
+        verify(preparedStatement).setObject(2, "paid");
+        verify(preparedStatement).executeUpdate();
+    }
+    
+    @Test
+    public void assertWithExecuteCompensationGroup() throws SQLException {
+        SQLTransaction first = newCompensatingSQLTransaction(1);
+        SQLTransaction second = newCompensatingSQLTransaction(2);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(second));
+        when(shardingSQLTransaction.findCompensatingSQLTransactions("ds1")).thenReturn(Arrays.asList(second, first));
+        when(shardingSQLTransaction.getCompensationGroupFailedDataSources()).thenReturn(new HashSet<String>());
+        when(shardingSQLTransaction.getCompensationGroupLock("ds1")).thenReturn(new Object());
+        sagaSQLTransport.with("ds1", "revert-sql", Collections.singletonList(Collections.singletonList("2")));
+        verify(connection).setAutoCommit(false);
+        verify(preparedStatement, times(2)).executeBatch();
+        verify(connection).commit();
+        assertThat(first.getExecuteStatus(), is(ExecuteStatus.COMPENSATED));
+        assertThat(second.getExecuteStatus(), is(ExecuteStatus.COMPENSATED));
+    }
+    
+    @Test
+    public void assertWithExecuteCompensationGroupFailed() throws SQLException {
+        SQLTransaction first = newCompensatingSQLTransaction(1);
+        SQLTransaction second = newCompensatingSQLTransaction(2);
+        Set<String> compensationGroupFailedDataSources = new HashSet<>();
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(second));
+        when(shardingSQLTransaction.findCompensatingSQLTransactions("ds1")).thenReturn(Arrays.asList(second, first));
+        when(shardingSQLTransaction.getCompensationGroupFailedDataSources()).thenReturn(compensationGroupFailedDataSources);
+        when(shardingSQLTransaction.getCompensationGroupLock("ds1")).thenReturn(new Object());
+        when(preparedStatement.executeBatch()).thenThrow(new SQLException("group failed")).thenReturn(new int[]{1});
+        sagaSQLTransport.with("ds1", "revert-sql", Collections.singletonList(Collections.singletonList("2")));
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(preparedStatement, times(2)).executeBatch();
+        assertTrue(compensationGroupFailedDataSources.contains("ds1"));
+        assertThat(first.getExecuteStatus(), is(ExecuteStatus.COMPENSATING));
+        assertThat(second.getExecuteStatus(), is(ExecuteStatus.COMPENSATED));
+    }
+    
+    @Test(expected = TransportFailedException.class)
+    public void assertWithBulkheadFull() throws SQLException {
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        dataSourceBulkhead.acquire("ds1");
+        try {
+            sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        } finally {
+            verify(connection, never()).prepareStatement("xxx");
+        }
+    }
+    
+    @Test
+    public void assertReleaseBulkheadAfterExecution() {
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        assertThat(dataSourceBulkhead.getAvailablePermits("ds1"), is(1));
+    }
+    
+    @Test
+    public void assertRetryTransientFailure() throws SQLException {
+        sagaConfiguration.setCompensationMaxRetries(2);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLTransactionRollbackException("deadlock")).thenReturn(1);
+        sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        verify(preparedStatement, times(2)).executeUpdate();
+    }
+    
+    @Test(expected = TransportFailedException.class)
+    public void assertNotRetryNonRetryableFailure() throws SQLException {
+        sagaConfiguration.setCompensationMaxRetries(2);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLSyntaxErrorException("syntax"));
+        try {
+            sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        } finally {
+            verify(preparedStatement).executeUpdate();
+        }
+    }
+    
+    @Test(expected = DataSourceUnavailableException.class)
+    public void assertFailFastWhenCircuitOpen() throws SQLException {
+        sagaConfiguration.setTransactionMaxRetries(3);
+        when(shardingSQLTransaction.getOperationType()).thenReturn(TransactionOperationType.COMMIT);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.FAILURE);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLNonTransientConnectionException("closed"));
+        try {
+            sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        } finally {
+            verify(preparedStatement, times(2)).executeUpdate();
+            assertTrue(dataSourceCircuitBreaker.isOpen("ds1"));
+        }
+    }
+    
+    @Test(timeout = 5000L, expected = DataSourceUnavailableException.class)
+    public void assertNotRetryWhenCircuitOpen() {
+        sagaConfiguration.setTransactionMaxRetries(-1);
+        dataSourceCircuitBreaker.onFailure("ds1", SQLErrorType.UNAVAILABLE);
+        dataSourceCircuitBreaker.onFailure("ds1", SQLErrorType.UNAVAILABLE);
+        when(shardingSQLTransaction.getOperationType()).thenReturn(TransactionOperationType.COMMIT);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.FAILURE);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+    }
+    
+    @Test(timeout = 5000L)
+    public void assertCompensateAfterCircuitProbeAllowed() throws SQLException {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 50L);
+        circuitBreaker.onFailure("ds1", SQLErrorType.UNAVAILABLE);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        new SagaSQLTransport(shardingSQLTransaction, sagaConfiguration, dataSourceBulkhead, circuitBreaker, new SagaRetryPolicy(0, 0, new Random())).with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        verify(preparedStatement).executeUpdate();
+        assertFalse(circuitBreaker.isOpen("ds1"));
+    }
+    
+    @Test(timeout = 5000L, expected = TransportFailedException.class)
+    public void assertStopRetryAfterMaxRetryDuration() throws SQLException {
+        sagaConfiguration.setCompensationMaxRetries(-1);
+        sagaConfiguration.setMaxRetryDurationMilliseconds(0);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLTransactionRollbackException("deadlock"));
+        try {
+            sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        } finally {
+            verify(preparedStatement).executeUpdate();
+        }
+    }
+    
+    @Test
+    public void assertReleaseCircuitProbeWhenProbeThrowsRuntimeException() throws SQLException {
+        DataSourceCircuitBreaker circuitBreaker = new DataSourceCircuitBreaker(1, 0L);
+        circuitBreaker.onFailure("ds1", SQLErrorType.UNAVAILABLE);
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        when(preparedStatement.executeUpdate()).thenThrow(new IllegalStateException("driver failed"));
+        try {
+            new SagaSQLTransport(shardingSQLTransaction, sagaConfiguration, dataSourceBulkhead, circuitBreaker, new SagaRetryPolicy(0, 0, new Random())).with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+            fail("Expected illegal state exception");
+        } catch (final IllegalStateException ignored) {
+        }
+        circuitBreaker.acquire("ds1");
+    }
+    
+    @Test
+    public void assertReuseCompensationConnection() throws SQLException {
+        when(sqlTransaction.getExecuteStatus()).thenReturn(ExecuteStatus.COMPENSATING);
+        when(shardingSQLTransaction.findSQLTransaction(anyString(), anyString(), ArgumentMatchers.<List<String>>anyList())).thenReturn(Optional.of(sqlTransaction));
+        sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        sagaSQLTransport.with("ds1", "xxx", Lists.<List<String>>newLinkedList());
+        verify(dataSource).getConnection();
+        assertThat(compensationConnectionManager.getBorrowCount(), is(2L));
+        compensationConnectionManager.close();
+        verify(connection).close();
+    }
+    
+    private SQLTransaction newCompensatingSQLTransaction(final int orderId) {
+        SQLTransaction result = new SQLTransaction("ds1", "tx-sql", new LinkedList<Collection<Object>>());
+        RevertSQLResult revertSQLResult = new RevertSQLResult("revert-sql");
+        revertSQLResult.getParameters().add(Collections.<Object>singletonList(orderId));
+        result.setRevertSQLResult(revertSQLResult);
+        result.setExecuteStatus(ExecuteStatus.COMPENSATING);
+        return result;
+    }
+}
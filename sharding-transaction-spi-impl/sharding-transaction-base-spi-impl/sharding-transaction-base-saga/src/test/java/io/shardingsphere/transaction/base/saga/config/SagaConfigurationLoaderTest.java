@@ -19,23 +19,70 @@ package io.shardingsphere.transaction.base.saga.config;
 
 import org.junit.Test;
 
+import java.util.Properties;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public final class SagaConfigurationLoaderTest {
     
     @Test
     public void assertLoad() {
         SagaConfiguration sagaConfiguration = SagaConfigurationLoader.load();
+        assertThat(sagaConfiguration.getExecutorType(), is("WORK_STEALING"));
         assertThat(sagaConfiguration.getExecutorSize(), is(16));
+        assertThat(sagaConfiguration.getExecutorQueueSize(), is(256));
+        assertThat(sagaConfiguration.getPriorityAgingMilliseconds(), is(500));
+        assertThat(sagaConfiguration.getInlineMaxBranches(), is(4));
+        assertThat(sagaConfiguration.getMaxInFlightSagas(), is(64));
+        assertThat(sagaConfiguration.getAdmissionTimeoutMilliseconds(), is(0));
+        assertThat(sagaConfiguration.getDataSourceMaxConcurrency(), is(6));
+        assertThat(sagaConfiguration.getDataSourceAcquireTimeoutMilliseconds(), is(3000));
+        assertThat(sagaConfiguration.getRequestMaxRows(), is(200));
         assertThat(sagaConfiguration.getTransactionMaxRetries(), is(8));
         assertThat(sagaConfiguration.getCompensationMaxRetries(), is(4));
         assertThat(sagaConfiguration.getTransactionRetryDelayMilliseconds(), is(1000));
         assertThat(sagaConfiguration.getCompensationRetryDelayMilliseconds(), is(2000));
+        assertThat(sagaConfiguration.getTransientRetryDelayMilliseconds(), is(50));
+        assertThat(sagaConfiguration.getMaxRetryDelayMilliseconds(), is(30000));
+        assertThat(sagaConfiguration.getMaxRetryDurationMilliseconds(), is(120000));
+        assertThat(sagaConfiguration.getCircuitBreakerFailureThreshold(), is(3));
+        assertThat(sagaConfiguration.getCircuitBreakerOpenMilliseconds(), is(5000));
+        assertThat(sagaConfiguration.getCompensationBatchMaxRows(), is(500));
+        assertThat(sagaConfiguration.getCompensationBatchMaxParameters(), is(65535));
+        assertFalse(sagaConfiguration.isCompensationGroupEnabled());
+        assertThat(sagaConfiguration.getCompensationMaxConnections(), is(8));
+        assertTrue(sagaConfiguration.isEarlyCompensationEnabled());
+        assertThat(sagaConfiguration.getPreparedStatementCacheSize(), is(128));
+        assertTrue(sagaConfiguration.isAutoTuningEnabled());
+        assertThat(sagaConfiguration.getAutoTuningIntervalMilliseconds(), is(2000));
+        assertThat(sagaConfiguration.getAutoTuningMinExecutorSize(), is(2));
+        assertThat(sagaConfiguration.getAutoTuningMaxExecutorSize(), is(32));
+        assertThat(sagaConfiguration.getAutoTuningTargetLatencyMilliseconds(), is(500));
+        assertThat(sagaConfiguration.getAutoTuningMaxRetryDelayFactor(), is(4));
+        assertFalse(sagaConfiguration.isWarmUpEnabled());
+        assertThat(sagaConfiguration.getConfigurationReloadIntervalMilliseconds(), is(60000));
         assertSagaPersistenceConfiguration(sagaConfiguration.getSagaPersistenceConfiguration());
     }
     
+    @Test
+    public void assertLoadFromProperties() {
+        Properties sagaProperties = new Properties();
+        sagaProperties.setProperty("saga.actuator.executor.size", "12");
+        sagaProperties.setProperty("saga.actuator.compensation.max.retries", "7");
+        SagaConfiguration sagaConfiguration = SagaConfigurationLoader.load(sagaProperties);
+        assertThat(sagaConfiguration.getExecutorSize(), is(12));
+        assertThat(sagaConfiguration.getCompensationMaxRetries(), is(7));
+        assertThat(sagaConfiguration.getExecutorType(), is("BOUNDED_QUEUE"));
+    }
+    
+    @Test
+    public void assertFindConfigurationFile() {
+        assertTrue(SagaConfigurationLoader.findConfigurationFile().isPresent());
+    }
+    
     private void assertSagaPersistenceConfiguration(final SagaPersistenceConfiguration sagaPersistenceConfiguration) {
         assertFalse(sagaPersistenceConfiguration.isEnablePersistence());
         assertThat(sagaPersistenceConfiguration.getUrl(), is("jdbc:mysql://localhost:3306/saga"));
@@ -47,5 +94,9 @@ public final class SagaConfigurationLoaderTest {
         assertThat(sagaPersistenceConfiguration.getIdleTimeoutMilliseconds(), is(60000L));
         assertThat(sagaPersistenceConfiguration.getMaintenanceIntervalMilliseconds(), is(29999L));
         assertThat(sagaPersistenceConfiguration.getMaxLifetimeMilliseconds(), is(1800000L));
+        assertFalse(sagaPersistenceConfiguration.isGroupCommitEnabled());
+        assertThat(sagaPersistenceConfiguration.getGroupCommitBatchSize(), is(256));
+        assertThat(sagaPersistenceConfiguration.getGroupCommitMaxWaitMilliseconds(), is(5L));
+        assertThat(sagaPersistenceConfiguration.getGroupCommitQueueSize(), is(8192));
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.config;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class SagaConfigurationWatcherTest {
+    
+    @Test
+    public void assertReloadWhenConfigurationFileChanged() throws IOException {
+        File configurationFile = File.createTempFile("saga", ".properties");
+        configurationFile.deleteOnExit();
+        writeExecutorSize(configurationFile, 4);
+        final List<SagaConfiguration> changedConfigurations = new LinkedList<>();
+        SagaConfigurationWatcher sagaConfigurationWatcher = new SagaConfigurationWatcher(configurationFile, new SagaConfigurationChangedListener() {
+            
+            @Override
+            public void onChanged(final SagaConfiguration sagaConfiguration) {
+                changedConfigurations.add(sagaConfiguration);
+            }
+        });
+        sagaConfigurationWatcher.run();
+        assertTrue(changedConfigurations.isEmpty());
+        writeExecutorSize(configurationFile, 16);
+        assertTrue(configurationFile.setLastModified(configurationFile.lastModified() + 1000L));
+        sagaConfigurationWatcher.run();
+        assertThat(changedConfigurations.size(), is(1));
+        assertThat(changedConfigurations.get(0).getExecutorSize(), is(16));
+        sagaConfigurationWatcher.run();
+        assertThat(changedConfigurations.size(), is(1));
+    }
+    
+    private void writeExecutorSize(final File configurationFile, final int executorSize) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("saga.actuator.executor.size", String.valueOf(executorSize));
+        try (OutputStream outputStream = new FileOutputStream(configurationFile)) {
+            properties.store(outputStream, null);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         AsyncSnapshotPersistenceTest.class,
+        GroupCommitSagaEventWriterTest.class,
         JDBCSagaEventRepositoryTest.class,
         JDBCSagaPersistenceTest.class,
         SQLFileReaderTest.class
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.saga.persistence.impl.jdbc;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import lombok.SneakyThrows;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class GroupCommitSagaEventWriterTest {
+    
+    @Mock
+    private DataSource dataSource;
+    
+    @Mock
+    private Connection connection;
+    
+    @Mock
+    private PreparedStatement statement;
+    
+    private GroupCommitSagaEventWriter groupCommitSagaEventWriter;
+    
+    @Before
+    @SneakyThrows
+    public void setUp() {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        groupCommitSagaEventWriter = new GroupCommitSagaEventWriter(dataSource, JDBCSagaEventRepository.INSERT_SQL, 3, 10000L, 16);
+    }
+    
+    @After
+    public void tearDown() {
+        groupCommitSagaEventWriter.close();
+    }
+    
+    @Test
+    public void assertWriteInOneBatch() throws SQLException, InterruptedException, ExecutionException {
+        List<ListenableFuture<Void>> futures = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaStartedEvent", "{}")));
+        }
+        for (ListenableFuture<Void> each : futures) {
+            each.get();
+        }
+        verify(connection).setAutoCommit(false);
+        verify(statement, times(3)).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+        assertThat(groupCommitSagaEventWriter.getCommittedBatchCount(), is(1L));
+    }
+    
+    @Test
+    public void assertWriteFailure() throws SQLException, InterruptedException {
+        when(statement.executeBatch()).thenThrow(new SQLException("write failed"));
+        List<ListenableFuture<Void>> futures = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaStartedEvent", "{}")));
+        }
+        for (ListenableFuture<Void> each : futures) {
+            assertExecutionException(each, SQLException.class);
+        }
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        assertThat(groupCommitSagaEventWriter.getCommittedBatchCount(), is(0L));
+    }
+    
+    @Test
+    public void assertWriteAfterRuntimeFailure() throws SQLException, InterruptedException, ExecutionException {
+        when(statement.executeBatch()).thenThrow(new IllegalStateException("write failed")).thenReturn(new int[3]);
+        List<ListenableFuture<Void>> futures = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaStartedEvent", "{}")));
+        }
+        for (ListenableFuture<Void> each : futures) {
+            assertExecutionException(each, IllegalStateException.class);
+        }
+        futures.clear();
+        for (int i = 0; i < 3; i++) {
+            futures.add(groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaEndedEvent", "{}")));
+        }
+        for (ListenableFuture<Void> each : futures) {
+            each.get();
+        }
+        verify(connection).rollback();
+        assertThat(groupCommitSagaEventWriter.getCommittedBatchCount(), is(1L));
+    }
+    
+    @Test
+    public void assertCloseFlushesQueuedEvents() throws SQLException, InterruptedException, ExecutionException {
+        ListenableFuture<Void> future = groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaStartedEvent", "{}"));
+        groupCommitSagaEventWriter.close();
+        assertTrue(future.isDone());
+        future.get();
+        verify(connection).commit();
+    }
+    
+    @Test
+    public void assertWriteAfterClose() throws InterruptedException {
+        groupCommitSagaEventWriter.close();
+        assertExecutionException(groupCommitSagaEventWriter.write(Arrays.<Object>asList("saga_id", "SagaStartedEvent", "{}")), IllegalStateException.class);
+    }
+    
+    private void assertExecutionException(final ListenableFuture<Void> future, final Class<? extends Exception> causeClass) throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected execution exception");
+        } catch (final ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(causeClass));
+        }
+    }
+}
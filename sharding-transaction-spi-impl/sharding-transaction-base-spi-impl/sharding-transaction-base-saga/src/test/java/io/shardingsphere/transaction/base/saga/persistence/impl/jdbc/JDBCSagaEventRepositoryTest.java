@@ -17,12 +17,14 @@
 
 package io.shardingsphere.transaction.base.saga.persistence.impl.jdbc;
 
+import com.google.common.util.concurrent.Futures;
 import lombok.SneakyThrows;
 import org.apache.servicecomb.saga.core.SagaEvent;
 import org.apache.servicecomb.saga.core.ToJsonFormat;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -30,6 +32,7 @@ import javax.sql.DataSource;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -70,4 +73,17 @@ public class JDBCSagaEventRepositoryTest {
         eventRepository.insert(sagaEvent);
         verify(statement).executeUpdate();
     }
+    
+    @Test
+    public void assertInsertByGroupCommit() {
+        SagaEvent sagaEvent = mock(SagaEvent.class);
+        when(sagaEvent.json(any(ToJsonFormat.class))).thenReturn("{}");
+        GroupCommitSagaEventWriter groupCommitSagaEventWriter = mock(GroupCommitSagaEventWriter.class);
+        when(groupCommitSagaEventWriter.write(ArgumentMatchers.<List<Object>>any())).thenReturn(Futures.<Void>immediateFuture(null));
+        JDBCSagaEventRepository groupCommitEventRepository = new JDBCSagaEventRepository(dataSource, groupCommitSagaEventWriter);
+        groupCommitEventRepository.insert(sagaEvent);
+        verify(groupCommitSagaEventWriter).write(ArgumentMatchers.<List<Object>>any());
+        groupCommitEventRepository.close();
+        verify(groupCommitSagaEventWriter).close();
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class PreparedStatementCacheTest {
+    
+    @Mock
+    private Connection connection;
+    
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Before
+    public void setUp() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenAnswer(new Answer<PreparedStatement>() {
+            
+            @Override
+            public PreparedStatement answer(final InvocationOnMock invocation) {
+                return mock(PreparedStatement.class);
+            }
+        });
+        preparedStatementCache = new PreparedStatementCache(connection, 2);
+    }
+    
+    @Test
+    public void assertGetCachedPreparedStatement() throws SQLException {
+        PreparedStatement expected = preparedStatementCache.getPreparedStatement("sql_1");
+        PreparedStatement actual = preparedStatementCache.getPreparedStatement("sql_1");
+        assertThat(actual, sameInstance(expected));
+        verify(connection, times(1)).prepareStatement("sql_1");
+        verify(actual).clearParameters();
+        assertThat(preparedStatementCache.getHits(), is(1L));
+        assertThat(preparedStatementCache.getMisses(), is(1L));
+    }
+    
+    @Test
+    public void assertEvictLeastRecentlyUsedPreparedStatement() throws SQLException {
+        PreparedStatement evicted = preparedStatementCache.getPreparedStatement("sql_1");
+        PreparedStatement retained = preparedStatementCache.getPreparedStatement("sql_2");
+        preparedStatementCache.getPreparedStatement("sql_3");
+        verify(evicted).close();
+        assertThat(preparedStatementCache.size(), is(2));
+        assertThat(preparedStatementCache.getPreparedStatement("sql_2"), sameInstance(retained));
+        assertThat(preparedStatementCache.getPreparedStatement("sql_1"), not(sameInstance(evicted)));
+    }
+    
+    @Test
+    public void assertRecreateClosedPreparedStatement() throws SQLException {
+        PreparedStatement closed = preparedStatementCache.getPreparedStatement("sql_1");
+        when(closed.isClosed()).thenReturn(true);
+        assertThat(preparedStatementCache.getPreparedStatement("sql_1"), not(sameInstance(closed)));
+        assertThat(preparedStatementCache.getMisses(), is(2L));
+    }
+    
+    @Test
+    public void assertClose() throws SQLException {
+        PreparedStatement preparedStatement = preparedStatementCache.getPreparedStatement("sql_1");
+        preparedStatementCache.close();
+        verify(preparedStatement).close();
+        assertThat(preparedStatementCache.size(), is(0));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertNewInstanceWithoutPositiveSize() {
+        new PreparedStatementCache(connection, 0);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.shardingsphere.transaction.base.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class QueryResultTest {
+    
+    private final QueryResult queryResult = new QueryResult(Arrays.asList("order_id", "USER_ID", "status"));
+    
+    @Test
+    public void assertFindColumnIndexIgnoreCase() {
+        assertThat(queryResult.findColumnIndex("ORDER_ID"), is(0));
+        assertThat(queryResult.findColumnIndex("user_id"), is(1));
+        assertThat(queryResult.findColumnIndex("modifier"), is(-1));
+    }
+    
+    @Test
+    public void assertAddRow() {
+        assertTrue(queryResult.isEmpty());
+        queryResult.addRow(new Object[]{1, 2, "init"});
+        assertFalse(queryResult.isEmpty());
+        assertThat(queryResult.getRows().get(0)[2], is((Object) "init"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertAddRowWithWrongLength() {
+        queryResult.addRow(new Object[]{1, 2});
+    }
+}